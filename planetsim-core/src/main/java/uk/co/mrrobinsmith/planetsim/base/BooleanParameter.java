@@ -2,7 +2,6 @@ package uk.co.mrrobinsmith.planetsim.base;
 
 public class BooleanParameter extends Parameter
 {
-	protected boolean value;
 	protected boolean defaultValue;
 	
 	/**
@@ -16,17 +15,26 @@ public class BooleanParameter extends Parameter
 	public BooleanParameter(String name, boolean value, boolean isAdjustable)
 	{
 		super(name, isAdjustable);
-		this.value = value;
+		setValue(value);
 		defaultValue = value;
 	}
 	
+	/**
+	 * Gets the type of this BooleanParameter.
+	 * @return Parameter.BOOLEAN.
+	 */
+	public int getType()
+	{
+		return Parameter.BOOLEAN;
+	}
+	
 	/**
 	 * Gets the value of this BooleanParameter.
 	 * @return the boolean value.
 	 */
 	public boolean getValue()
 	{
-		return value;
+		return load() != 0;
 	}
 	
 	/**
@@ -34,16 +42,17 @@ public class BooleanParameter extends Parameter
 	 */
 	public String getValueString()
 	{
-		return "" + value;
+		return "" + getValue();
 	}
 	
 	/**
-	 * Sets the value of this BooleanParameter to a new value.
+	 * Sets the value of this BooleanParameter to a new value, stored as 1 for
+	 * true and 0 for false.
 	 * @param value the new value.
 	 */
 	public void setValue(boolean value)
 	{
-		this.value = value;
+		store(value ? 1 : 0);
 	}
 	
 	/**
@@ -53,7 +62,7 @@ public class BooleanParameter extends Parameter
 	 */
 	public void setValue(String s)
 	{
-		value = Boolean.parseBoolean(s.trim());
+		setValue(Boolean.parseBoolean(s.trim()));
 	}
 	
 	/**
@@ -61,7 +70,7 @@ public class BooleanParameter extends Parameter
 	 */
 	public void setDefault()
 	{
-		value = defaultValue;
+		setValue(defaultValue);
 	}
 	
 	/**
@@ -69,12 +78,7 @@ public class BooleanParameter extends Parameter
 	 */
 	public void incValue()
 	{
-		if (value) {
-			value = false;
-		}
-		else {
-			value = true;
-		}
+		setValue(!getValue());
 	}
 	
 	/**
@@ -82,12 +86,7 @@ public class BooleanParameter extends Parameter
 	 */
 	public void decValue()
 	{
-		if (!value) {
-			value = true;
-		}
-		else {
-			value = false;
-		}
+		setValue(!getValue());
 	}
 
 }
@@ -29,14 +29,13 @@ public class BoundDoubleParameter extends DoubleParameter
 	public void setValue(double newValue)
 	{
 		if ((newValue >= minValue) && (newValue <= maxValue)) {
-			value = newValue;
+			storeDouble(newValue);
 		}
 		else if (newValue > maxValue) {
-			value = maxValue;
-			
+			storeDouble(maxValue);
 		}
 		else if (newValue < minValue) {
-			value = minValue;
+			storeDouble(minValue);
 		}
 	}
 	
@@ -49,14 +48,13 @@ public class BoundDoubleParameter extends DoubleParameter
 	{
 		double newValue = Double.parseDouble(s.trim());
 		if ((newValue >= minValue) && (newValue <= maxValue)) {
-			value = newValue;
+			storeDouble(newValue);
 		}
 		else if (newValue > maxValue) {
-			value = maxValue;
-			
+			storeDouble(maxValue);
 		}
 		else if (newValue < minValue) {
-			value = minValue;
+			storeDouble(minValue);
 		}
 	}
 	
@@ -65,6 +63,7 @@ public class BoundDoubleParameter extends DoubleParameter
 	 */
 	public void incValue()
 	{
+		double value = getValue();
 		double newValue = 0.0;
 		if (value < MIN_DELTA && value >= 0.0) {
 			newValue = MIN_DELTA;
@@ -79,10 +78,10 @@ public class BoundDoubleParameter extends DoubleParameter
 			newValue = value / 2.0;
 		}
 		if (newValue < maxValue) {
-			value = newValue;
+			storeDouble(newValue);
 		}
 		else {
-			value = maxValue;
+			storeDouble(maxValue);
 		}
 	}
 	
@@ -91,6 +90,7 @@ public class BoundDoubleParameter extends DoubleParameter
 	 */
 	public void decValue()
 	{
+		double value = getValue();
 		double newValue = 0.0;
 		if (value > (-1.0 * MIN_DELTA) && value <= 0.0) {
 			newValue = -1.0 * MIN_DELTA;
@@ -105,10 +105,10 @@ public class BoundDoubleParameter extends DoubleParameter
 			newValue = value / 2.0;
 		}
 		if (newValue > minValue) {
-			value = newValue;
+			storeDouble(newValue);
 		}
 		else {
-			value = minValue;
+			storeDouble(minValue);
 		}
 	}
 	
@@ -40,7 +40,7 @@ public class BoundIntParameter extends IntParameter
 	public void setValue(int value)
 	{
 		if (value >= minValue && value <= maxValue) {
-			this.value = value;
+			store(value);
 		}
 	}
 	
@@ -49,7 +49,7 @@ public class BoundIntParameter extends IntParameter
 	 */
 	public void setDefault()
 	{
-		value = defaultValue;
+		store(defaultValue);
 	}
 	
 	/**
@@ -57,12 +57,12 @@ public class BoundIntParameter extends IntParameter
 	 */
 	public void incValue()
 	{
-		int newValue = ++value;
+		int newValue = getValue() + 1;
 		if (newValue < maxValue) {
-			value = newValue;
+			store(newValue);
 		}
 		else {
-			value = maxValue;
+			store(maxValue);
 		}
 	}
 
@@ -71,12 +71,12 @@ public class BoundIntParameter extends IntParameter
 	 */
 	public void decValue()
 	{
-		int newValue = --value;
+		int newValue = getValue() - 1;
 		if (newValue > minValue) {
-			value = newValue;
+			store(newValue);
 		}
 		else {
-			value = minValue;
+			store(minValue);
 		}
 	}
 	
@@ -0,0 +1,124 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+/**
+ * ChoiceParameter extends Parameter to implement functionality to store a
+ * parameter whose value is one of a fixed set of named options, e.g. the
+ * integration scheme used by a simulation.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class ChoiceParameter extends Parameter
+{
+	private String[] choices;
+	private int defaultIndex;
+
+	/**
+	 * Creates a ChoiceParameter given a name for the parameter, a String array
+	 * of the possible choices and a boolean value to indicate whether or not
+	 * the parameter is adjustable during running of the simulation.
+	 * @param name the name.
+	 * @param choices the names of the possible choices. The first choice is
+	 * the default value.
+	 * @param isAdjustable true or false.
+	 */
+	public ChoiceParameter(String name, String[] choices, boolean isAdjustable)
+	{
+		super(name, isAdjustable);
+		this.choices = choices;
+		defaultIndex = 0;
+	}
+
+	/**
+	 * Gets the type of this ChoiceParameter.
+	 * @return Parameter.CHOICE.
+	 */
+	public int getType()
+	{
+		return Parameter.CHOICE;
+	}
+
+	/**
+	 * Gets the name of the currently selected choice.
+	 * @return the String choice.
+	 */
+	public String getValue()
+	{
+		return choices[getIndex()];
+	}
+
+	/**
+	 * Gets the position of the currently selected choice within the array of
+	 * possible choices.
+	 * @return the int index.
+	 */
+	public int getIndex()
+	{
+		return (int) load();
+	}
+
+	/**
+	 * Gets the name of the currently selected choice.
+	 * @return the String choice.
+	 */
+	public String getValueString()
+	{
+		return choices[getIndex()];
+	}
+	
+	/**
+	 * Gets the set of possible choices for this ChoiceParameter.
+	 * @return String array with the names of the choices.
+	 */
+	public String[] getChoices()
+	{
+		return choices;
+	}
+
+	/**
+	 * Sets the value of this ChoiceParameter given the name of one of its
+	 * choices.
+	 * @param s the String with the choice name.
+	 * @throws IllegalArgumentException if the name is not one of the
+	 * possible choices.
+	 */
+	public void setValue(String s)
+	{
+		for (int i = 0; i < choices.length; ++i) {
+			if (choices[i].equals(s.trim())) {
+				store(i);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("Unknown choice for " + name + ": "
+		                                   + s + " (choose from "
+		                                   + String.join(", ", choices)
+		                                   + ")");
+	}
+
+	/**
+	 * Changes this ChoiceParameter to the next of its possible choices.
+	 */
+	public void incValue()
+	{
+		store((getIndex() + 1) % choices.length);
+	}
+
+	/**
+	 * Changes this ChoiceParameter to the previous of its possible choices.
+	 */
+	public void decValue()
+	{
+		store((choices.length + getIndex() - 1) % choices.length);
+	}
+
+	/**
+	 * Sets this ChoiceParameter to its initial choice.
+	 */
+	public void setDefault()
+	{
+		store(defaultIndex);
+	}
+
+}
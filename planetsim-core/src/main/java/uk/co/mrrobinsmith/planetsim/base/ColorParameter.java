@@ -1,10 +1,10 @@
 package uk.co.mrrobinsmith.planetsim.base;
 
-import java.awt.Color;
-
 /**
  * ColorParameter extends Parameter to implement functionality to store a
- * parameter with a Color object as its value.
+ * parameter with a colour as its value. The colour is held as an RGB int, in
+ * the form used by java.awt.Color, so that the parameter can be used without
+ * AWT, e.g. by a simulation running without a GUI.
  * 
  * @author Robin Smith
  * @version 1 (03/11/2010)
@@ -12,15 +12,15 @@ import java.awt.Color;
 
 public class ColorParameter extends Parameter
 {
-	private Color value;
-	private Color defaultValue;
+	private int defaultValue;
 	private String[] possibleCols;
 	
-    private static Color[] colors = {Color.black, Color.blue, Color.cyan,
-                                     Color.darkGray, Color.gray, Color.green,
-                                     Color.lightGray, Color.magenta,
-                                     Color.orange, Color.pink, Color.red,
-                                     Color.white, Color.yellow};
+    /* the RGB values of the static Colors of java.awt.Color */
+    private static int[] colors = {0xFF000000, 0xFF0000FF, 0xFF00FFFF,
+                                   0xFF404040, 0xFF808080, 0xFF00FF00,
+                                   0xFFC0C0C0, 0xFFFF00FF, 0xFFFFC800,
+                                   0xFFFFAFAF, 0xFFFF0000, 0xFFFFFFFF,
+                                   0xFFFFFF00};
     private static String[] colorNames = {"black", "blue", "cyan", "darkGray",
                                           "gray", "green", "lightGray",
                                           "magenta", "orange", "pink", "red",
@@ -44,18 +44,26 @@ public class ColorParameter extends Parameter
 	{
 		super(name, isAdjustable);
 		this.possibleCols = possibleCols;
-		value = stringToColor(possibleCols[0]);
-		TYPE = Parameter.COLOR;
-		defaultValue = value;
+		defaultValue = stringToColor(possibleCols[0]);
+		store(defaultValue);
+	}
+	
+	/**
+	 * Gets the type of this ColorParameter.
+	 * @return Parameter.COLOR.
+	 */
+	public int getType()
+	{
+		return Parameter.COLOR;
 	}
 	
 	/**
 	 * Gets the value of the ColorParameter.
-	 * @return the Color object.
+	 * @return the RGB value of the colour.
 	 */
-	public Color getValue()
+	public int getValue()
 	{
-		return value;
+		return (int) load();
 	}
 	
 	/**
@@ -64,7 +72,7 @@ public class ColorParameter extends Parameter
 	 */
 	public String getValueString()
 	{
-		return colorToString(value);
+		return colorToString(getValue());
 	}
 	
 	/**
@@ -77,12 +85,13 @@ public class ColorParameter extends Parameter
 	}
 	
 	/**
-	 * Sets the value of this ColorParameter given a new Color.
-	 * @param color the new Color.
+	 * Sets the value of this ColorParameter given the RGB value of a new
+	 * colour.
+	 * @param color the RGB value.
 	 */
-	public void setValue(Color color)
+	public void setValue(int color)
 	{
-		
+		store(color);
 	}
 	
 	/**
@@ -92,7 +101,7 @@ public class ColorParameter extends Parameter
 	 */
 	public void setValue(String color)
 	{
-		value = stringToColor(color);
+		store(stringToColor(color));
 	}
 	
 	/**
@@ -103,8 +112,8 @@ public class ColorParameter extends Parameter
 	{
 		int n = possibleCols.length;
 		for (int i = 0; i < n; ++i) {
-			if (possibleCols[i].equals(colorToString(value))) {
-				value = stringToColor(possibleCols[(i + 1) % n]);
+			if (possibleCols[i].equals(colorToString(getValue()))) {
+				store(stringToColor(possibleCols[(i + 1) % n]));
 				break;
 			}
 		}
@@ -118,8 +127,8 @@ public class ColorParameter extends Parameter
 	{
 		int n = possibleCols.length;
 		for (int i = 0; i < n; ++i) {
-			if (possibleCols[i].equals(colorToString(value))) {
-				value = stringToColor(possibleCols[(n + i - 1) % n]);
+			if (possibleCols[i].equals(colorToString(getValue()))) {
+				store(stringToColor(possibleCols[(n + i - 1) % n]));
 				break;
 			}
 		}
@@ -130,18 +139,18 @@ public class ColorParameter extends Parameter
 	 */
 	public void setDefault()
 	{
-		value = defaultValue;
+		store(defaultValue);
 	}
 	
     /**
-     * Converts a Color object to its String name.
-     * @param color Color object.
+     * Converts the RGB value of a colour to its String name.
+     * @param color the RGB value.
      * @return a String containing the name of that color.
      */
-    private static String colorToString(Color color)
+    private static String colorToString(int color)
     {
     	for (int i = 0; i < colors.length; ++i) {
-    		if (colors[i].equals(color)) {
+    		if (colors[i] == color) {
     			return colorNames[i];
     		}
     	}
@@ -149,18 +158,19 @@ public class ColorParameter extends Parameter
     }
     
     /**
-     * Converts a color name to the color object of that name.
+     * Converts a color name to the RGB value of the color of that name.
      * @param colorName a String containing a color name.
-     * @return the corresponding Color object.
+     * @return the corresponding RGB value.
+     * @throws IllegalArgumentException if there is no color of that name.
      */
-    private static Color stringToColor(String colorName)
+    private static int stringToColor(String colorName)
     {
     	for (int i = 0; i < colorNames.length; ++i) {
     		if (colorNames[i].equals(colorName)) {
     			return colors[i];
     		}
     	}
-    	return null;
+    	throw new IllegalArgumentException("Unknown colour: " + colorName);
     }
 	
 }
@@ -2,10 +2,9 @@ package uk.co.mrrobinsmith.planetsim.base;
 
 /**
  * DoubleDataParameter extends DataParameter to implement functionality to
- * display a DoubleParameter within a GUI. DoubleDataParameter contains a
- * DataParamLine field which can be set using the setParamLine() method. The
- * DataParamLine is used to display and update the parameter's value dynamically
- * during running of the simulation using the DoubleDataParameter.
+ * display a DoubleParameter within a GUI. A DataParamPanel listening to the
+ * ParameterRegistry holding the DoubleDataParameter displays and updates the
+ * parameter's value dynamically during running of the simulation using it.
  * 
  * @author Robin Smith
  * @version 1 (03/11/2010)
@@ -13,8 +12,6 @@ package uk.co.mrrobinsmith.planetsim.base;
 
 public class DoubleDataParameter extends DoubleParameter
 {
-	private DataParamLine paramLine = null;
-	
 	/**
 	 * Creates a DoubleDataParameter given a name, value and a boolean value to
 	 * indicate whether or not the parameter is adjustable during running of
@@ -28,22 +25,21 @@ public class DoubleDataParameter extends DoubleParameter
 		super(name, value, isAdjustable);
 	}
 	
-	/**
-	 * Sets this DoubleDataParameter's DataParamLine.
-	 * @param paramLine the DataParamLine using this DoubleDataParameter.
-	 */
-    public void setParamLine(DataParamLine paramLine)
+    /**
+     * Sets the value of this DoubleDataParameter.
+     * @param value the new value.
+     */
+    public void setValue(double value)
     {
-        this.paramLine = paramLine;
+    	storeDouble(value);
     }
-	
+    
     /**
      * Increments the value of this DoubleDataParameter.
      */
 	public void incValue()
 	{
-		value += 0.1;
-		paramLine.updateDisplay();
+		storeDouble(getValue() + 0.1);
 	}
 	
 	/**
@@ -51,8 +47,7 @@ public class DoubleDataParameter extends DoubleParameter
 	 */
 	public void decValue()
 	{
-		value += 0.1;
-		paramLine.updateDisplay();
+		storeDouble(getValue() - 0.1);
 	}
 	
 }
@@ -10,7 +10,6 @@ package uk.co.mrrobinsmith.planetsim.base;
 
 public class DoubleParameter extends Parameter
 {
-	protected double value;
 	private double defaultValue;
 	
 	/**
@@ -24,18 +23,26 @@ public class DoubleParameter extends Parameter
 	public DoubleParameter(String name, double value, boolean isAdjustable)
 	{
 		super(name, isAdjustable);
-		this.value = value;
-		TYPE = Parameter.DOUBLE;
+		storeDouble(value);
 		defaultValue = value;
 	}
 	
+	/**
+	 * Gets the type of this DoubleParameter.
+	 * @return Parameter.DOUBLE.
+	 */
+	public int getType()
+	{
+		return Parameter.DOUBLE;
+	}
+	
 	/**
 	 * Gets the value of this DoubleParameter.
 	 * @return the value.
 	 */
 	public double getValue()
 	{
-		return value;
+		return loadDouble();
 	}
 	
 	/**
@@ -44,7 +51,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public String getValueString()
 	{
-		return "" + value;
+		return "" + getValue();
 	}
 	
 	/**
@@ -53,7 +60,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public void setValue(double value)
 	{
-		this.value = value;
+		storeDouble(value);
 	}
 	
 	/**
@@ -63,7 +70,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public void setValue(String s)
 	{
-		this.value = Double.parseDouble(s.trim());
+		storeDouble(Double.parseDouble(s.trim()));
 	}
 	
 	/**
@@ -71,7 +78,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public void setDefault()
 	{
-		value = defaultValue;
+		storeDouble(defaultValue);
 	}
 	
 	/**
@@ -79,7 +86,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public void incValue()
 	{
-		value *= 2;
+		storeDouble(getValue() * 2);
 	}
 	
 	/**
@@ -87,7 +94,7 @@ public class DoubleParameter extends Parameter
 	 */
 	public void decValue()
 	{
-		value /= 2;
+		storeDouble(getValue() / 2);
 	}
 	
 }
@@ -3,8 +3,7 @@ package uk.co.mrrobinsmith.planetsim.base;
 /**
  * IntDataParameter is to be used to store a simulation parameter which is
  * dynamic during running of the simulation. It can be displayed in a
- * DataParamPanel by setting its parent DataParamLine using the setParamLine()
- * method.
+ * DataParamPanel by adding it to the ParameterRegistry the panel listens to.
  * 
  * @author Robin Smith
  * @version 1 (12/11/2010)
@@ -13,8 +12,6 @@ package uk.co.mrrobinsmith.planetsim.base;
 public class IntDataParameter extends IntParameter
 {
 
-    private DataParamLine paramLine = null;
-    
     /**
      * Creates a new IntDataParameter, given a name, initial value and a boolean
      * value which should always be false.
@@ -25,17 +22,15 @@ public class IntDataParameter extends IntParameter
     public IntDataParameter(String name, int value, boolean isAdjustable)
     {
         super(name, value, isAdjustable);
-        this.value = value;
     }
     
-	/**
-	 * Sets this IntDataParameter's parent DataParamLine for displaying the
-	 * parameter in a GUI.
-	 * @param paramLine the DataParamLine displaying this IntDataParameter.
-	 */
-    public void setParamLine(DataParamLine paramLine)
+    /**
+     * Sets the value of this IntDataParameter.
+     * @param value the new value.
+     */
+    public void setValue(int value)
     {
-        this.paramLine = paramLine;
+    	store(value);
     }
     
     /**
@@ -43,10 +38,7 @@ public class IntDataParameter extends IntParameter
      */
     public void incValue()
     {
-    	value++;
-    	if (!(paramLine == null)) {
-    		paramLine.updateDisplay();
-    	}
+    	store(getValue() + 1);
     }
     
 	/**
@@ -54,10 +46,7 @@ public class IntDataParameter extends IntParameter
 	 */
     public void decValue()
     {
-        value--;
-        if (!(paramLine == null)) {
-            paramLine.updateDisplay();
-        }
+        store(getValue() - 1);
     }
     
 }
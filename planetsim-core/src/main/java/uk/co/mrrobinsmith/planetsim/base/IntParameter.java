@@ -10,7 +10,6 @@ package uk.co.mrrobinsmith.planetsim.base;
 
 public class IntParameter extends Parameter
 {
-	protected int value;
 	protected int defaultValue;
 	
 	/**
@@ -24,18 +23,26 @@ public class IntParameter extends Parameter
 	public IntParameter(String name, int value, boolean isAdjustable)
 	{
 		super(name, isAdjustable);
-		this.value = value;
-		TYPE = Parameter.INT;
+		store(value);
 		defaultValue = value;
 	}
 	
+	/**
+	 * Gets the type of this IntParameter.
+	 * @return Parameter.INT.
+	 */
+	public int getType()
+	{
+		return Parameter.INT;
+	}
+	
 	/**
 	 * Gets the value of this IntParameter.
 	 * @return the value.
 	 */
 	public int getValue()
 	{
-		return value;
+		return (int) load();
 	}
 	
 	/**
@@ -44,7 +51,7 @@ public class IntParameter extends Parameter
 	 */
 	public String getValueString()
 	{
-		return "" + value;
+		return "" + getValue();
 	}
 	
 	/**
@@ -53,7 +60,7 @@ public class IntParameter extends Parameter
 	 */
 	public void setValue(int value)
 	{
-		this.value = value;
+		store(value);
 	}
 	
 	/**
@@ -63,7 +70,7 @@ public class IntParameter extends Parameter
 	 */
 	public void setValue(String s)
 	{
-		this.value = Integer.parseInt(s.trim());
+		store(Integer.parseInt(s.trim()));
 	}
 	
 	/**
@@ -71,7 +78,7 @@ public class IntParameter extends Parameter
 	 */
 	public void setDefault()
 	{
-		value = defaultValue;
+		store(defaultValue);
 	}
 	
 	/**
@@ -79,7 +86,7 @@ public class IntParameter extends Parameter
 	 */
 	public void incValue()
 	{
-		value++;
+		store(getValue() + 1);
 	}
 	
 	/**
@@ -87,7 +94,7 @@ public class IntParameter extends Parameter
 	 */
 	public void decValue()
 	{
-		value--;
+		store(getValue() - 1);
 	}
 	
 }
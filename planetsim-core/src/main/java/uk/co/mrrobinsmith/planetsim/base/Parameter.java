@@ -0,0 +1,176 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+/**
+ * Parameter is a superclass which describes the basic properties of a 
+ * parameter used in a simulation: the parameter's name and whether or not it
+ * is adjustable during the running of the simulation it is used in. Known
+ * subclasses: IntParameter, DoubleParameter, ColorParameter, IntSimParameter,
+ * DoubleSimParameter, ColorSimParameter, IntDataParameter, DoubleDataParameter,
+ * ChoiceParameter.
+ * 
+ * The value of a Parameter is not held by the Parameter itself but in a slot
+ * of a ParameterRegistry, packed into a long. A new Parameter has a registry
+ * of its own; adding it to another registry moves its value there, after
+ * which the Parameter is a view of that slot.
+ * 
+ * @author Robin Smith
+ * @version 1 (03/11/2010)
+ */
+
+public abstract class Parameter
+{
+	public static final int INT = 0;
+	public static final int DOUBLE = 1;
+	public static final int COLOR = 2;
+	public static final int CHOICE = 3;
+	public static final int BOOLEAN = 4;
+	
+	protected String name;
+	protected boolean isAdjustable;
+	/* the ParameterRegistry holding the Parameter's value */
+	private ParameterRegistry registry;
+	private int slot;
+	
+	/**
+	 * Constructor for Parameter.
+	 * @param name name of the parameter
+	 * @param isAdjustable whether or not the parameter is adjustable while the
+	 * simulation using it is running
+	 */
+	public Parameter(String name, boolean isAdjustable)
+	{
+		this.name = name;
+		this.isAdjustable = isAdjustable;
+		registry = new ParameterRegistry(1);
+		slot = registry.add(this, 0);
+	}
+	
+	/**
+	 * Gets the name of the Parameter.
+	 * @return the name.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * Gets the type of the Parameter as an int.
+	 * @return the type.
+	 */
+	public abstract int getType();
+	
+	/**
+	 * Gets the value of the Parameter as a String.
+	 * @return the String.
+	 */
+	public abstract String getValueString();
+	
+	/**
+	 * Checks whether the Parameter is adjustable.
+	 * @return true or false.
+	 */
+	public boolean isAdjustable()
+	{
+		return isAdjustable;
+	}
+	
+	/**
+	 * Increments the value of the Parameter.
+	 */
+	public abstract void incValue();
+	
+	/**
+	 * Decrements the value of the Parameter.
+	 */
+	public abstract void decValue();
+	
+	/**
+	 * Sets the value of the Parameter using a String containing the value.
+	 */
+	public abstract void setValue(String s);
+	
+	/**
+	 * Sets the value of the Parameter to its default value.
+	 */
+	public abstract void setDefault();
+	
+	/**
+	 * Gets the value of the Parameter packed into a long, as it is stored in
+	 * its ParameterRegistry.
+	 * @return the packed value.
+	 */
+	public final long getSlotValue()
+	{
+		return registry.getLong(slot);
+	}
+	
+	/**
+	 * Gets the ParameterRegistry holding the Parameter's value.
+	 * @return the ParameterRegistry.
+	 */
+	public ParameterRegistry getRegistry()
+	{
+		return registry;
+	}
+	
+	/**
+	 * Gets the slot holding the Parameter's value in its ParameterRegistry.
+	 * @return the slot.
+	 */
+	public int getSlot()
+	{
+		return slot;
+	}
+	
+	/**
+	 * Sets the ParameterRegistry holding the Parameter's value, used by the
+	 * registry when the Parameter is added to it.
+	 * @param registry the ParameterRegistry.
+	 * @param slot the slot holding the value.
+	 */
+	void setRegistry(ParameterRegistry registry, int slot)
+	{
+		this.registry = registry;
+		this.slot = slot;
+	}
+	
+	/**
+	 * Gets the packed value from the Parameter's slot; used by subclasses to
+	 * read their value.
+	 * @return the packed value.
+	 */
+	protected long load()
+	{
+		return registry.getLong(slot);
+	}
+	
+	/**
+	 * Stores a packed value in the Parameter's slot; used by subclasses to
+	 * set their value.
+	 * @param value the packed value.
+	 */
+	protected void store(long value)
+	{
+		registry.write(slot, value);
+	}
+	
+	/**
+	 * Gets the value in the Parameter's slot as a double.
+	 * @return the value.
+	 */
+	protected double loadDouble()
+	{
+		return registry.getDouble(slot);
+	}
+	
+	/**
+	 * Stores a double value in the Parameter's slot, as its bits.
+	 * @param value the value.
+	 */
+	protected void storeDouble(double value)
+	{
+		registry.write(slot, Double.doubleToLongBits(value));
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+/**
+ * ParameterListener is implemented by objects which want to know when the
+ * Parameters of a ParameterRegistry change, e.g. a panel displaying them.
+ * 
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public interface ParameterListener
+{
+	
+	/**
+	 * Called once for each batch of changes, with the slots of every
+	 * Parameter which has changed since the last batch. This is called on the
+	 * thread which fired the changes.
+	 * @param registry the ParameterRegistry holding the Parameters.
+	 * @param slots the slots of the Parameters which have changed.
+	 */
+	public void parametersChanged(ParameterRegistry registry, int[] slots);
+	
+}
@@ -0,0 +1,260 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ParameterRegistry holds the value of each of a set of Parameters in a slot
+ * of a primitive array, packed into a long: ints, choice indices, booleans
+ * and colours as themselves and doubles as their bits. The slot is the only
+ * copy of the value; the Parameter reads and writes it there. Each time a
+ * value changes the registry's version goes up by one, so a reader can tell
+ * that nothing has changed since it last looked by comparing a single
+ * number.
+ * 
+ * Changes are passed to the registered ParameterListeners in batches: the
+ * owner of the registry calls fireChanges() at a convenient moment, e.g.
+ * once per step of a simulation, and each listener is told about every
+ * Parameter which has changed since the last batch. Nothing is done if no
+ * Parameter has changed.
+ * 
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class ParameterRegistry
+{
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private Parameter[] params;
+	private long[] values;
+	/* the version at which each slot last changed */
+	private long[] versions;
+	private int size = 0;
+	private AtomicLong version = new AtomicLong(0);
+	/* the version at which changes were last fired */
+	private long firedVersion = 0;
+	private ArrayList<ParameterListener> listeners
+		= new ArrayList<ParameterListener>();
+	
+	/**
+	 * Creates a new, empty ParameterRegistry.
+	 */
+	public ParameterRegistry()
+	{
+		this(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new, empty ParameterRegistry with room for the given number
+	 * of Parameters before it has to grow.
+	 * @param capacity the number of Parameters, at least 1.
+	 */
+	ParameterRegistry(int capacity)
+	{
+		params = new Parameter[capacity];
+		values = new long[capacity];
+		versions = new long[capacity];
+	}
+	
+	/**
+	 * Creates a new ParameterRegistry holding the given Parameters.
+	 * @param params the Parameters.
+	 */
+	public ParameterRegistry(Parameter[] params)
+	{
+		this(Math.max(params.length, 1));
+		for (Parameter param : params) {
+			register(param);
+		}
+	}
+	
+	/**
+	 * Adds a Parameter to the registry, giving it the next free slot. The
+	 * Parameter's current value is moved into the slot, which holds it from
+	 * then on. Parameters should be added before the registry is shared with
+	 * other threads.
+	 * @param param the Parameter.
+	 * @return the slot.
+	 */
+	public int register(Parameter param)
+	{
+		int slot = add(param, param.getSlotValue());
+		param.setRegistry(this, slot);
+		return slot;
+	}
+	
+	/**
+	 * Adds a Parameter to the registry with the given value, without telling
+	 * the Parameter; used by a new Parameter to create its own slot.
+	 * @param param the Parameter.
+	 * @param value the packed value.
+	 * @return the slot.
+	 */
+	synchronized int add(Parameter param, long value)
+	{
+		if (size == params.length) {
+			Parameter[] newParams = new Parameter[2 * size];
+			long[] newValues = new long[2 * size];
+			long[] newVersions = new long[2 * size];
+			System.arraycopy(params, 0, newParams, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			System.arraycopy(versions, 0, newVersions, 0, size);
+			params = newParams;
+			values = newValues;
+			versions = newVersions;
+		}
+		int slot = size++;
+		params[slot] = param;
+		values[slot] = value;
+		versions[slot] = version.incrementAndGet();
+		return slot;
+	}
+	
+	/**
+	 * Gets the number of Parameters in the registry.
+	 * @return the number of Parameters.
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Gets the Parameter in a slot.
+	 * @param slot the slot.
+	 * @return the Parameter.
+	 */
+	public Parameter getParameter(int slot)
+	{
+		return params[slot];
+	}
+	
+	/**
+	 * Gets the version of the registry, which goes up by one each time the
+	 * value of one of its Parameters changes.
+	 * @return the version.
+	 */
+	public long getVersion()
+	{
+		return version.get();
+	}
+	
+	/**
+	 * Checks whether the Parameter in a slot has changed since the registry
+	 * had the given version.
+	 * @param slot the slot.
+	 * @param since the version.
+	 * @return true or false.
+	 */
+	public boolean isChanged(int slot, long since)
+	{
+		return versions[slot] > since;
+	}
+	
+	/**
+	 * Gets the value in a slot as a long.
+	 * @param slot the slot.
+	 * @return the value.
+	 */
+	public long getLong(int slot)
+	{
+		return values[slot];
+	}
+	
+	/**
+	 * Gets the value in a slot as an int, e.g. for an IntParameter or a
+	 * ChoiceParameter.
+	 * @param slot the slot.
+	 * @return the value.
+	 */
+	public int getInt(int slot)
+	{
+		return (int) values[slot];
+	}
+	
+	/**
+	 * Gets the value in a slot as a double, for a DoubleParameter.
+	 * @param slot the slot.
+	 * @return the value.
+	 */
+	public double getDouble(int slot)
+	{
+		return Double.longBitsToDouble(values[slot]);
+	}
+	
+	/**
+	 * Gets the value in a slot as a boolean, for a BooleanParameter.
+	 * @param slot the slot.
+	 * @return the value.
+	 */
+	public boolean getBoolean(int slot)
+	{
+		return values[slot] != 0;
+	}
+	
+	/**
+	 * Adds a listener to be told about each batch of changes.
+	 * @param listener the listener.
+	 */
+	public synchronized void addListener(ParameterListener listener)
+	{
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener.
+	 * @param listener the listener.
+	 */
+	public synchronized void removeListener(ParameterListener listener)
+	{
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Tells the listeners about every Parameter which has changed since
+	 * changes were last fired. Nothing is done if none has changed.
+	 */
+	public void fireChanges()
+	{
+		if (version.get() == firedVersion) {
+			return;
+		}
+		synchronized (this) {
+			long since = firedVersion;
+			firedVersion = version.get();
+			int count = 0;
+			for (int k = 0; k < size; ++k) {
+				if (versions[k] > since) {
+					count++;
+				}
+			}
+			int[] slots = new int[count];
+			count = 0;
+			for (int k = 0; k < size; ++k) {
+				if (versions[k] > since) {
+					slots[count++] = k;
+				}
+			}
+			for (ParameterListener listener : listeners) {
+				listener.parametersChanged(this, slots);
+			}
+		}
+	}
+	
+	/**
+	 * Stores a new value for the Parameter in a slot, moving the registry on
+	 * to a new version if it differs from the old one. Called by the
+	 * Parameter whenever its value is set.
+	 * @param slot the slot.
+	 * @param value the new value.
+	 */
+	void write(int slot, long value)
+	{
+		if (values[slot] != value) {
+			values[slot] = value;
+			versions[slot] = version.incrementAndGet();
+		}
+	}
+	
+}
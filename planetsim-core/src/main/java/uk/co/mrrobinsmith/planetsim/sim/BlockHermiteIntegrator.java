@@ -0,0 +1,170 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * BlockHermiteIntegrator extends HermiteIntegrator to give each body its own
+ * time step. The step of each body is the simulation time step divided by a
+ * power of two (its level), chosen from the ratio of its acceleration to its
+ * jerk, so that bodies close to the star or in close encounters take many
+ * small steps while the rest of the system takes a single large one. At each
+ * sub-step only the bodies which are due to be advanced have their forces
+ * evaluated; all other bodies are simply predicted to the current time.
+ * Every body is synchronised again at the end of each simulation time step.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class BlockHermiteIntegrator extends HermiteIntegrator
+{
+	/* the deepest level: the shortest step is deltaT / 2^MAX_LEVEL */
+	public static final int MAX_LEVEL = 8;
+	public static final int N_LEVELS = MAX_LEVEL + 1;
+	/* time within a step is counted in ticks of deltaT / 2^MAX_LEVEL */
+	private static final int N_TICKS = 1 << MAX_LEVEL;
+
+	private DataAnalyser data;
+	private int[] level = new int[0];
+	private int[] time0 = new int[0];
+	private int[] targets = new int[0];
+	private int[] occupancy = new int[N_LEVELS];
+
+	/**
+	 * Creates a new BlockHermiteIntegrator for the given simulation.
+	 * @param sim the PlanetSim whose bodies are integrated.
+	 * @param data the DataAnalyser to report the occupancy of each level to.
+	 */
+	public BlockHermiteIntegrator(PlanetSim sim, DataAnalyser data)
+	{
+		super(sim);
+		this.data = data;
+	}
+
+	/**
+	 * Advances all of the bodies to the end of the simulation time step,
+	 * taking as many sub-steps as the deepest occupied level requires.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the simulation time step.
+	 */
+	public void step(Body[] bodies, double deltaT)
+	{
+		int n = load(bodies);
+		double G = sim.getGravConst();
+		double softening = sim.getSoftening();
+		double eta = sim.getTimeStepAccuracy();
+		double tick = deltaT / N_TICKS;
+
+		if (level.length < n) {
+			level = new int[xPos0.length];
+			time0 = new int[xPos0.length];
+			targets = new int[xPos0.length];
+		}
+		for (int i = 0; i < n; ++i) {
+			level[i] = chooseLevel(i, deltaT, eta, MAX_LEVEL, 0);
+			time0[i] = 0;
+		}
+
+		int now = 0;
+		while (now < N_TICKS) {
+			int next = N_TICKS;
+			for (int i = 0; i < n; ++i) {
+				next = Math.min(next, time0[i] + (N_TICKS >> level[i]));
+			}
+
+			int nTargets = 0;
+			for (int i = 0; i < n; ++i) {
+				predict(i, (next - time0[i]) * tick);
+				if (time0[i] + (N_TICKS >> level[i]) == next) {
+					targets[nTargets++] = i;
+				}
+			}
+
+			kernel.evaluate(targets, nTargets, G, softening);
+
+			for (int k = 0; k < nTargets; ++k) {
+				int i = targets[k];
+				correct(i, (next - time0[i]) * tick);
+				xPos0[i] = kernel.xPos[i];
+				yPos0[i] = kernel.yPos[i];
+				xVel0[i] = kernel.xVel[i];
+				yVel0[i] = kernel.yVel[i];
+				xAcc0[i] = kernel.xAcc[i];
+				yAcc0[i] = kernel.yAcc[i];
+				xJerk0[i] = kernel.xJerk[i];
+				yJerk0[i] = kernel.yJerk[i];
+				time0[i] = next;
+				/* a body may only move to a longer step where that step
+				 * starts on a boundary of the longer step */
+				int minLevel = level[i];
+				if (minLevel > 0 && next % (N_TICKS >> (minLevel - 1)) == 0) {
+					minLevel--;
+				}
+				level[i] = chooseLevel(i, deltaT, eta, MAX_LEVEL, minLevel);
+			}
+			now = next;
+		}
+
+		for (int l = 0; l < N_LEVELS; ++l) {
+			occupancy[l] = 0;
+		}
+		for (int i = 0; i < n; ++i) {
+			Body body = active[i];
+			body.setXPos(xPos0[i]);
+			body.setYPos(yPos0[i]);
+			body.setXVel(xVel0[i]);
+			body.setYVel(yVel0[i]);
+			body.setAcceleration(xAcc0[i], yAcc0[i]);
+			body.setJerk(xJerk0[i], yJerk0[i]);
+			occupancy[level[i]]++;
+		}
+		for (int l = 0; l < N_LEVELS; ++l) {
+			data.setLevelOccupancy(l, occupancy[l]);
+		}
+	}
+
+	/**
+	 * Predicts the position and velocity of body i a time dt after the start
+	 * of its current step, leaving them in the kernel's arrays.
+	 * @param i the index of the body.
+	 * @param dt the time since the start of the body's step.
+	 */
+	private void predict(int i, double dt)
+	{
+		double dt2 = dt * dt / 2.0;
+		double dt3 = dt * dt * dt / 6.0;
+		kernel.xPos[i] = xPos0[i] + xVel0[i] * dt + xAcc0[i] * dt2
+		                 + xJerk0[i] * dt3;
+		kernel.yPos[i] = yPos0[i] + yVel0[i] * dt + yAcc0[i] * dt2
+		                 + yJerk0[i] * dt3;
+		kernel.xVel[i] = xVel0[i] + xAcc0[i] * dt + xJerk0[i] * dt2;
+		kernel.yVel[i] = yVel0[i] + yAcc0[i] * dt + yJerk0[i] * dt2;
+	}
+
+	/**
+	 * Chooses the level of body i from its current acceleration and jerk,
+	 * using the criterion dt = eta * |a| / |j|, and rounding the step down
+	 * to the next power of two.
+	 * @param i the index of the body.
+	 * @param deltaT the simulation time step.
+	 * @param eta the accuracy parameter.
+	 * @param maxLevel the deepest level allowed.
+	 * @param minLevel the shallowest level allowed.
+	 * @return the level.
+	 */
+	private int chooseLevel(int i, double deltaT, double eta, int maxLevel,
+	                        int minLevel)
+	{
+		double acc = Math.sqrt(xAcc0[i] * xAcc0[i] + yAcc0[i] * yAcc0[i]);
+		double jerk = Math.sqrt(xJerk0[i] * xJerk0[i]
+		                        + yJerk0[i] * yJerk0[i]);
+		if (jerk == 0.0) {
+			return minLevel;
+		}
+		double dt = eta * acc / jerk;
+		int level = minLevel;
+		while (level < maxLevel && (deltaT / (1 << level)) > dt) {
+			level++;
+		}
+		return level;
+	}
+
+}
@@ -0,0 +1,523 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.lang.Math;
+
+import uk.co.mrrobinsmith.planetsim.base.ColorParameter;
+import uk.co.mrrobinsmith.planetsim.base.DoubleParameter;
+/**
+ * Body represents an astronomical object which moves under the force of
+ * gravity from other external bodies.
+ *
+ * @author Robin Smith
+ * @version 1 (16/11/2010)
+ */
+public class Body
+{
+	
+    public static final double SCALE_FACTOR = 1000.0;
+	
+	private double xPos;
+    private double yPos;
+    private double xVel;
+    private double yVel;
+    private double xAcc;
+    private double yAcc;
+    private double xJerk;
+    private double yJerk;
+    private double accrMass;
+    private double mass;
+    private int diameter;
+    private DoubleParameter planMass;
+    private ColorParameter color;
+    private DataAnalyser data;
+    private PlanetSim sim;
+    private boolean isOffScreen = false;
+    private boolean isDead = false;
+    private boolean isEscaped = false;
+    private boolean isRemoved = false;
+    private boolean isMassive = true;
+         
+	/**
+	 * Creates a new Body given all the following parameters:
+	 * @param xPos starting x-position.
+	 * @param yPos starting y-position.
+	 * @param xVel starting x-velocity.
+	 * @param yVel starting y-velocity.
+	 * @param mass mass of the Body.
+	 * @param diameter diameter of the Body.
+	 * @param color color of the Body.
+	 * @param simBounds horizontal and vertical bounds of the simulation.
+	 * @param data DataAnalyser object to send data to.
+	 */
+    public Body(double xPos, double yPos, double xVel, double yVel,
+                DoubleParameter planMass, ColorParameter color,
+                DataAnalyser data, PlanetSim sim)
+    {
+        this.xPos = xPos;
+        this.yPos = yPos;
+        this.xVel = xVel;
+        this.yVel = yVel;
+        mass = planMass.getValue();
+        accrMass = 0.0;
+        diameter = calculateDiameter();
+        this.planMass = planMass;
+        this.color = color;
+        this.data = data;
+        this.sim = sim;
+        data.incBodiesOnScreen();
+    }
+    
+    /**
+     * Creates a Body which takes its colour and simulation from another
+     * Body. It is not counted by the DataAnalyser.
+     * @param template the Body to copy from.
+     * @param planMass mass of the Body.
+     */
+    private Body(Body template, DoubleParameter planMass)
+    {
+    	mass = planMass.getValue();
+    	accrMass = 0.0;
+    	diameter = calculateDiameter();
+    	this.planMass = planMass;
+    	color = template.color;
+    	data = template.data;
+    	sim = template.sim;
+    }
+    
+    /**
+     * Creates a Body which stands in for a pair of bodies at their centre of
+     * mass, e.g. while the pair is integrated as a RegularizedPair. The new
+     * Body is never drawn and does not count as a Body on screen.
+     * @param body1 the first Body of the pair.
+     * @param body2 the second Body of the pair.
+     * @param totalMass parameter holding the total mass of the pair.
+     * @return the composite Body.
+     */
+    static Body createComposite(Body body1, Body body2,
+                                DoubleParameter totalMass)
+    {
+    	Body composite = new Body(body1, totalMass);
+    	double m1 = body1.getMass();
+    	double m2 = body2.getMass();
+    	double m = m1 + m2;
+    	composite.xPos = (m1 * body1.xPos + m2 * body2.xPos) / m;
+    	composite.yPos = (m1 * body1.yPos + m2 * body2.yPos) / m;
+    	composite.xVel = (m1 * body1.xVel + m2 * body2.xVel) / m;
+    	composite.yVel = (m1 * body1.yVel + m2 * body2.yVel) / m;
+    	return composite;
+    }
+    
+    /**
+     * Gets the Body's x-position.
+     * @return the x-position.
+     */
+    public double getXPos()
+    {
+    	return xPos;
+    }
+    
+    /**
+     * Gets this Body's y-position.
+     * @return the y-position.
+     */
+    public double getYPos()
+    {
+    	return yPos;
+    }
+    
+    /**
+     * Gets this Body's current x-velocity.
+     * @return the x-velocity.
+     */
+    public double getXVel()
+    {
+    	return xVel;
+    }
+    
+    /**
+     * Gets this Body's current y-velocity.
+     * @return the y-velocity.
+     */
+    public double getYVel()
+    {
+    	return yVel;
+    }
+    
+    /**
+     * Gets this Body's x-acceleration, as last stored by an Integrator.
+     * @return the x-acceleration.
+     */
+    public double getXAcc()
+    {
+    	return xAcc;
+    }
+    
+    /**
+     * Gets this Body's y-acceleration, as last stored by an Integrator.
+     * @return the y-acceleration.
+     */
+    public double getYAcc()
+    {
+    	return yAcc;
+    }
+    
+    /**
+     * Gets the x-component of this Body's jerk (the rate of change of its
+     * acceleration), as last stored by an Integrator.
+     * @return the x-jerk.
+     */
+    public double getXJerk()
+    {
+    	return xJerk;
+    }
+    
+    /**
+     * Gets the y-component of this Body's jerk, as last stored by an
+     * Integrator.
+     * @return the y-jerk.
+     */
+    public double getYJerk()
+    {
+    	return yJerk;
+    }
+    
+    /**
+     * Gets this Body's mass.
+     * @return the mass.
+     */
+    public double getMass()
+    {
+    	return mass;
+    }
+    
+    /**
+     * Gets the Diameter of this Body.
+     * @return the diameter.
+     */
+    public int getDiameter()
+    {
+    	return diameter;
+    }
+    
+    /**
+     * Gets the colour of this Body, as it was at the start of the step.
+     * @return the RGB value of the colour.
+     */
+    public int getColor()
+    {
+    	return sim.getConfig().getColor(color);
+    }
+    
+    /**
+     * Sets the x-position of this Body.
+     * @param x the new x-position.
+     */
+    public void setXPos(double x)
+    {
+    	xPos = x;
+    }
+    
+    /**
+     * Sets the y-position of this Body.
+     * @param y the new y-position.
+     */
+    public void setYPos(double y)
+    {
+    	yPos = y;
+    }
+    
+    /**
+     * Sets the x-velocity of this Body.
+     * @param vel the new x-velocity.
+     */
+    public void setXVel(double vel)
+    {
+    	xVel = vel;
+    }
+    
+    /**
+     * Sets the y-velocity of this Body.
+     * @param vel the new y-velocity.
+     */
+    public void setYVel(double vel)
+    {
+    	yVel = vel;
+    }
+    
+    /**
+     * Sets the acceleration of this Body.
+     * @param xAcc the new x-acceleration.
+     * @param yAcc the new y-acceleration.
+     */
+    public void setAcceleration(double xAcc, double yAcc)
+    {
+    	this.xAcc = xAcc;
+    	this.yAcc = yAcc;
+    }
+    
+    /**
+     * Sets the jerk of this Body.
+     * @param xJerk the new x-jerk.
+     * @param yJerk the new y-jerk.
+     */
+    public void setJerk(double xJerk, double yJerk)
+    {
+    	this.xJerk = xJerk;
+    	this.yJerk = yJerk;
+    }
+    
+    /**
+     * Checks whether this Body has been merged into another Body.
+     * @return true or false.
+     */
+    public boolean isDead()
+    {
+    	return isDead;
+    }
+    
+    /**
+     * Checks whether this Body has left the simulation for good, rather than
+     * being merged into another Body.
+     * @return true or false.
+     */
+    public boolean isEscaped()
+    {
+    	return isEscaped;
+    }
+    
+    /**
+     * Sets whether this Body has left the simulation for good.
+     * @param bool true or false.
+     */
+    public void setEscaped(boolean bool)
+    {
+    	isEscaped = bool;
+    }
+    
+    /**
+     * Checks whether this Body was deleted from the simulation, rather than
+     * being merged into another Body or escaping.
+     * @return true or false.
+     */
+    public boolean isRemoved()
+    {
+    	return isRemoved;
+    }
+    
+    /**
+     * Sets whether this Body was deleted from the simulation.
+     * @param bool true or false.
+     */
+    public void setRemoved(boolean bool)
+    {
+    	isRemoved = bool;
+    }
+    
+    /**
+     * Checks whether this Body was outside the bounds of the simulation when
+     * they were last checked by updateBounds().
+     * @return true or false.
+     */
+    public boolean isOffScreen()
+    {
+    	return isOffScreen;
+    }
+    
+    /**
+     * Checks whether this Body is a source of gravity. Bodies which are not
+     * massive are test particles, which only feel the gravity of the massive
+     * bodies.
+     * @return true or false.
+     */
+    public boolean isMassive()
+    {
+    	return isMassive;
+    }
+    
+    /**
+     * Sets whether this Body is a source of gravity.
+     * @param bool true or false.
+     */
+    public void setMassive(boolean bool)
+    {
+    	isMassive = bool;
+    }
+    
+    /**
+     * Sets the boolean isDead field of this Body to the given boolean value.
+     * @param bool true or false.
+     */
+    public void setDead(boolean bool)
+    {
+    	isDead = bool;
+    }
+        
+    /**
+     * Adds an extra mass onto this Body.
+     * @param extraMass the extra mass.
+     */
+    public void addMass(double extraMass)
+    {
+    	accrMass += extraMass;
+    	mass += extraMass;
+    }
+    
+    /**
+     * Updates the mass of this Body from its mass parameter, which may have
+     * been changed while the simulation is running.
+     */
+    public void updateMass()
+    {
+    	mass = sim.getConfig().getMass(planMass) + accrMass;
+    }
+    
+    /**
+     * Recalculates the diameter of this Body from its mass and notes whether
+     * it is within the bounds of the simulation, keeping the DataAnalyser's
+     * counts of the bodies on and off screen up to date.
+     */
+    public void updateBounds()
+    {
+    	diameter = calculateDiameter();
+    	if (bodyInXBounds() && bodyInYBounds()) {
+        	if (isOffScreen) {
+        		isOffScreen = false;
+        		data.decBodiesOffScreen();
+        		data.incBodiesOnScreen();
+        	}
+    	}
+    	else if (!isOffScreen){
+    		isOffScreen = true;
+    		data.incBodiesOffScreen();
+    		data.decBodiesOnScreen();
+    	}
+    }
+
+    /** 
+     * Calculate the instantaneous net acceleration on the Body and its new
+     * velocity after a time interval deltaT. This is the original PlanetSim
+     * force law, which the default parameters are tuned for: the pull of each
+     * other Body has the constant magnitude G * m2, with no softening, and
+     * the position is advanced after each pull. It is not the softened
+     * inverse-square law of GravityKernel used by the other integrators.
+     */
+    public void move(double deltaT)
+    {   	
+    	updateMass();
+    	
+    	double xSep;
+    	double ySep;
+    	double r;
+    	double netXAcc = 0.0;
+    	double netYAcc = 0.0;
+        
+    	Body[] bodies = sim.getMassiveBodies();
+    	double G = sim.getConfig().getGravConst();
+    	for (Body body : bodies) {
+    		if ((body != null) && !body.isDead() && !(this.equals(body))) {
+    			xSep = body.getXPos() - xPos;
+    			ySep = body.getYPos() - yPos;
+    			r = Math.sqrt(xSep * xSep + ySep * ySep);
+			   	double m2 = body.getMass();
+			   	double pairXAcc = G * m2 * (xSep / r);
+			   	double pairYAcc = G * m2 * (ySep / r);
+			   	netXAcc += pairXAcc;
+			   	netYAcc += pairYAcc;
+			   	xVel += pairXAcc * deltaT;
+			   	yVel += pairYAcc * deltaT;
+			   	xPos += (xVel * deltaT);
+			   	yPos += (yVel * deltaT);
+    		}
+        }
+    	setAcceleration(netXAcc, netYAcc);
+    }
+    
+    /**
+     * This method is used by the Regularizer. It merges
+     * this Body with another Body (body2), assigning to the heavier of the two
+     * the total mass of the two bodies and also the mass-weighted average
+     * position. The lighter Body is then removed from the simulation.
+     * @param body2 the Body to merge this Body with.
+     */
+    void merge(Body body2)
+    {
+    	double m2 = body2.getMass();
+    	double x2 = body2.getXPos();
+    	double y2 = body2.getYPos();
+    	double vX2 = body2.getXVel();
+    	double vY2 = body2.getYVel();
+    	double totalMass = mass + m2;
+    	double avgXPos = (mass * xPos + m2 * x2) / (totalMass);
+    	double avgYPos = (mass * yPos + m2 * y2) / (totalMass);
+    	double avgXVel = (mass * xVel + m2 * vX2) / (totalMass);
+    	double avgYVel = (mass * yVel + m2 * vY2) / (totalMass);
+    	
+    	if (m2 > mass) {
+    		body2.addMass(mass);
+    		body2.setXPos(avgXPos);
+    		body2.setYPos(avgYPos);
+    		body2.setXVel(avgXVel);
+    		body2.setYVel(avgYVel);
+    		isDead = true;
+    		sim.removeBody(this);
+    	}
+    	else {
+    		addMass(m2);
+    		xPos = avgXPos;
+    		yPos = avgYPos;
+    		xVel = avgXVel;
+    		yVel = avgYVel;
+    		body2.setDead(true);
+    		sim.removeBody(body2);
+    	}
+    }
+    
+    /**
+     * Calculates the diameter of this Body according to its current mass.
+     * @return the diameter.
+     */
+    private int calculateDiameter()
+    {
+    	int d = 2;
+    	if (mass > 1.0) {
+    		double upprBnd = 2.0;
+    		int multiplier = 1;
+    		while (mass > upprBnd) {
+    			upprBnd *= 2;
+    			multiplier++;
+    		}
+    		d = multiplier * 2;
+    	}
+    	return d;
+    }
+    
+    /**
+     * Checks whether the ball is within the simulation's horizontal bounds.
+     * @return true or false.
+     */
+    private boolean bodyInXBounds()
+    {
+    	int x = (int) (xPos / SCALE_FACTOR);
+    	if (x >= 0.0 && x <= sim.getConfig().getWidth()) {
+    		return true;
+    	}
+    	else {
+    		return false;
+    	}
+    }
+    
+    /**
+     * Checks whether the ball is within the simulation's vertical bounds.
+     * @return true or false.
+     */
+    private boolean bodyInYBounds()
+    {
+    	int y = (int) (yPos / SCALE_FACTOR);
+    	if (y >= 0.0 && y <= sim.getConfig().getHeight())
+    		return true;
+    	else return false;
+    }
+    
+    
+    
+}
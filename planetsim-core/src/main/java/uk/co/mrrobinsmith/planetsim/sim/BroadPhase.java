@@ -0,0 +1,46 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * BroadPhase is implemented by the schemes used by the CollisionDetector to
+ * find the pairs of bodies which might be touching, without testing every
+ * pair. Bodies are treated as circles and the pairs found are those whose
+ * bounding boxes overlap; the exact test is left to the CollisionDetector.
+ *
+ * The search is split in two so that it can be shared between threads:
+ * update() is called once with the current positions, after which
+ * findPairs() may be called for each part of the search at the same time.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public interface BroadPhase
+{
+
+	/**
+	 * Brings the BroadPhase up to date with the current positions of the
+	 * bodies. The arrays must not be changed until the pairs have been found.
+	 * @param xPos x-position of each body.
+	 * @param yPos y-position of each body.
+	 * @param radius radius of each body.
+	 * @param n the number of bodies.
+	 */
+	public void update(double[] xPos, double[] yPos, double[] radius, int n);
+
+	/**
+	 * Finds the pairs of bodies whose bounding boxes overlap within one part
+	 * of the search. Taken together the parts report each pair once, as
+	 * (i, j) with i < j. Different parts may be searched at the same time.
+	 * @param part the part of the search, from 0 to nParts - 1.
+	 * @param nParts the number of parts the search is split into.
+	 * @param pairs the list to add the pairs to.
+	 */
+	public void findPairs(int part, int nParts, PairList pairs);
+
+	/**
+	 * Tells the BroadPhase that bodies have been added or removed, so the
+	 * index of each body may have changed since the last call to update().
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,117 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.Random;
+
+import uk.co.mrrobinsmith.planetsim.base.*;
+
+/**
+ * CollisionBenchmark measures how quickly the CollisionDetector resolves a
+ * dense collapse, in which nearly every Body touches its neighbours and the
+ * whole field merges into large clusters in a single step. The bodies are
+ * laid out on a jittered grid a little closer together than their contact
+ * distance and resolved with 1, 4 and 16 threads, or the numbers of threads
+ * given after the number of bodies on the command line.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class CollisionBenchmark
+{
+	private static final int DEFAULT_BODIES = 200000;
+	private static final int[] DEFAULT_THREADS = {1, 4, 16};
+	private static final int WARM_UP_RUNS = 3;
+	private static final int TIMED_RUNS = 5;
+	/* grid spacing, less than the 1000 separation at which two bodies of
+	 * unit mass touch */
+	private static final double SPACING = 900.0;
+	private static final long SEED = 1L;
+	private static final double DELTA_T = 0.01;
+
+	/**
+	 * Runs the benchmark.
+	 * @param args the number of bodies, then the numbers of threads.
+	 */
+	public static void main(String[] args)
+	{
+		int nBodies = (args.length > 0) ? Integer.parseInt(args[0])
+		                                : DEFAULT_BODIES;
+		int[] threads = DEFAULT_THREADS;
+		if (args.length > 1) {
+			threads = new int[args.length - 1];
+			for (int k = 1; k < args.length; ++k) {
+				threads[k - 1] = Integer.parseInt(args[k]);
+			}
+		}
+		System.out.println(nBodies + " bodies, "
+		                   + Runtime.getRuntime().availableProcessors()
+		                   + " processors");
+		for (int nThreads : threads) {
+			run(nBodies, nThreads);
+		}
+	}
+
+	/**
+	 * Times the resolution of the collapse with a number of threads.
+	 * @param nBodies the number of bodies.
+	 * @param nThreads the number of threads.
+	 */
+	private static void run(int nBodies, int nThreads)
+	{
+		PlanetSim sim = new PlanetSim();
+		DataAnalyser data = new DataAnalyser();
+		CollisionDetector collider
+			= new CollisionDetector(sim, new HashGridBroadPhase(), data);
+		collider.setThreads(nThreads);
+		double best = Double.MAX_VALUE;
+		double total = 0.0;
+		int survivors = 0;
+		for (int run = 0; run < WARM_UP_RUNS + TIMED_RUNS; ++run) {
+			Body[] bodies = createBodies(nBodies, sim, data);
+			long start = System.nanoTime();
+			collider.resolve(bodies, DELTA_T);
+			double ms = (System.nanoTime() - start) / 1.0e6;
+			if (run >= WARM_UP_RUNS) {
+				best = Math.min(best, ms);
+				total += ms;
+			}
+			survivors = 0;
+			for (Body body : bodies) {
+				if (!body.isDead()) {
+					survivors++;
+				}
+			}
+		}
+		double mean = total / TIMED_RUNS;
+		System.out.printf("%2d threads: mean %8.1f ms, best %8.1f ms, "
+		                  + "%6.2f M bodies/s, %d survivors%n",
+		                  nThreads, mean, best, nBodies / mean / 1.0e3,
+		                  survivors);
+	}
+
+	/**
+	 * Creates the bodies of the collapse on a jittered square grid.
+	 * @param nBodies the number of bodies.
+	 * @param sim the PlanetSim the bodies belong to.
+	 * @param data the DataAnalyser the bodies report to.
+	 * @return the bodies.
+	 */
+	private static Body[] createBodies(int nBodies, PlanetSim sim,
+	                                   DataAnalyser data)
+	{
+		Random random = new Random(SEED);
+		DoubleParameter mass = new DoubleParameter("Mass", 1.0, false);
+		ColorParameter color = new ColorParameter("Colour",
+		                                          new String[] {"white"},
+		                                          false);
+		int side = (int) Math.ceil(Math.sqrt(nBodies));
+		Body[] bodies = new Body[nBodies];
+		for (int i = 0; i < nBodies; ++i) {
+			double x = (i % side + 0.2 * random.nextDouble()) * SPACING;
+			double y = (i / side + 0.2 * random.nextDouble()) * SPACING;
+			bodies[i] = new Body(x, y, 0.0, 0.0, mass, color, data, sim);
+		}
+		return bodies;
+	}
+
+}
@@ -0,0 +1,724 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CollisionDetector is the collision phase of a simulation step. It runs
+ * after the Integrator has moved the bodies, uses a BroadPhase to find the
+ * pairs of bodies which might be touching, and records those whose
+ * separation is less than the sum of their radii. Keeping the test out of
+ * the force calculation means it costs close to O(N) whichever Integrator
+ * is used.
+ *
+ * No Body is changed while pairs are being found. Touching pairs are joined
+ * into clusters with a UnionFind, and once all of them are known each
+ * cluster is merged into its heaviest Body, which takes the total mass and
+ * momentum of the cluster and its centre of mass. Chains of bodies which
+ * touch in the same step therefore merge into one Body whatever order the
+ * pairs were found in.
+ *
+ * If the positions at the start of the step have been recorded with
+ * begin(), collisions are instead found continuously: each body is taken to
+ * move in a straight line through the step, the BroadPhase is given the
+ * circle enclosing each body's swept path, and the time of impact of each
+ * candidate pair is found exactly. Impacts are joined in time order from a
+ * priority queue, and each cluster continues from the point of impact with
+ * its merged velocity, so fast bodies cannot pass through each other between
+ * steps however long the step is.
+ *
+ * Two test particles are never merged with each other, since neither feels
+ * the other.
+ *
+ * The search for pairs can be shared between a number of worker threads.
+ * The search is split into more parts than there are threads, and each
+ * thread takes the next part as it finishes one, testing the pairs it finds
+ * and keeping those that pass in a buffer of its own. The buffers are then
+ * joined and sorted by body index, so the pairs are always resolved in the
+ * same order however the parts were shared out and whatever the number of
+ * threads.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class CollisionDetector
+{
+	private PlanetSim sim;
+	private BroadPhase broadPhase;
+	private DataAnalyser data;
+	private PairList candidates = new PairList();
+	private UnionFind clusters = new UnionFind();
+
+	/* number of parts the search is split into for each thread */
+	private static final int PARTS_PER_THREAD = 4;
+	/* the worker threads, which are only started for more than one thread */
+	private int nThreads = 1;
+	private ExecutorService workers = null;
+	/* pairs from the BroadPhase, and the pairs which pass the exact test,
+	 * for each thread */
+	private PairList[] found = {new PairList()};
+	private PairList[] passed = {new PairList()};
+	/* the pairs from every thread, packed as (i << 32) | j for sorting */
+	private long[] keys = new long[0];
+
+	/* the live bodies, in the order of the arrays below */
+	private Body[] active = new Body[0];
+	private int n = 0;
+	private double[] xPos = new double[0];
+	private double[] yPos = new double[0];
+	private double[] radius = new double[0];
+
+	/* whether the positions at the start of the step have been recorded */
+	private boolean isStarted = false;
+	private double[] xStart = new double[0];
+	private double[] yStart = new double[0];
+
+	/* the straight path of each body through the rest of the step: it is at
+	 * (xFrom, yFrom) at the fraction tFrom of the step, and moves by
+	 * (xStep, yStep) per whole step */
+	private double[] xFrom = new double[0];
+	private double[] yFrom = new double[0];
+	private double[] tFrom = new double[0];
+	private double[] xStep = new double[0];
+	private double[] yStep = new double[0];
+	/* number of times each body's path has changed during the step */
+	private int[] version = new int[0];
+	/* mass, velocity and whether any member is massive, for each cluster */
+	private double[] clusterMass = new double[0];
+	private double[] clusterXVel = new double[0];
+	private double[] clusterYVel = new double[0];
+	private boolean[] isClusterMassive = new boolean[0];
+	/* circle enclosing the path of each body, given to the BroadPhase */
+	private double[] xSwept = new double[0];
+	private double[] ySwept = new double[0];
+	private double[] rSwept = new double[0];
+	/* candidates of body i are neighbours[first[i]] to
+	 * neighbours[first[i + 1] - 1] */
+	private int[] first = new int[1];
+	private int[] neighbours = new int[0];
+	private PriorityQueue<Impact> impacts = new PriorityQueue<Impact>();
+
+	/**
+	 * Creates a new CollisionDetector using the given BroadPhase.
+	 * @param sim the PlanetSim to remove merged bodies from.
+	 * @param broadPhase the BroadPhase.
+	 * @param data the DataAnalyser to report the time taken to.
+	 */
+	public CollisionDetector(PlanetSim sim, BroadPhase broadPhase,
+	                         DataAnalyser data)
+	{
+		this.sim = sim;
+		this.broadPhase = broadPhase;
+		this.data = data;
+	}
+
+	/**
+	 * Sets the BroadPhase used to find the pairs which might be touching.
+	 * @param broadPhase the BroadPhase.
+	 */
+	public void setBroadPhase(BroadPhase broadPhase)
+	{
+		if (broadPhase != this.broadPhase) {
+			broadPhase.reset();
+			this.broadPhase = broadPhase;
+		}
+	}
+
+	/**
+	 * Sets the number of threads used to find the touching pairs. The worker
+	 * threads are replaced if the number changes.
+	 * @param nThreads the number of threads, at least 1.
+	 */
+	public void setThreads(int nThreads)
+	{
+		nThreads = Math.max(1, nThreads);
+		if (nThreads == this.nThreads) {
+			return;
+		}
+		if (workers != null) {
+			workers.shutdown();
+			workers = null;
+		}
+		this.nThreads = nThreads;
+		found = new PairList[nThreads];
+		passed = new PairList[nThreads];
+		for (int t = 0; t < nThreads; ++t) {
+			found[t] = new PairList();
+			passed[t] = new PairList();
+		}
+		if (nThreads > 1) {
+			workers = Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
+				public Thread newThread(Runnable task)
+				{
+					Thread thread = new Thread(task, "Collision worker");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Gets the number of threads used to find the touching pairs.
+	 * @return the number of threads.
+	 */
+	public int getThreads()
+	{
+		return nThreads;
+	}
+
+	/**
+	 * Gets the radius within which another Body touches the given Body. Two
+	 * bodies touch when their separation is less than the sum of their radii.
+	 * @param body the Body.
+	 * @return the radius.
+	 */
+	public static double getRadius(Body body)
+	{
+		return body.getDiameter() / 4.0 * Body.SCALE_FACTOR;
+	}
+
+	/**
+	 * Records the positions of the bodies at the start of a step, so that the
+	 * next call to resolve() finds collisions continuously through the step.
+	 * @param bodies the bodies of the simulation.
+	 */
+	public void begin(Body[] bodies)
+	{
+		load(bodies);
+		if (xStart.length < xPos.length) {
+			xStart = new double[xPos.length];
+			yStart = new double[xPos.length];
+		}
+		System.arraycopy(xPos, 0, xStart, 0, n);
+		System.arraycopy(yPos, 0, yStart, 0, n);
+		isStarted = true;
+	}
+
+	/**
+	 * Finds the touching pairs of bodies and merges each cluster of touching
+	 * bodies into one Body. Collisions are found
+	 * continuously if begin() was called at the start of the step and no
+	 * bodies have been added or removed since.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the time step.
+	 */
+	public void resolve(Body[] bodies, double deltaT)
+	{
+		long start = System.nanoTime();
+		boolean isChanged = load(bodies);
+		boolean isContinuous = isStarted && !isChanged;
+		clusters.reset(n);
+		if (isContinuous) {
+			resolveContinuous(deltaT);
+		}
+		else {
+			resolveDiscrete();
+		}
+		mergeClusters(isContinuous);
+		isStarted = false;
+		data.setCollisionTime((System.nanoTime() - start) / 1.0e6);
+	}
+
+	/**
+	 * Joins the pairs which are touching at the end of the step.
+	 */
+	private void resolveDiscrete()
+	{
+		findPairs(xPos, yPos, radius, true);
+		for (int k = 0; k < candidates.size(); ++k) {
+			clusters.union(candidates.getFirst(k), candidates.getSecond(k));
+		}
+	}
+
+	/**
+	 * Fills the list of candidates with the pairs found by the BroadPhase,
+	 * sharing the search between the worker threads, and sorts them by body
+	 * index. If the calling thread is interrupted while the workers search,
+	 * the rest of the search is skipped, the workers are waited for so that
+	 * none is still writing to its buffer, and the list is left empty, so
+	 * no pairs are found in this step.
+	 * @param x the x-position of each circle.
+	 * @param y the y-position of each circle.
+	 * @param r the radius of each circle.
+	 * @param isExact whether to keep only the pairs which are touching.
+	 */
+	private void findPairs(double[] x, double[] y, double[] r,
+	                       final boolean isExact)
+	{
+		broadPhase.update(x, y, r, n);
+		if (workers == null) {
+			passed[0].clear();
+			search(0, 1, 0, isExact);
+		}
+		else {
+			final int nParts = PARTS_PER_THREAD * nThreads;
+			final AtomicInteger nextPart = new AtomicInteger(0);
+			final CountDownLatch done = new CountDownLatch(nThreads);
+			final AtomicReference<Throwable> failure =
+				new AtomicReference<Throwable>();
+			for (int t = 0; t < nThreads; ++t) {
+				final int thread = t;
+				workers.execute(new Runnable() {
+					public void run()
+					{
+						try {
+							passed[thread].clear();
+							int part;
+							while ((part = nextPart.getAndIncrement()) < nParts) {
+								search(part, nParts, thread, isExact);
+							}
+						}
+						catch (Throwable e) {
+							failure.compareAndSet(null, e);
+						}
+						finally {
+							done.countDown();
+						}
+					}
+				});
+			}
+			boolean isInterrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				}
+				catch (InterruptedException e) {
+					/* no more parts are handed out, but the buffers may not
+					 * be read until every worker has finished with them */
+					isInterrupted = true;
+					nextPart.set(nParts);
+				}
+			}
+			if (failure.get() != null) {
+				throw new IllegalStateException(failure.get());
+			}
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+				candidates.clear();
+				return;
+			}
+		}
+
+		int nPairs = 0;
+		for (int t = 0; t < nThreads; ++t) {
+			nPairs += passed[t].size();
+		}
+		if (keys.length < nPairs) {
+			keys = new long[Math.max(nPairs, 2 * keys.length)];
+		}
+		int k = 0;
+		for (int t = 0; t < nThreads; ++t) {
+			for (int p = 0; p < passed[t].size(); ++p) {
+				keys[k++] = ((long) passed[t].getFirst(p) << 32)
+				            | passed[t].getSecond(p);
+			}
+		}
+		Arrays.sort(keys, 0, nPairs);
+		candidates.clear();
+		for (k = 0; k < nPairs; ++k) {
+			candidates.add((int) (keys[k] >>> 32), (int) keys[k]);
+		}
+	}
+
+	/**
+	 * Searches one part of the BroadPhase for pairs, and adds them to the
+	 * buffer of a thread. With the exact test only touching pairs which
+	 * include a massive Body are kept.
+	 * @param part the part of the search.
+	 * @param nParts the number of parts.
+	 * @param thread the thread whose buffers are used.
+	 * @param isExact whether to keep only the pairs which are touching.
+	 */
+	private void search(int part, int nParts, int thread, boolean isExact)
+	{
+		PairList out = passed[thread];
+		if (!isExact) {
+			broadPhase.findPairs(part, nParts, out);
+			return;
+		}
+		PairList in = found[thread];
+		in.clear();
+		broadPhase.findPairs(part, nParts, in);
+		for (int k = 0; k < in.size(); ++k) {
+			int i = in.getFirst(k);
+			int j = in.getSecond(k);
+			if (!(active[i].isMassive() || active[j].isMassive())) {
+				continue;
+			}
+			double dx = xPos[j] - xPos[i];
+			double dy = yPos[j] - yPos[i];
+			double minSep = radius[i] + radius[j];
+			if (dx * dx + dy * dy < minSep * minSep) {
+				out.add(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Joins the pairs whose paths through the step meet, in the order in
+	 * which they meet.
+	 * @param deltaT the time step.
+	 */
+	private void resolveContinuous(double deltaT)
+	{
+		allocatePaths();
+		for (int i = 0; i < n; ++i) {
+			xFrom[i] = xStart[i];
+			yFrom[i] = yStart[i];
+			tFrom[i] = 0.0;
+			xStep[i] = xPos[i] - xStart[i];
+			yStep[i] = yPos[i] - yStart[i];
+			version[i] = 0;
+			clusterMass[i] = active[i].getMass();
+			clusterXVel[i] = active[i].getXVel();
+			clusterYVel[i] = active[i].getYVel();
+			isClusterMassive[i] = active[i].isMassive();
+			xSwept[i] = (xStart[i] + xPos[i]) / 2.0;
+			ySwept[i] = (yStart[i] + yPos[i]) / 2.0;
+			rSwept[i] = radius[i]
+			            + Math.sqrt(xStep[i] * xStep[i] + yStep[i] * yStep[i])
+			              / 2.0;
+		}
+		findPairs(xSwept, ySwept, rSwept, false);
+		buildNeighbours();
+
+		impacts.clear();
+		for (int k = 0; k < candidates.size(); ++k) {
+			schedule(candidates.getFirst(k), candidates.getSecond(k));
+		}
+		while (!impacts.isEmpty()) {
+			Impact impact = impacts.poll();
+			int i = impact.first;
+			int j = impact.second;
+			if (clusters.find(i) == i && clusters.find(j) == j
+			    && version[i] == impact.firstVersion
+			    && version[j] == impact.secondVersion) {
+				join(i, j, impact.time, deltaT);
+			}
+		}
+	}
+
+	/**
+	 * Joins two clusters at the moment they touch, and starts the joined
+	 * cluster on a new path from their centre of mass at that moment with
+	 * their combined momentum. The new path is then tested against the
+	 * candidates of every body in the cluster.
+	 * @param i the representative of the first cluster.
+	 * @param j the representative of the second cluster.
+	 * @param time the fraction of the step at which they touch.
+	 * @param deltaT the time step.
+	 */
+	private void join(int i, int j, double time, double deltaT)
+	{
+		double mi = clusterMass[i];
+		double mj = clusterMass[j];
+		double m = mi + mj;
+		double x = (mi * xAt(i, time) + mj * xAt(j, time)) / m;
+		double y = (mi * yAt(i, time) + mj * yAt(j, time)) / m;
+		double xVel = (mi * clusterXVel[i] + mj * clusterXVel[j]) / m;
+		double yVel = (mi * clusterYVel[i] + mj * clusterYVel[j]) / m;
+		boolean isMassive = isClusterMassive[i] || isClusterMassive[j];
+
+		int k = clusters.union(i, j);
+		clusterMass[k] = m;
+		clusterXVel[k] = xVel;
+		clusterYVel[k] = yVel;
+		isClusterMassive[k] = isMassive;
+		xFrom[k] = x;
+		yFrom[k] = y;
+		tFrom[k] = time;
+		xStep[k] = xVel * deltaT;
+		yStep[k] = yVel * deltaT;
+		version[k]++;
+
+		int member = k;
+		do {
+			for (int a = first[member]; a < first[member + 1]; ++a) {
+				int other = clusters.find(neighbours[a]);
+				if (other != k) {
+					schedule(k, other);
+				}
+			}
+			member = clusters.next(member);
+		} while (member != k);
+	}
+
+	/**
+	 * Merges every cluster of more than one body into its heaviest Body,
+	 * which is given the total mass and momentum of the cluster. With
+	 * continuous collisions it is placed at the end of the cluster's path,
+	 * otherwise at the cluster's centre of mass. The other bodies of the
+	 * cluster are removed from the simulation.
+	 * @param isContinuous whether the clusters were found continuously.
+	 */
+	private void mergeClusters(boolean isContinuous)
+	{
+		for (int i = 0; i < n; ++i) {
+			if (clusters.find(i) != i || clusters.getSize(i) == 1) {
+				continue;
+			}
+			double mass = 0.0;
+			double xMass = 0.0;
+			double yMass = 0.0;
+			double xMom = 0.0;
+			double yMom = 0.0;
+			int heaviest = i;
+			int k = i;
+			do {
+				Body body = active[k];
+				double m = body.getMass();
+				mass += m;
+				xMass += m * body.getXPos();
+				yMass += m * body.getYPos();
+				xMom += m * body.getXVel();
+				yMom += m * body.getYVel();
+				if (m > active[heaviest].getMass()
+				    || (m == active[heaviest].getMass() && k < heaviest)) {
+					heaviest = k;
+				}
+				k = clusters.next(k);
+			} while (k != i);
+
+			Body survivor = active[heaviest];
+			survivor.addMass(mass - survivor.getMass());
+			survivor.setXVel(xMom / mass);
+			survivor.setYVel(yMom / mass);
+			if (isContinuous) {
+				survivor.setXPos(xAt(i, 1.0));
+				survivor.setYPos(yAt(i, 1.0));
+			}
+			else {
+				survivor.setXPos(xMass / mass);
+				survivor.setYPos(yMass / mass);
+			}
+			k = i;
+			do {
+				if (k != heaviest) {
+					sim.removeBody(active[k]);
+				}
+				k = clusters.next(k);
+			} while (k != i);
+		}
+	}
+
+	/**
+	 * Finds the first time within the rest of the step at which the paths of
+	 * two bodies bring them into contact, and queues the impact if there is
+	 * one. With relative position d and relative motion u per step, contact
+	 * is the first root of |d + u t|^2 = (r_i + r_j)^2.
+	 * @param i the index of the first body.
+	 * @param j the index of the second body.
+	 */
+	private void schedule(int i, int j)
+	{
+		if (!(isClusterMassive[i] || isClusterMassive[j])) {
+			return;
+		}
+		double t0 = Math.max(tFrom[i], tFrom[j]);
+		double dx = xAt(j, t0) - xAt(i, t0);
+		double dy = yAt(j, t0) - yAt(i, t0);
+		double minSep = radius[i] + radius[j];
+		double c = dx * dx + dy * dy - minSep * minSep;
+		double time = t0;
+		if (c >= 0.0) {
+			double ux = xStep[j] - xStep[i];
+			double uy = yStep[j] - yStep[i];
+			double a = ux * ux + uy * uy;
+			double b = 2.0 * (dx * ux + dy * uy);
+			double disc = b * b - 4.0 * a * c;
+			if (a == 0.0 || b >= 0.0 || disc < 0.0) {
+				return;
+			}
+			time = t0 + (-b - Math.sqrt(disc)) / (2.0 * a);
+			if (time > 1.0) {
+				return;
+			}
+		}
+		impacts.add(new Impact(time, i, j, version[i], version[j]));
+	}
+
+	/**
+	 * Gets the x-position of a body on its path.
+	 * @param i the index of the body.
+	 * @param time the fraction of the step.
+	 * @return the x-position.
+	 */
+	private double xAt(int i, double time)
+	{
+		return xFrom[i] + xStep[i] * (time - tFrom[i]);
+	}
+
+	/**
+	 * Gets the y-position of a body on its path.
+	 * @param i the index of the body.
+	 * @param time the fraction of the step.
+	 * @return the y-position.
+	 */
+	private double yAt(int i, double time)
+	{
+		return yFrom[i] + yStep[i] * (time - tFrom[i]);
+	}
+
+	/**
+	 * Lists the candidates of each body from the candidate pairs, with a
+	 * counting sort on the body index.
+	 */
+	private void buildNeighbours()
+	{
+		int nPairs = candidates.size();
+		if (first.length < n + 1) {
+			first = new int[xPos.length + 1];
+		}
+		if (neighbours.length < 2 * nPairs) {
+			neighbours = new int[2 * nPairs];
+		}
+		for (int i = 0; i <= n; ++i) {
+			first[i] = 0;
+		}
+		for (int k = 0; k < nPairs; ++k) {
+			first[candidates.getFirst(k) + 1]++;
+			first[candidates.getSecond(k) + 1]++;
+		}
+		for (int i = 0; i < n; ++i) {
+			first[i + 1] += first[i];
+		}
+		/* first[i + 1] now marks the end of the candidates of i; filling
+		 * from the end counts it back down to their start */
+		for (int k = 0; k < nPairs; ++k) {
+			int i = candidates.getFirst(k);
+			int j = candidates.getSecond(k);
+			neighbours[--first[i + 1]] = j;
+			neighbours[--first[j + 1]] = i;
+		}
+		for (int i = 0; i < n; ++i) {
+			first[i] = first[i + 1];
+		}
+		first[n] = 2 * nPairs;
+	}
+
+	/**
+	 * Copies the positions and radii of the live bodies into flat arrays, and
+	 * resets the BroadPhase if the set of live bodies has changed.
+	 * @param bodies the bodies of the simulation.
+	 * @return true if the set of live bodies has changed.
+	 */
+	private boolean load(Body[] bodies)
+	{
+		int count = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				count++;
+			}
+		}
+		boolean isChanged = count != n;
+		if (active.length < count) {
+			int capacity = Math.max(count, 2 * active.length);
+			Body[] newActive = new Body[capacity];
+			System.arraycopy(active, 0, newActive, 0, n);
+			active = newActive;
+			xPos = new double[capacity];
+			yPos = new double[capacity];
+			radius = new double[capacity];
+		}
+		n = count;
+		int i = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				if (active[i] != body) {
+					active[i] = body;
+					isChanged = true;
+				}
+				xPos[i] = body.getXPos();
+				yPos[i] = body.getYPos();
+				radius[i] = getRadius(body);
+				i++;
+			}
+		}
+		if (isChanged) {
+			broadPhase.reset();
+		}
+		return isChanged;
+	}
+
+	/**
+	 * Allocates the arrays describing the path of each body.
+	 */
+	private void allocatePaths()
+	{
+		if (xFrom.length < n) {
+			int capacity = xPos.length;
+			xFrom = new double[capacity];
+			yFrom = new double[capacity];
+			tFrom = new double[capacity];
+			xStep = new double[capacity];
+			yStep = new double[capacity];
+			version = new int[capacity];
+			clusterMass = new double[capacity];
+			clusterXVel = new double[capacity];
+			clusterYVel = new double[capacity];
+			isClusterMassive = new boolean[capacity];
+			xSwept = new double[capacity];
+			ySwept = new double[capacity];
+			rSwept = new double[capacity];
+		}
+	}
+
+	/**
+	 * Impact is a predicted contact between two bodies, which is ignored if
+	 * the path of either body has changed since it was predicted.
+	 */
+	private static class Impact implements Comparable<Impact>
+	{
+		private final double time;
+		private final int first;
+		private final int second;
+		private final int firstVersion;
+		private final int secondVersion;
+
+		/**
+		 * Creates a new Impact.
+		 * @param time the fraction of the step at which the bodies touch.
+		 * @param first the index of the first body.
+		 * @param second the index of the second body.
+		 * @param firstVersion the version of the first body's path.
+		 * @param secondVersion the version of the second body's path.
+		 */
+		private Impact(double time, int first, int second, int firstVersion,
+		               int secondVersion)
+		{
+			this.time = time;
+			this.first = first;
+			this.second = second;
+			this.firstVersion = firstVersion;
+			this.secondVersion = secondVersion;
+		}
+
+		/**
+		 * Orders impacts by time, then by the bodies involved so that the
+		 * order does not depend on the order they were queued in.
+		 * @param other the other Impact.
+		 * @return negative, zero or positive.
+		 */
+		public int compareTo(Impact other)
+		{
+			if (time != other.time) {
+				return (time < other.time) ? -1 : 1;
+			}
+			if (first != other.first) {
+				return (first < other.first) ? -1 : 1;
+			}
+			return (second < other.second) ? -1
+			       : ((second == other.second) ? 0 : 1);
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CommandQueue holds the commands which change the simulation from outside
+ * the simulation thread, e.g. adding a rogue planet or adjusting a
+ * parameter from the GUI, until they can be run between two steps.
+ *
+ * Any number of threads may add commands without locking: each new command
+ * is linked onto the tail of a singly linked list with a single atomic swap.
+ * Only one thread at a time may run them. The consumer is chosen with
+ * acquire() or tryAcquire(), and takes commands from the head of the list in
+ * the order they were added. A command whose link is still being made when
+ * the queue is drained is simply left for the next drain.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class CommandQueue
+{
+	/* the last command taken, or a stub before any has been taken */
+	private Node head = new Node(null);
+	private AtomicReference<Node> tail = new AtomicReference<Node>(head);
+	private AtomicBoolean isAcquired = new AtomicBoolean(false);
+
+	/**
+	 * Adds a command to the end of the queue. This may be called from any
+	 * thread.
+	 * @param command the command.
+	 */
+	public void add(Runnable command)
+	{
+		Node node = new Node(command);
+		Node last = tail.getAndSet(node);
+		last.next = node;
+	}
+
+	/**
+	 * Makes the calling thread the consumer of the queue if no other thread
+	 * is.
+	 * @return true if the calling thread is now the consumer.
+	 */
+	public boolean tryAcquire()
+	{
+		return isAcquired.compareAndSet(false, true);
+	}
+
+	/**
+	 * Makes the calling thread the consumer of the queue, waiting for any
+	 * other consumer to release it.
+	 */
+	public void acquire()
+	{
+		while (!tryAcquire()) {
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Stops the calling thread being the consumer of the queue.
+	 */
+	public void release()
+	{
+		isAcquired.set(false);
+	}
+
+	/**
+	 * Runs the commands in the queue in the order they were added. Only the
+	 * consumer may call this.
+	 * @return the number of commands run.
+	 */
+	public int drain()
+	{
+		int count = 0;
+		Node next = head.next;
+		while (next != null) {
+			Runnable command = next.command;
+			next.command = null;
+			head = next;
+			command.run();
+			count++;
+			next = head.next;
+		}
+		return count;
+	}
+
+	/**
+	 * Node is a link in the list of commands.
+	 */
+	private static class Node
+	{
+		private Runnable command;
+		private volatile Node next = null;
+
+		/**
+		 * Creates a new Node.
+		 * @param command the command it holds.
+		 */
+		private Node(Runnable command)
+		{
+			this.command = command;
+		}
+	}
+
+}
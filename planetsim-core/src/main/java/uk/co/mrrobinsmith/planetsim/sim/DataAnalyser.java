@@ -0,0 +1,375 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+import uk.co.mrrobinsmith.planetsim.base.*;
+
+/**
+ * DataAnalyser stores and returns data for PlanetSim.
+ * 
+ * @author Robin Smith
+ * @version 1 (16/11/2010)
+ */
+
+public class DataAnalyser
+{
+
+	private DoubleDataParameter simTime;
+	private IntDataParameter simSteps;
+	private DoubleDataParameter timeStep;
+    private IntDataParameter bodiesOffScreen;
+    private IntDataParameter bodiesOnScreen;
+    private IntDataParameter escapedBodies;
+    private IntDataParameter mergedBodies;
+    private IntDataParameter encounterSteps;
+    private IntDataParameter massiveBodies;
+    private IntDataParameter regularizedPairs;
+    private DoubleDataParameter regularizationTime;
+    private DoubleDataParameter collisionTime;
+    private IntDataParameter neighbourRebuilds;
+    private IntDataParameter droppedFrames;
+    private DoubleDataParameter simRate;
+    private IntDataParameter bufferedFrames;
+    private IntDataParameter[] levelOccupancy = new IntDataParameter[0];
+    /* every level parameter made so far, reused when the levels change */
+    private IntDataParameter[] levelParams = new IntDataParameter[0];
+    private final int N_PARAMS = 16;
+    private Parameter[] data = new Parameter[N_PARAMS];
+    private ParameterRegistry registry;
+    /* real time over which the simulated time per second is measured */
+    private static final long THROUGHPUT_INTERVAL = 500000000L;
+    /* when the current measurement started, or -1 if it has not, and the
+     * simulated time then */
+    private long sampleStart = -1;
+    private double sampleSimTime;
+
+    
+    /**
+     * Creates a new DataAnalyser object with default initial data values.
+     */
+    public DataAnalyser()
+    {
+    	int i = 0;
+    	
+    	simTime = new DoubleDataParameter("Sim time", 0.0, false);
+    	data[i++] = simTime;
+    	
+    	simSteps = new IntDataParameter("Sim steps", 0, false);
+    	data[i++] = simSteps;
+    	
+    	timeStep = new DoubleDataParameter("Time step", 0.0, false);
+    	data[i++] = timeStep;
+    	
+    	simRate = new DoubleDataParameter("Sim time per second", 0.0, false);
+    	data[i++] = simRate;
+    	
+    	bodiesOffScreen = new IntDataParameter("Bodies off screen", 0, false);
+    	data[i++] = bodiesOffScreen;
+    	
+    	bodiesOnScreen = new IntDataParameter("Bodies on screen", 0, false);
+    	data[i++] = bodiesOnScreen;
+    	
+    	escapedBodies = new IntDataParameter("Escaped bodies", 0, false);
+    	data[i++] = escapedBodies;
+    	
+    	mergedBodies = new IntDataParameter("Merged bodies", 0, false);
+    	data[i++] = mergedBodies;
+    	
+    	encounterSteps = new IntDataParameter("Encounter steps", 0, false);
+    	data[i++] = encounterSteps;
+    	
+    	massiveBodies = new IntDataParameter("Massive bodies", 0, false);
+    	data[i++] = massiveBodies;
+    	
+    	regularizedPairs = new IntDataParameter("Regularized pairs", 0, false);
+    	data[i++] = regularizedPairs;
+    	
+    	regularizationTime = new DoubleDataParameter("Regularization ms", 0.0,
+    	                                             false);
+    	data[i++] = regularizationTime;
+    	
+    	collisionTime = new DoubleDataParameter("Collision ms", 0.0, false);
+    	data[i++] = collisionTime;
+    	
+    	neighbourRebuilds = new IntDataParameter("Neighbour list builds", 0,
+    	                                         false);
+    	data[i++] = neighbourRebuilds;
+    	droppedFrames = new IntDataParameter("Dropped frames", 0, false);
+    	data[i++] = droppedFrames;
+    	bufferedFrames = new IntDataParameter("Buffered frames", 0, false);
+    	data[i++] = bufferedFrames;
+    	
+    	registry = new ParameterRegistry(data);
+    }
+    
+    /**
+     * Gets the current simulated time.
+     * @return simTime the simulated time.
+     */
+    public double getSimTime()
+    {
+    	return simTime.getValue();
+    }
+    
+    /**
+     * Gets the set of data parameters from DataAnalyser.
+     * @return the array of Parameters.
+     */
+    public Parameter[] getParams()
+    {
+    	return data;
+    }
+    
+    /**
+     * Gets the ParameterRegistry holding the data parameters.
+     * @return the ParameterRegistry.
+     */
+    public ParameterRegistry getRegistry()
+    {
+    	return registry;
+    }
+    
+    /**
+     * Tells the listeners of the registry about the data parameters which
+     * have changed since this was last called, e.g. once per step.
+     */
+    public void fireChanges()
+    {
+    	registry.fireChanges();
+    }
+
+    /**
+     * Records a completed step of the simulation, advancing the simulated
+     * time by the length of the step.
+     * @param deltaT the length of the step.
+     */
+    public void incSimTime(double deltaT)
+    {
+    	simTime.setValue(simTime.getValue() + deltaT);
+    	simSteps.incValue();
+    	timeStep.setValue(deltaT);
+    }
+    
+    /**
+     * Increments the number of off-screen balls by one.
+     */
+    public void incBodiesOffScreen()
+    {
+    	bodiesOffScreen.incValue();
+    }
+    
+    /**
+     * Decrements the number of off-screen balls by one.
+     */
+    public void decBodiesOffScreen()
+    {
+    	bodiesOffScreen.decValue();
+    }
+    
+    /**
+     * Increments the number of on-screen balls by one.
+     */
+    public void incBodiesOnScreen()
+    {
+    	bodiesOnScreen.incValue();
+    }
+    
+    /**
+     * Decrements the number of off-screen balls by one.
+     */
+    public void decBodiesOnScreen()
+    {
+    	bodiesOnScreen.decValue();
+    }
+    
+    /**
+     * Increments the number of bodies which have left the simulation for
+     * good by one.
+     */
+    public void incEscapedBodies()
+    {
+    	escapedBodies.incValue();
+    }
+    
+    /**
+     * Increments the number of merged bodies by one.
+     */
+    public void incMergedBodies()
+    {
+    	mergedBodies.incValue();
+    }
+    
+    /**
+     * Increments the number of steps which the Wisdom-Holman integrator has
+     * handed over to the Hermite integrator because of a close encounter.
+     */
+    public void incEncounterSteps()
+    {
+    	encounterSteps.incValue();
+    }
+    
+    /**
+     * Sets the number of bodies which are sources of gravity.
+     * @param nBodies the number of massive bodies.
+     */
+    public void setMassiveBodies(int nBodies)
+    {
+    	massiveBodies.setValue(nBodies);
+    }
+    
+    /**
+     * Sets the number of close pairs which are currently regularized.
+     * @param nPairs the number of pairs.
+     */
+    public void setRegularizedPairs(int nPairs)
+    {
+    	regularizedPairs.setValue(nPairs);
+    }
+    
+    /**
+     * Sets the time spent on the regularized pairs during the last step.
+     * @param millis the time in milliseconds.
+     */
+    public void setRegularizationTime(double millis)
+    {
+    	regularizationTime.setValue(millis);
+    }
+    
+    /**
+     * Sets the time spent finding and merging touching bodies during the
+     * last step.
+     * @param millis the time in milliseconds.
+     */
+    public void setCollisionTime(double millis)
+    {
+    	collisionTime.setValue(millis);
+    }
+    
+    /**
+     * Increments the number of times the neighbour lists used to find
+     * touching bodies have been built.
+     */
+    public void incNeighbourRebuilds()
+    {
+    	neighbourRebuilds.incValue();
+    }
+    
+    /**
+     * Adds to the number of frames dropped because the simulation could not
+     * keep up with real time.
+     * @param nFrames the number of frames dropped.
+     */
+    public void addDroppedFrames(int nFrames)
+    {
+    	droppedFrames.setValue(droppedFrames.getValue() + nFrames);
+    }
+    
+    /**
+     * Sets the number of frames the simulation has run ahead of the display.
+     * @param nFrames the number of frames.
+     */
+    public void setBufferedFrames(int nFrames)
+    {
+    	bufferedFrames.setValue(nFrames);
+    }
+    
+    /**
+     * Starts measuring the simulated time per second of real time afresh
+     * from now, e.g. when the simulation starts or resumes running.
+     */
+    public void startThroughput()
+    {
+    	sampleStart = System.nanoTime();
+    	sampleSimTime = simTime.getValue();
+    }
+    
+    /**
+     * Updates the simulated time per second of real time, if it has been
+     * measured for long enough since it was last updated.
+     */
+    public void sampleThroughput()
+    {
+    	long now = System.nanoTime();
+    	if (sampleStart < 0) {
+    		startThroughput();
+    	}
+    	else if (now - sampleStart >= THROUGHPUT_INTERVAL) {
+    		double seconds = (now - sampleStart) / 1e9;
+    		simRate.setValue((simTime.getValue() - sampleSimTime) / seconds);
+    		sampleStart = now;
+    		sampleSimTime = simTime.getValue();
+    	}
+    }
+    
+    /**
+     * Updates the simulated time per second of real time from the whole time
+     * since it was started, however short, e.g. at the end of a batch of
+     * steps run without a view.
+     */
+    public void finishThroughput()
+    {
+    	long now = System.nanoTime();
+    	if (sampleStart >= 0 && now > sampleStart) {
+    		double seconds = (now - sampleStart) / 1e9;
+    		simRate.setValue((simTime.getValue() - sampleSimTime) / seconds);
+    		sampleStart = now;
+    		sampleSimTime = simTime.getValue();
+    	}
+    }
+    
+    /**
+     * Sets the number of time step levels whose occupancy is reported, e.g.
+     * by a BlockHermiteIntegrator. Level l holds the bodies whose time step is
+     * the simulation time step divided by 2^l.
+     * @param nLevels the number of levels, or 0 if levels are not used.
+     */
+    public void setTimeStepLevels(int nLevels)
+    {
+    	if (levelParams.length < nLevels) {
+    		IntDataParameter[] newParams = new IntDataParameter[nLevels];
+    		for (int l = 0; l < nLevels; ++l) {
+    			if (l < levelParams.length) {
+    				newParams[l] = levelParams[l];
+    			}
+    			else {
+    				newParams[l] = new IntDataParameter(
+    				                   "Bodies at dt/" + (1 << l), 0, false);
+    				registry.register(newParams[l]);
+    			}
+    		}
+    		levelParams = newParams;
+    	}
+    	levelOccupancy = new IntDataParameter[nLevels];
+    	Parameter[] newData = new Parameter[N_PARAMS + nLevels];
+    	for (int i = 0; i < N_PARAMS; ++i) {
+    		newData[i] = data[i];
+    	}
+    	for (int l = 0; l < nLevels; ++l) {
+    		levelOccupancy[l] = levelParams[l];
+    		newData[N_PARAMS + l] = levelOccupancy[l];
+    	}
+    	data = newData;
+    }
+    
+    /**
+     * Sets the number of bodies on a time step level. Levels which are not
+     * reported are ignored.
+     * @param level the level.
+     * @param nBodies the number of bodies.
+     */
+    public void setLevelOccupancy(int level, int nBodies)
+    {
+    	if (level < levelOccupancy.length) {
+    		levelOccupancy[level].setValue(nBodies);
+    	}
+    }
+    
+    /**
+     * Resets all of the data values to defaults.
+     */
+    public void reset()
+    {
+    	for (Parameter param : data) {
+    		param.setDefault();
+    	}
+    	sampleStart = -1;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EscapeDetector finds bodies which have left the system for good and takes
+ * them out of the simulation, so that they no longer cost any force
+ * calculations or stretch the region covered by the bodies.
+ *
+ * A Body has escaped when it is further than a given distance from the
+ * centre of mass of the system, is moving away from the rest of the system,
+ * and its energy relative to the rest of the system is positive. Far from
+ * the system the rest of the bodies act on it as a single mass at their
+ * centre of mass, so once all three hold it can never return. Its final
+ * state is kept in an archive of EscapedBody records.
+ *
+ * The star and the members of regularized pairs are never retired.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class EscapeDetector
+{
+	private PlanetSim sim;
+	private DataAnalyser data;
+	private ArrayList<EscapedBody> archive = new ArrayList<EscapedBody>();
+
+	/**
+	 * Creates a new EscapeDetector.
+	 * @param sim the PlanetSim to remove escaped bodies from.
+	 * @param data the DataAnalyser to report escaped bodies to.
+	 */
+	public EscapeDetector(PlanetSim sim, DataAnalyser data)
+	{
+		this.sim = sim;
+		this.data = data;
+	}
+
+	/**
+	 * Empties the archive, e.g. when the simulation is restarted.
+	 */
+	public void reset()
+	{
+		archive.clear();
+	}
+
+	/**
+	 * Gets the final states of the bodies which have escaped, in the order in
+	 * which they escaped.
+	 * @return an unmodifiable list of EscapedBody.
+	 */
+	public List<EscapedBody> getArchive()
+	{
+		return Collections.unmodifiableList(archive);
+	}
+
+	/**
+	 * Finds the bodies which have escaped and removes them from the
+	 * simulation.
+	 * @param bodies the bodies to test.
+	 * @param sources the bodies whose mass makes up the system, which may
+	 * contain null or dead entries.
+	 * @param regularizer the Regularizer, whose members are not tested.
+	 * @param distance the distance from the centre of mass beyond which a
+	 * Body may escape.
+	 * @param G the gravitational constant.
+	 */
+	public void detect(Body[] bodies, Body[] sources, Regularizer regularizer,
+	                   double distance, double G)
+	{
+		double mass = 0.0;
+		double xMass = 0.0;
+		double yMass = 0.0;
+		double xMom = 0.0;
+		double yMom = 0.0;
+		for (Body body : sources) {
+			if (body != null && !body.isDead()) {
+				double m = body.getMass();
+				mass += m;
+				xMass += m * body.getXPos();
+				yMass += m * body.getYPos();
+				xMom += m * body.getXVel();
+				yMom += m * body.getYVel();
+			}
+		}
+		if (mass <= 0.0) {
+			return;
+		}
+		double xCentre = xMass / mass;
+		double yCentre = yMass / mass;
+
+		for (Body body : bodies) {
+			if (body == null || body.isDead() || body == sim.getStar()
+			    || regularizer.isRegularized(body)) {
+				continue;
+			}
+			double dx = body.getXPos() - xCentre;
+			double dy = body.getYPos() - yCentre;
+			if (dx * dx + dy * dy <= distance * distance) {
+				continue;
+			}
+			/* the rest of the system, without this Body if it is a source */
+			double m = body.isMassive() ? body.getMass() : 0.0;
+			double restMass = mass - m;
+			if (restMass <= 0.0) {
+				continue;
+			}
+			double xRel = body.getXPos() - (xMass - m * body.getXPos())
+			                               / restMass;
+			double yRel = body.getYPos() - (yMass - m * body.getYPos())
+			                               / restMass;
+			double xVelRel = body.getXVel() - (xMom - m * body.getXVel())
+			                                  / restMass;
+			double yVelRel = body.getYVel() - (yMom - m * body.getYVel())
+			                                  / restMass;
+			if (xRel * xRel + yRel * yRel <= 0.0
+			    || xRel * xVelRel + yRel * yVelRel <= 0.0) {
+				continue;
+			}
+			double energy = 0.5 * (xVelRel * xVelRel + yVelRel * yVelRel)
+			                - G * (restMass + m)
+			                  / Math.sqrt(xRel * xRel + yRel * yRel);
+			if (energy > 0.0) {
+				archive.add(new EscapedBody(body, data.getSimTime(), energy));
+				body.setEscaped(true);
+				sim.removeBody(body);
+				data.incEscapedBodies();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * EscapedBody records the final state of a Body which has left the
+ * simulation for good, at the moment it was taken out of the simulation.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class EscapedBody
+{
+	private final double time;
+	private final double xPos;
+	private final double yPos;
+	private final double xVel;
+	private final double yVel;
+	private final double mass;
+	private final double energy;
+
+	/**
+	 * Creates a new EscapedBody from the current state of a Body.
+	 * @param body the Body which has escaped.
+	 * @param time the simulated time at which it escaped.
+	 * @param energy its energy per unit mass relative to the rest of the
+	 * system.
+	 */
+	public EscapedBody(Body body, double time, double energy)
+	{
+		this.time = time;
+		xPos = body.getXPos();
+		yPos = body.getYPos();
+		xVel = body.getXVel();
+		yVel = body.getYVel();
+		mass = body.getMass();
+		this.energy = energy;
+	}
+
+	/**
+	 * Gets the simulated time at which the Body escaped.
+	 * @return the time.
+	 */
+	public double getTime()
+	{
+		return time;
+	}
+
+	/**
+	 * Gets the x-position at which the Body escaped.
+	 * @return the x-position.
+	 */
+	public double getXPos()
+	{
+		return xPos;
+	}
+
+	/**
+	 * Gets the y-position at which the Body escaped.
+	 * @return the y-position.
+	 */
+	public double getYPos()
+	{
+		return yPos;
+	}
+
+	/**
+	 * Gets the x-velocity with which the Body escaped.
+	 * @return the x-velocity.
+	 */
+	public double getXVel()
+	{
+		return xVel;
+	}
+
+	/**
+	 * Gets the y-velocity with which the Body escaped.
+	 * @return the y-velocity.
+	 */
+	public double getYVel()
+	{
+		return yVel;
+	}
+
+	/**
+	 * Gets the mass of the Body.
+	 * @return the mass.
+	 */
+	public double getMass()
+	{
+		return mass;
+	}
+
+	/**
+	 * Gets the energy per unit mass of the Body relative to the rest of the
+	 * system when it escaped, which is always positive.
+	 * @return the energy.
+	 */
+	public double getEnergy()
+	{
+		return energy;
+	}
+
+}
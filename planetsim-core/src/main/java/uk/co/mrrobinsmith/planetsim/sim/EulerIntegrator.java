@@ -0,0 +1,42 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * EulerIntegrator is the original PlanetSim scheme, in which each Body
+ * updates its own velocity and position in turn using Body.move().
+ *
+ * Body.move() keeps the original force law, whose pull has the constant
+ * magnitude G * m2 whatever the separation, and it does not use the
+ * softening length. The other integrators use the softened inverse-square
+ * law of GravityKernel. The 'Planet speed' parameter is tuned for this
+ * scheme and is only used with it: with the other integrators PlanetSim
+ * starts the planets at the speed of a circular orbit about the star.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class EulerIntegrator implements Integrator
+{
+
+	/**
+	 * Moves each Body in turn.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the time step.
+	 */
+	public void step(Body[] bodies, double deltaT)
+	{
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				body.move(deltaT);
+			}
+		}
+	}
+
+	/**
+	 * EulerIntegrator keeps no state about the bodies.
+	 */
+	public void reset()
+	{
+	}
+
+}
@@ -0,0 +1,148 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * Frame is a compact snapshot of what a PlanetSim shows at the end of a
+ * frame: the position in pixels, diameter and colour of each Body within
+ * the bounds of the simulation, with the simulated time and the number of
+ * steps the frame stands for. Its arrays are reused when it is filled again,
+ * so a Frame which is captured over and over does not allocate once it has
+ * grown to the number of bodies.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class Frame
+{
+	private int n = 0;
+	/* centre of each Body in pixels */
+	private float[] x = new float[0];
+	private float[] y = new float[0];
+	private int[] diameter = new int[0];
+	/* RGB value of the colour of each Body */
+	private int[] color = new int[0];
+	private double simTime;
+	private int nSteps;
+
+	/**
+	 * Fills the Frame from the bodies within the bounds of the simulation.
+	 * @param bodies the bodies, which may contain null or dead entries.
+	 * @param simTime the simulated time.
+	 * @param nSteps the number of steps the Frame stands for.
+	 */
+	public void capture(Body[] bodies, double simTime, int nSteps)
+	{
+		ensureCapacity(bodies.length);
+		n = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead() && !body.isOffScreen()) {
+				x[n] = (float) (body.getXPos() / Body.SCALE_FACTOR);
+				y[n] = (float) (body.getYPos() / Body.SCALE_FACTOR);
+				diameter[n] = body.getDiameter();
+				color[n] = body.getColor();
+				n++;
+			}
+		}
+		this.simTime = simTime;
+		this.nSteps = nSteps;
+	}
+
+	/**
+	 * Makes this Frame a copy of another.
+	 * @param frame the Frame to copy.
+	 */
+	public void copy(Frame frame)
+	{
+		ensureCapacity(frame.n);
+		n = frame.n;
+		System.arraycopy(frame.x, 0, x, 0, n);
+		System.arraycopy(frame.y, 0, y, 0, n);
+		System.arraycopy(frame.diameter, 0, diameter, 0, n);
+		System.arraycopy(frame.color, 0, color, 0, n);
+		simTime = frame.simTime;
+		nSteps = frame.nSteps;
+	}
+
+	/**
+	 * Gets the number of bodies in the Frame.
+	 * @return the number of bodies.
+	 */
+	public int size()
+	{
+		return n;
+	}
+
+	/**
+	 * Gets the x-coordinate of the centre of a Body in pixels.
+	 * @param i the index of the Body in the Frame.
+	 * @return the x-coordinate.
+	 */
+	public float getX(int i)
+	{
+		return x[i];
+	}
+
+	/**
+	 * Gets the y-coordinate of the centre of a Body in pixels.
+	 * @param i the index of the Body in the Frame.
+	 * @return the y-coordinate.
+	 */
+	public float getY(int i)
+	{
+		return y[i];
+	}
+
+	/**
+	 * Gets the diameter of a Body in pixels.
+	 * @param i the index of the Body in the Frame.
+	 * @return the diameter.
+	 */
+	public int getDiameter(int i)
+	{
+		return diameter[i];
+	}
+
+	/**
+	 * Gets the colour of a Body.
+	 * @param i the index of the Body in the Frame.
+	 * @return the RGB value of the colour.
+	 */
+	public int getColor(int i)
+	{
+		return color[i];
+	}
+
+	/**
+	 * Gets the simulated time at the end of the Frame.
+	 * @return the simulated time.
+	 */
+	public double getSimTime()
+	{
+		return simTime;
+	}
+
+	/**
+	 * Gets the number of steps the Frame stands for.
+	 * @return the number of steps.
+	 */
+	public int getSteps()
+	{
+		return nSteps;
+	}
+
+	/**
+	 * Makes sure the arrays can hold a number of bodies.
+	 * @param capacity the number of bodies.
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if (x.length < capacity) {
+			int length = Math.max(capacity, 2 * x.length);
+			x = new float[length];
+			y = new float[length];
+			diameter = new int[length];
+			color = new int[length];
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FrameBuffer is a bounded ring of Frames passed from one producer thread,
+ * the simulation, to one consumer thread, the renderer, so that the
+ * simulation can run ahead of the display and smooth over steps which take
+ * longer than usual. The Frames are made once and reused, and neither side
+ * takes a lock: the producer alone moves the head and the consumer alone
+ * moves the tail, and each reads the other's through a volatile field.
+ *
+ * The producer claims the Frame at the head, fills it and publishes it. When
+ * the ring holds as many Frames as its limit the producer waits, without
+ * spinning, until the consumer releases one. The consumer never waits: it
+ * peeks at the Frame at the tail and releases it once it has been used.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class FrameBuffer
+{
+	private final Frame[] frames;
+	/* the number of Frames which may be held at once */
+	private volatile int limit;
+	/* the number of Frames published and the number released */
+	private volatile long head = 0;
+	private volatile long tail = 0;
+	/* the producer, while it is waiting for space */
+	private volatile Thread waiting = null;
+
+	/**
+	 * Creates a FrameBuffer.
+	 * @param capacity the most Frames it can ever hold.
+	 */
+	public FrameBuffer(int capacity)
+	{
+		frames = new Frame[capacity];
+		for (int k = 0; k < capacity; ++k) {
+			frames[k] = new Frame();
+		}
+		limit = capacity;
+	}
+
+	/**
+	 * Sets the number of Frames which may be held at once.
+	 * @param limit the limit, from 1 to the capacity.
+	 */
+	public void setLimit(int limit)
+	{
+		this.limit = Math.max(1, Math.min(limit, frames.length));
+	}
+
+	/**
+	 * Gets the number of Frames published but not yet released.
+	 * @return the number of Frames.
+	 */
+	public int size()
+	{
+		return (int) (head - tail);
+	}
+
+	/**
+	 * Gets the Frame at the head for the producer to fill, if there is room
+	 * for another Frame.
+	 * @return the Frame, or null if the ring is full.
+	 */
+	public Frame claim()
+	{
+		if (head - tail >= limit) {
+			return null;
+		}
+		return frames[(int) (head % frames.length)];
+	}
+
+	/**
+	 * Passes the claimed Frame to the consumer.
+	 */
+	public void publish()
+	{
+		head = head + 1;
+	}
+
+	/**
+	 * Makes the producer wait until there is room for another Frame, the
+	 * time runs out or the thread is unparked.
+	 * @param nanos the longest time to wait, in nanoseconds.
+	 */
+	public void awaitSpace(long nanos)
+	{
+		waiting = Thread.currentThread();
+		if (head - tail >= limit) {
+			LockSupport.parkNanos(this, nanos);
+		}
+		waiting = null;
+	}
+
+	/**
+	 * Gets the oldest Frame which the consumer has not yet released.
+	 * @return the Frame, or null if there is none.
+	 */
+	public Frame peek()
+	{
+		if (tail == head) {
+			return null;
+		}
+		return frames[(int) (tail % frames.length)];
+	}
+
+	/**
+	 * Gives the oldest Frame back to the producer, waking it if it is
+	 * waiting for room.
+	 */
+	public void release()
+	{
+		tail = tail + 1;
+		Thread thread = waiting;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Empties the ring. Only to be called while neither side is using it.
+	 */
+	public void clear()
+	{
+		tail = head;
+	}
+
+}
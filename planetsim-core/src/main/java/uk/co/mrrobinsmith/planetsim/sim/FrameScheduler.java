@@ -0,0 +1,100 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FrameScheduler paces a simulation against the wall clock. Each frame
+ * stands for a fixed period of real time, and the real time which has
+ * passed is added to an accumulator from which one period is taken for each
+ * frame run. The time a frame takes is therefore counted against the time
+ * until the next one, and a frame which overruns is made up by running the
+ * frames which are due back to back, so the frame rate does not drift under
+ * load. How many steps make up a frame is up to the simulation.
+ *
+ * At most a fixed number of frames are run to catch up at once. Any more are
+ * dropped, so that a simulation which cannot keep up with real time stays
+ * close to it rather than falling further and further behind. The thread
+ * waits with LockSupport.parkNanos(), so it can be woken early with
+ * LockSupport.unpark(), e.g. to stop the simulation.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class FrameScheduler
+{
+	private int maxFrames;
+	private DataAnalyser data;
+	/* real time per frame, in nanoseconds */
+	private long period = 1;
+	/* real time which has passed but not yet been simulated */
+	private long accumulator = 0;
+	private long lastTime;
+
+	/**
+	 * Creates a FrameScheduler.
+	 * @param maxFrames the most frames which may be run to catch up at once.
+	 * @param data the DataAnalyser to report dropped frames to, or null.
+	 */
+	public FrameScheduler(int maxFrames, DataAnalyser data)
+	{
+		this.maxFrames = maxFrames;
+		this.data = data;
+		reset();
+	}
+
+	/**
+	 * Sets the real time each frame stands for.
+	 * @param nanos the period in nanoseconds.
+	 */
+	public void setPeriod(long nanos)
+	{
+		period = Math.max(1, nanos);
+	}
+
+	/**
+	 * Empties the accumulator and starts counting real time from now, e.g.
+	 * when the simulation starts or resumes.
+	 */
+	public void reset()
+	{
+		accumulator = 0;
+		lastTime = System.nanoTime();
+	}
+
+	/**
+	 * Gets the number of frames which are due, waiting until the next one is
+	 * due if none are. The wait may end early, e.g. if the thread is
+	 * unparked, in which case no frames may be due. If more frames are due
+	 * than may be run at once the rest are dropped.
+	 * @return the number of frames to run now.
+	 */
+	public int nextFrames()
+	{
+		tick();
+		if (accumulator < period) {
+			LockSupport.parkNanos(period - accumulator);
+			tick();
+		}
+		long due = accumulator / period;
+		accumulator -= due * period;
+		if (due > maxFrames) {
+			if (data != null) {
+				data.addDroppedFrames((int) (due - maxFrames));
+			}
+			due = maxFrames;
+		}
+		return (int) due;
+	}
+
+	/**
+	 * Adds the real time since the last tick to the accumulator.
+	 */
+	private void tick()
+	{
+		long now = System.nanoTime();
+		accumulator += now - lastTime;
+		lastTime = now;
+	}
+
+}
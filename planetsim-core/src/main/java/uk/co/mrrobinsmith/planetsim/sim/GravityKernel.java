@@ -0,0 +1,230 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * GravityKernel evaluates the softened gravitational acceleration on a set of
+ * bodies together with its time derivative, the jerk. Both are accumulated in
+ * the same sweep over each pair of bodies, so the jerk only costs a handful of
+ * extra multiplications over the acceleration alone. Body state is held in
+ * flat arrays which are filled by the Integrator using the kernel.
+ *
+ * Bodies which are not marked as massive are test particles: they feel the
+ * gravity of the massive bodies but exert none themselves, so with few
+ * massive bodies the cost is proportional to the number of test particles
+ * times the number of massive bodies.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class GravityKernel
+{
+	private static final int INITIAL_CAPACITY = 64;
+
+	/* state of each body at the time the forces are evaluated */
+	double[] xPos;
+	double[] yPos;
+	double[] xVel;
+	double[] yVel;
+	double[] mass;
+	boolean[] isMassive;
+
+	/* results of the last evaluation */
+	double[] xAcc;
+	double[] yAcc;
+	double[] xJerk;
+	double[] yJerk;
+
+	private int n = 0;
+	/* indices of the massive bodies */
+	private int[] sources = new int[0];
+	private int nSources = 0;
+
+	/**
+	 * Creates a new GravityKernel.
+	 */
+	public GravityKernel()
+	{
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Sets the number of bodies held by the kernel, growing its arrays if
+	 * necessary. Existing values are not preserved when the arrays grow.
+	 * @param n the number of bodies.
+	 */
+	public void setSize(int n)
+	{
+		if (n > xPos.length) {
+			allocate(Math.max(n, 2 * xPos.length));
+		}
+		this.n = n;
+	}
+
+	/**
+	 * Gets the number of bodies held by the kernel.
+	 * @return the number of bodies.
+	 */
+	public int getSize()
+	{
+		return n;
+	}
+
+	/**
+	 * Rebuilds the list of massive bodies from the isMassive array. This must
+	 * be called after the bodies have been loaded and before evaluating.
+	 */
+	public void updateSources()
+	{
+		if (sources.length < n) {
+			sources = new int[xPos.length];
+		}
+		nSources = 0;
+		for (int i = 0; i < n; ++i) {
+			if (isMassive[i]) {
+				sources[nSources++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the acceleration and jerk of every body. Each pair of massive
+	 * bodies is visited once, applying the equal and opposite contribution to
+	 * both bodies, and each test particle is then visited against every
+	 * massive body.
+	 * @param G the gravitational constant.
+	 * @param softening the softening length.
+	 */
+	public void evaluateAll(double G, double softening)
+	{
+		double eps2 = softening * softening;
+		for (int i = 0; i < n; ++i) {
+			xAcc[i] = 0.0;
+			yAcc[i] = 0.0;
+			xJerk[i] = 0.0;
+			yJerk[i] = 0.0;
+		}
+		for (int a = 0; a < nSources; ++a) {
+			int i = sources[a];
+			double xi = xPos[i];
+			double yi = yPos[i];
+			double vxi = xVel[i];
+			double vyi = yVel[i];
+			double mi = mass[i];
+			double axi = 0.0;
+			double ayi = 0.0;
+			double jxi = 0.0;
+			double jyi = 0.0;
+			for (int b = a + 1; b < nSources; ++b) {
+				int j = sources[b];
+				double dx = xPos[j] - xi;
+				double dy = yPos[j] - yi;
+				double dvx = xVel[j] - vxi;
+				double dvy = yVel[j] - vyi;
+				double s2 = dx * dx + dy * dy + eps2;
+				double rInv = 1.0 / Math.sqrt(s2);
+				double rInv3 = G * rInv * rInv * rInv;
+				double rv = 3.0 * (dx * dvx + dy * dvy) / s2;
+				double jx = (dvx - rv * dx) * rInv3;
+				double jy = (dvy - rv * dy) * rInv3;
+				double mj = mass[j];
+				axi += mj * dx * rInv3;
+				ayi += mj * dy * rInv3;
+				jxi += mj * jx;
+				jyi += mj * jy;
+				xAcc[j] -= mi * dx * rInv3;
+				yAcc[j] -= mi * dy * rInv3;
+				xJerk[j] -= mi * jx;
+				yJerk[j] -= mi * jy;
+			}
+			xAcc[i] += axi;
+			yAcc[i] += ayi;
+			xJerk[i] += jxi;
+			yJerk[i] += jyi;
+		}
+		if (nSources < n) {
+			for (int i = 0; i < n; ++i) {
+				if (!isMassive[i]) {
+					accumulate(i, G, eps2);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the acceleration and jerk of a subset of the bodies due to
+	 * all of the massive bodies. This is used when only some bodies are due
+	 * to be advanced, e.g. with individual time steps.
+	 * @param targets indices of the bodies to evaluate.
+	 * @param nTargets the number of entries of targets to use.
+	 * @param G the gravitational constant.
+	 * @param softening the softening length.
+	 */
+	public void evaluate(int[] targets, int nTargets, double G,
+	                     double softening)
+	{
+		double eps2 = softening * softening;
+		for (int k = 0; k < nTargets; ++k) {
+			accumulate(targets[k], G, eps2);
+		}
+	}
+
+	/**
+	 * Sets the acceleration and jerk of body i to those due to all of the
+	 * massive bodies.
+	 * @param i the index of the body.
+	 * @param G the gravitational constant.
+	 * @param eps2 the square of the softening length.
+	 */
+	private void accumulate(int i, double G, double eps2)
+	{
+		double xi = xPos[i];
+		double yi = yPos[i];
+		double vxi = xVel[i];
+		double vyi = yVel[i];
+		double axi = 0.0;
+		double ayi = 0.0;
+		double jxi = 0.0;
+		double jyi = 0.0;
+		for (int b = 0; b < nSources; ++b) {
+			int j = sources[b];
+			if (j == i) {
+				continue;
+			}
+			double dx = xPos[j] - xi;
+			double dy = yPos[j] - yi;
+			double dvx = xVel[j] - vxi;
+			double dvy = yVel[j] - vyi;
+			double s2 = dx * dx + dy * dy + eps2;
+			double rInv = 1.0 / Math.sqrt(s2);
+			double mrInv3 = G * mass[j] * rInv * rInv * rInv;
+			double rv = 3.0 * (dx * dvx + dy * dvy) / s2;
+			axi += dx * mrInv3;
+			ayi += dy * mrInv3;
+			jxi += (dvx - rv * dx) * mrInv3;
+			jyi += (dvy - rv * dy) * mrInv3;
+		}
+		xAcc[i] = axi;
+		yAcc[i] = ayi;
+		xJerk[i] = jxi;
+		yJerk[i] = jyi;
+	}
+
+	/**
+	 * Allocates the kernel's arrays.
+	 * @param capacity the number of bodies the arrays can hold.
+	 */
+	private void allocate(int capacity)
+	{
+		xPos = new double[capacity];
+		yPos = new double[capacity];
+		xVel = new double[capacity];
+		yVel = new double[capacity];
+		mass = new double[capacity];
+		isMassive = new boolean[capacity];
+		xAcc = new double[capacity];
+		yAcc = new double[capacity];
+		xJerk = new double[capacity];
+		yJerk = new double[capacity];
+	}
+
+}
@@ -0,0 +1,232 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * HashGridBroadPhase finds touching pairs using a uniform grid whose cells
+ * are as wide as the largest body, so a body can only touch bodies in its own
+ * cell or the eight cells around it. The grid is unbounded: each cell is
+ * hashed into a table about twice as long as the number of bodies, and the
+ * bodies are ordered by their table entry with a counting sort. With many
+ * bodies the hashing, counting and scattering of the sort are run in
+ * parallel. The search is split into parts by body index.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class HashGridBroadPhase implements BroadPhase
+{
+	/* fewest bodies for which the grid is built in parallel */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private double cellSize;
+	private int mask;
+	private double[] xPos;
+	private double[] yPos;
+	private double[] radius;
+	private int n = 0;
+
+	/* table entry of each body */
+	private int[] entry = new int[0];
+	/* number of bodies in each table entry, then the next free slot */
+	private AtomicIntegerArray counts = new AtomicIntegerArray(0);
+	/* bodies in entry e are sorted[start[e]] to sorted[start[e + 1] - 1] */
+	private int[] start = new int[1];
+	private int[] sorted = new int[0];
+
+	/**
+	 * Sizes the cells from the largest body and sorts the bodies into them.
+	 * @param xPos x-position of each body.
+	 * @param yPos y-position of each body.
+	 * @param radius radius of each body.
+	 * @param n the number of bodies.
+	 */
+	public void update(double[] xPos, double[] yPos, double[] radius, int n)
+	{
+		this.xPos = xPos;
+		this.yPos = yPos;
+		this.radius = radius;
+		this.n = n;
+		double maxRadius = 0.0;
+		for (int i = 0; i < n; ++i) {
+			maxRadius = Math.max(maxRadius, radius[i]);
+		}
+		cellSize = (maxRadius > 0.0) ? 2.0 * maxRadius : 1.0;
+		build(xPos, yPos, n);
+	}
+
+	/**
+	 * Finds the pairs of bodies in neighbouring cells whose bounding boxes
+	 * overlap, for the bodies in one part of the range of indices.
+	 * @param part the part of the search, from 0 to nParts - 1.
+	 * @param nParts the number of parts the search is split into.
+	 * @param pairs the list to add the pairs to.
+	 */
+	public void findPairs(int part, int nParts, PairList pairs)
+	{
+		/* table entries of the cells around a body */
+		int[] neighbours = new int[9];
+		int from = (int) ((long) n * part / nParts);
+		int to = (int) ((long) n * (part + 1) / nParts);
+		for (int i = from; i < to; ++i) {
+			long cx = cell(xPos[i]);
+			long cy = cell(yPos[i]);
+			int nNeighbours = 0;
+			for (long dx = -1; dx <= 1; ++dx) {
+				for (long dy = -1; dy <= 1; ++dy) {
+					int e = hash(cx + dx, cy + dy);
+					boolean isVisited = false;
+					for (int k = 0; k < nNeighbours; ++k) {
+						if (neighbours[k] == e) {
+							isVisited = true;
+							break;
+						}
+					}
+					if (isVisited) {
+						continue;
+					}
+					neighbours[nNeighbours++] = e;
+					for (int k = start[e]; k < start[e + 1]; ++k) {
+						int j = sorted[k];
+						double reach = radius[i] + radius[j];
+						if (j > i && Math.abs(xPos[j] - xPos[i]) < reach
+						    && Math.abs(yPos[j] - yPos[i]) < reach) {
+							pairs.add(i, j);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The grid is rebuilt on every call to update(), so nothing is kept.
+	 */
+	public void reset()
+	{
+	}
+
+	/**
+	 * Sorts the bodies by their table entry with a counting sort. The order
+	 * of the bodies within an entry is made independent of the order in
+	 * which the threads scattered them by sorting each entry afterwards.
+	 * @param xPos x-position of each body.
+	 * @param yPos y-position of each body.
+	 * @param n the number of bodies.
+	 */
+	private void build(final double[] xPos, final double[] yPos, int n)
+	{
+		int tableSize = Integer.highestOneBit(Math.max(1, 2 * n - 1)) << 1;
+		mask = tableSize - 1;
+		if (counts.length() != tableSize) {
+			counts = new AtomicIntegerArray(tableSize);
+			start = new int[tableSize + 1];
+		}
+		if (entry.length < n) {
+			entry = new int[Math.max(n, 2 * entry.length)];
+			sorted = new int[entry.length];
+		}
+		boolean isParallel = n >= PARALLEL_THRESHOLD
+		                     && Runtime.getRuntime().availableProcessors() > 1;
+
+		forEach(tableSize, isParallel, new IntConsumer() {
+			public void accept(int e)
+			{
+				counts.set(e, 0);
+			}
+		});
+		forEach(n, isParallel, new IntConsumer() {
+			public void accept(int i)
+			{
+				entry[i] = hash(cell(xPos[i]), cell(yPos[i]));
+				counts.incrementAndGet(entry[i]);
+			}
+		});
+		start[0] = 0;
+		for (int e = 0; e < tableSize; ++e) {
+			start[e + 1] = start[e] + counts.get(e);
+		}
+		forEach(tableSize, isParallel, new IntConsumer() {
+			public void accept(int e)
+			{
+				counts.set(e, start[e]);
+			}
+		});
+		forEach(n, isParallel, new IntConsumer() {
+			public void accept(int i)
+			{
+				sorted[counts.getAndIncrement(entry[i])] = i;
+			}
+		});
+		if (isParallel) {
+			forEach(tableSize, true, new IntConsumer() {
+				public void accept(int e)
+				{
+					sortEntry(e);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Sorts the bodies of one table entry by index with an insertion sort,
+	 * since entries hold very few bodies.
+	 * @param e the table entry.
+	 */
+	private void sortEntry(int e)
+	{
+		for (int k = start[e] + 1; k < start[e + 1]; ++k) {
+			int i = sorted[k];
+			int m = k - 1;
+			while (m >= start[e] && sorted[m] > i) {
+				sorted[m + 1] = sorted[m];
+				m--;
+			}
+			sorted[m + 1] = i;
+		}
+	}
+
+	/**
+	 * Gets the grid cell containing a coordinate.
+	 * @param coord the x- or y-coordinate.
+	 * @return the column or row of the cell.
+	 */
+	private long cell(double coord)
+	{
+		return (long) Math.floor(coord / cellSize);
+	}
+
+	/**
+	 * Gets the table entry of a grid cell.
+	 * @param cx the column of the cell.
+	 * @param cy the row of the cell.
+	 * @return the table entry.
+	 */
+	private int hash(long cx, long cy)
+	{
+		long h = cx * 73856093L ^ cy * 19349663L;
+		return (int) (h ^ (h >>> 29)) & mask;
+	}
+
+	/**
+	 * Runs an action for each index from 0 to n - 1, in parallel if asked.
+	 * @param n the number of indices.
+	 * @param isParallel whether to run the action in parallel.
+	 * @param action the action.
+	 */
+	private static void forEach(int n, boolean isParallel, IntConsumer action)
+	{
+		if (isParallel) {
+			IntStream.range(0, n).parallel().forEach(action);
+		}
+		else {
+			for (int i = 0; i < n; ++i) {
+				action.accept(i);
+			}
+		}
+	}
+
+}
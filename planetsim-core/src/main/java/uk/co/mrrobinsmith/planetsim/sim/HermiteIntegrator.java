@@ -0,0 +1,193 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * HermiteIntegrator advances the bodies with the fourth-order Hermite
+ * predictor-corrector scheme. Positions and velocities are predicted from the
+ * acceleration and jerk at the start of the step, the acceleration and jerk
+ * are evaluated at the predicted state in a single pass of the GravityKernel,
+ * and the prediction is then corrected using both evaluations. Only one force
+ * evaluation is needed per step, and since the scheme only uses information
+ * about each body itself it carries over directly to individual time steps.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class HermiteIntegrator implements Integrator
+{
+	protected PlanetSim sim;
+	protected GravityKernel kernel = new GravityKernel();
+	/* the non-null bodies, in the order they are held by the kernel */
+	protected Body[] active = new Body[0];
+	/* whether the acceleration and jerk stored in the bodies are valid */
+	protected boolean isInitialised = false;
+
+	/* state of each body at the start of the step */
+	protected double[] xPos0 = new double[0];
+	protected double[] yPos0 = new double[0];
+	protected double[] xVel0 = new double[0];
+	protected double[] yVel0 = new double[0];
+	protected double[] xAcc0 = new double[0];
+	protected double[] yAcc0 = new double[0];
+	protected double[] xJerk0 = new double[0];
+	protected double[] yJerk0 = new double[0];
+
+	/**
+	 * Creates a new HermiteIntegrator for the given simulation.
+	 * @param sim the PlanetSim whose bodies are integrated.
+	 */
+	public HermiteIntegrator(PlanetSim sim)
+	{
+		this.sim = sim;
+	}
+
+	/**
+	 * Advances all of the bodies by one Hermite step.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the time step.
+	 */
+	public void step(Body[] bodies, double deltaT)
+	{
+		int n = load(bodies);
+		double G = sim.getGravConst();
+		double softening = sim.getSoftening();
+
+		double dt2 = deltaT * deltaT / 2.0;
+		double dt3 = deltaT * deltaT * deltaT / 6.0;
+		for (int i = 0; i < n; ++i) {
+			kernel.xPos[i] = xPos0[i] + xVel0[i] * deltaT + xAcc0[i] * dt2
+			                 + xJerk0[i] * dt3;
+			kernel.yPos[i] = yPos0[i] + yVel0[i] * deltaT + yAcc0[i] * dt2
+			                 + yJerk0[i] * dt3;
+			kernel.xVel[i] = xVel0[i] + xAcc0[i] * deltaT + xJerk0[i] * dt2;
+			kernel.yVel[i] = yVel0[i] + yAcc0[i] * deltaT + yJerk0[i] * dt2;
+		}
+
+		kernel.evaluateAll(G, softening);
+
+		for (int i = 0; i < n; ++i) {
+			correct(i, deltaT);
+			store(i);
+		}
+	}
+
+	/**
+	 * Discards the accelerations and jerks stored in the bodies so that they
+	 * are re-evaluated before the next step.
+	 */
+	public void reset()
+	{
+		isInitialised = false;
+	}
+
+	/**
+	 * Copies the state of the non-null bodies into the kernel and the start of
+	 * step arrays, evaluating their initial accelerations and jerks if
+	 * these are not yet known.
+	 * @param bodies the bodies of the simulation.
+	 * @return the number of bodies loaded.
+	 */
+	protected int load(Body[] bodies)
+	{
+		int n = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				n++;
+			}
+		}
+		if (active.length != n) {
+			active = new Body[n];
+		}
+		kernel.setSize(n);
+		if (xPos0.length < n) {
+			allocate(kernel.xPos.length);
+		}
+
+		int i = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				body.updateMass();
+				active[i] = body;
+				kernel.xPos[i] = xPos0[i] = body.getXPos();
+				kernel.yPos[i] = yPos0[i] = body.getYPos();
+				kernel.xVel[i] = xVel0[i] = body.getXVel();
+				kernel.yVel[i] = yVel0[i] = body.getYVel();
+				kernel.mass[i] = body.getMass();
+				kernel.isMassive[i] = body.isMassive();
+				i++;
+			}
+		}
+		kernel.updateSources();
+
+		if (!isInitialised) {
+			kernel.evaluateAll(sim.getGravConst(), sim.getSoftening());
+			for (i = 0; i < n; ++i) {
+				active[i].setAcceleration(kernel.xAcc[i], kernel.yAcc[i]);
+				active[i].setJerk(kernel.xJerk[i], kernel.yJerk[i]);
+			}
+			isInitialised = true;
+		}
+		for (i = 0; i < n; ++i) {
+			xAcc0[i] = active[i].getXAcc();
+			yAcc0[i] = active[i].getYAcc();
+			xJerk0[i] = active[i].getXJerk();
+			yJerk0[i] = active[i].getYJerk();
+		}
+		return n;
+	}
+
+	/**
+	 * Applies the Hermite corrector to body i, leaving the corrected position
+	 * and velocity in the kernel's arrays.
+	 * @param i the index of the body.
+	 * @param deltaT the time step the body has been advanced by.
+	 */
+	protected void correct(int i, double deltaT)
+	{
+		double dt2 = deltaT * deltaT / 12.0;
+		double xVel1 = xVel0[i] + (xAcc0[i] + kernel.xAcc[i]) * deltaT / 2.0
+		               + (xJerk0[i] - kernel.xJerk[i]) * dt2;
+		double yVel1 = yVel0[i] + (yAcc0[i] + kernel.yAcc[i]) * deltaT / 2.0
+		               + (yJerk0[i] - kernel.yJerk[i]) * dt2;
+		kernel.xPos[i] = xPos0[i] + (xVel0[i] + xVel1) * deltaT / 2.0
+		                 + (xAcc0[i] - kernel.xAcc[i]) * dt2;
+		kernel.yPos[i] = yPos0[i] + (yVel0[i] + yVel1) * deltaT / 2.0
+		                 + (yAcc0[i] - kernel.yAcc[i]) * dt2;
+		kernel.xVel[i] = xVel1;
+		kernel.yVel[i] = yVel1;
+	}
+
+	/**
+	 * Writes the corrected state of body i back into its Body, and makes it
+	 * the start of the next step.
+	 * @param i the index of the body.
+	 */
+	protected void store(int i)
+	{
+		Body body = active[i];
+		body.setXPos(xPos0[i] = kernel.xPos[i]);
+		body.setYPos(yPos0[i] = kernel.yPos[i]);
+		body.setXVel(xVel0[i] = kernel.xVel[i]);
+		body.setYVel(yVel0[i] = kernel.yVel[i]);
+		body.setAcceleration(xAcc0[i] = kernel.xAcc[i],
+		                     yAcc0[i] = kernel.yAcc[i]);
+		body.setJerk(xJerk0[i] = kernel.xJerk[i], yJerk0[i] = kernel.yJerk[i]);
+	}
+
+	/**
+	 * Allocates the start of step arrays.
+	 * @param capacity the number of bodies the arrays can hold.
+	 */
+	private void allocate(int capacity)
+	{
+		xPos0 = new double[capacity];
+		yPos0 = new double[capacity];
+		xVel0 = new double[capacity];
+		yVel0 = new double[capacity];
+		xAcc0 = new double[capacity];
+		yAcc0 = new double[capacity];
+		xJerk0 = new double[capacity];
+		yJerk0 = new double[capacity];
+	}
+
+}
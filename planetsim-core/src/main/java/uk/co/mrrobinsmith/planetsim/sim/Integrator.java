@@ -0,0 +1,27 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * Integrator is implemented by the schemes used by PlanetSim to advance its
+ * bodies through time.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public interface Integrator
+{
+
+	/**
+	 * Advances all of the given bodies by one time step.
+	 * @param bodies the bodies of the simulation (may contain null entries).
+	 * @param deltaT the time step.
+	 */
+	public void step(Body[] bodies, double deltaT);
+
+	/**
+	 * Tells the Integrator that bodies have been added to or removed from the
+	 * simulation, so any state it keeps about them must be rebuilt.
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,73 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * PairList is a growable list of pairs of body indices, stored flat in a
+ * single int array so that filling it allocates nothing once it has grown
+ * to the size it needs.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class PairList
+{
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int[] pairs = new int[2 * INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * Removes all of the pairs.
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+
+	/**
+	 * Adds a pair to the end of the list.
+	 * @param i the first index.
+	 * @param j the second index.
+	 */
+	public void add(int i, int j)
+	{
+		if (2 * size + 2 > pairs.length) {
+			int[] newPairs = new int[2 * pairs.length];
+			System.arraycopy(pairs, 0, newPairs, 0, pairs.length);
+			pairs = newPairs;
+		}
+		pairs[2 * size] = i;
+		pairs[2 * size + 1] = j;
+		size++;
+	}
+
+	/**
+	 * Gets the number of pairs in the list.
+	 * @return the number of pairs.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Gets the first index of a pair.
+	 * @param k the position of the pair in the list.
+	 * @return the first index.
+	 */
+	public int getFirst(int k)
+	{
+		return pairs[2 * k];
+	}
+
+	/**
+	 * Gets the second index of a pair.
+	 * @param k the position of the pair in the list.
+	 * @return the second index.
+	 */
+	public int getSecond(int k)
+	{
+		return pairs[2 * k + 1];
+	}
+
+}
@@ -0,0 +1,200 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.Arrays;
+
+/**
+ * PairSet is a set of unordered pairs of body indices, held in an open
+ * addressing hash table so that pairs can be added and removed in constant
+ * time without boxing. The pairs are also kept packed in a dense array so
+ * they can be listed in time proportional to the number of pairs.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class PairSet
+{
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long EMPTY = -1L;
+
+	/* hash table of keys, and the position of each key in the dense array */
+	private long[] table;
+	private int[] position;
+	private int mask;
+	/* the keys, packed */
+	private long[] dense;
+	private int size = 0;
+
+	/**
+	 * Creates a new, empty PairSet.
+	 */
+	public PairSet()
+	{
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Removes all of the pairs.
+	 */
+	public void clear()
+	{
+		Arrays.fill(table, EMPTY);
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of pairs in the set.
+	 * @return the number of pairs.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Gets the smaller index of a pair.
+	 * @param k the position of the pair, from 0 to size() - 1.
+	 * @return the smaller index.
+	 */
+	public int getFirst(int k)
+	{
+		return (int) (dense[k] >>> 32);
+	}
+
+	/**
+	 * Gets the larger index of a pair.
+	 * @param k the position of the pair, from 0 to size() - 1.
+	 * @return the larger index.
+	 */
+	public int getSecond(int k)
+	{
+		return (int) dense[k];
+	}
+
+	/**
+	 * Adds a pair to the set, if it is not already there.
+	 * @param i one index.
+	 * @param j the other index.
+	 */
+	public void add(int i, int j)
+	{
+		long key = key(i, j);
+		int t = find(key);
+		if (table[t] == key) {
+			return;
+		}
+		if (2 * (size + 1) > table.length) {
+			grow();
+			t = find(key);
+		}
+		table[t] = key;
+		position[t] = size;
+		dense[size++] = key;
+	}
+
+	/**
+	 * Removes a pair from the set, if it is there.
+	 * @param i one index.
+	 * @param j the other index.
+	 */
+	public void remove(int i, int j)
+	{
+		long key = key(i, j);
+		int t = find(key);
+		if (table[t] != key) {
+			return;
+		}
+		/* fill the gap in the dense array with the last key */
+		int p = position[t];
+		long last = dense[--size];
+		if (p != size) {
+			dense[p] = last;
+			position[find(last)] = p;
+		}
+		/* close the gap in the probe sequence by shifting later keys back */
+		int gap = t;
+		int next = (gap + 1) & mask;
+		while (table[next] != EMPTY) {
+			int home = slot(table[next]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				table[gap] = table[next];
+				position[gap] = position[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		table[gap] = EMPTY;
+	}
+
+	/**
+	 * Finds the slot holding a key, or the empty slot where it would go.
+	 * @param key the key.
+	 * @return the slot.
+	 */
+	private int find(long key)
+	{
+		int t = slot(key);
+		while (table[t] != EMPTY && table[t] != key) {
+			t = (t + 1) & mask;
+		}
+		return t;
+	}
+
+	/**
+	 * Gets the first slot to probe for a key.
+	 * @param key the key.
+	 * @return the slot.
+	 */
+	private int slot(long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32) & mask;
+	}
+
+	/**
+	 * Doubles the size of the hash table.
+	 */
+	private void grow()
+	{
+		long[] oldDense = dense;
+		int oldSize = size;
+		allocate(2 * table.length);
+		for (int k = 0; k < oldSize; ++k) {
+			int t = find(oldDense[k]);
+			table[t] = oldDense[k];
+			position[t] = k;
+			dense[k] = oldDense[k];
+		}
+		size = oldSize;
+	}
+
+	/**
+	 * Allocates an empty hash table.
+	 * @param capacity the number of slots, which must be a power of two.
+	 */
+	private void allocate(int capacity)
+	{
+		table = new long[capacity];
+		position = new int[capacity];
+		dense = new long[capacity / 2];
+		mask = capacity - 1;
+		clear();
+	}
+
+	/**
+	 * Packs a pair into a key, smaller index first.
+	 * @param i one index.
+	 * @param j the other index.
+	 * @return the key.
+	 */
+	private static long key(int i, int j)
+	{
+		if (i > j) {
+			int swap = i;
+			i = j;
+			j = swap;
+		}
+		return ((long) i << 32) | j;
+	}
+
+}
@@ -0,0 +1,1409 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.lang.Math;
+
+import uk.co.mrrobinsmith.planetsim.base.*;
+/**
+ * PlanetSim runs a simulation of planets orbiting a central Star. It needs
+ * no GUI: a batch job sets the parameters with setParameter(), calls
+ * createBodies() and then step() as many times as it likes, reading the
+ * state of the simulation from getBodies() and getDataParams() in between.
+ * A SimView, such as the Swing GUI, may be given to show the bodies, and
+ * start() steps the simulation on its worker thread
+ * until it is stopped, running as many steps per frame as its speed asks for and
+ * paced against the wall clock by a FrameScheduler unless it is
+ * unthrottled. While it runs the simulation never draws: it captures the
+ * bodies at the end of each frame into a TripleBuffer, from which the view
+ * takes the latest frame on its own render loop. With a look-ahead the
+ * simulation instead runs up to that many frames ahead of the view,
+ * capturing each into a FrameBuffer, and the view plays them back at its
+ * own steady pace.
+ *
+ * The worker thread is made the first time the simulation is started and
+ * lives as long as the PlanetSim. Its run state moves from IDLE to RUNNING
+ * with start(), between RUNNING and PAUSED with pause() and resume(), and
+ * to STOPPING with stop(), after which the worker finishes the run and goes
+ * back to IDLE. Each change is a single compare-and-set followed by waking
+ * the worker, and the worker parks while the simulation is idle or paused.
+ *
+ * Changes made from other threads, such as adding bodies or adjusting
+ * parameters, are passed to execute() and run by the simulation thread
+ * between two steps, or straight away if the simulation is not running.
+ *
+ * @author Robin Smith
+ * @version 1 (17/11/2010)
+ */
+
+public class PlanetSim implements Executor
+{
+   private static final String[] PLANET_COLS = {"cyan", "yellow", "red",
+                                                 "blue", "white", "pink",
+                                                 "green"};
+   private static final String[] STAR_COLS = {"yellow", "red", "green",
+                                               "blue", "white", "pink",
+                                               "cyan"};
+   private static final String[] ROGUE_COLS = {"green", "yellow", "red",
+                                              "blue", "white", "pink",
+                                              "cyan"};
+   private static final String[] INTEGRATORS = {"Euler", "Hermite",
+                                                "Block Hermite",
+                                                "Wisdom-Holman"};
+   private static final int EULER = 0;
+   private static final int HERMITE = 1;
+   private static final int BLOCK_HERMITE = 2;
+   private static final int WISDOM_HOLMAN = 3;
+   private static final String[] BROAD_PHASES = {"Hash grid",
+                                                 "Sweep and prune"};
+	
+    /* shows the simulation, or null if it is running headless */
+    private SimView view;
+    private Body[] bodies;
+    private Body[] massiveBodies;
+    /* the bodies being integrated, with each regularized pair replaced by a
+     * single composite Body */
+    private Body[] stepBodies;
+    private Body star;
+    private DataAnalyser data;
+    private Random random;
+    private Integrator integrator;
+    private TimeStepController stepController;
+    private Regularizer regularizer;
+    private CollisionDetector collider;
+    private EscapeDetector escapes;
+    private FrameScheduler scheduler;
+    /* frames captured ahead of the view when there is a look-ahead */
+    private FrameBuffer frames;
+    /* the latest frame, when there is no look-ahead */
+    private TripleBuffer latest;
+    /* the part of a step owed by frames at speeds which are not whole */
+    private double stepCredit = 0.0;
+    private BroadPhase[] broadPhases;
+    /* each BroadPhase above, reusing neighbour lists between steps */
+    private VerletListBroadPhase[] verletLists;
+    private static final double DELTA_T = 0.01;
+    /* real time per frame, in nanoseconds */
+    public static final long FRAME_NANOS = 16000000L;
+    /* most frames run back to back to catch up with the wall clock */
+    private static final int MAX_CATCH_UP_FRAMES = 4;
+    /* most steps per frame when there is a view */
+    private static final double MAX_VIEW_SPEED = 1024;
+    /* most frames the simulation may run ahead of the view */
+    private static final int MAX_LOOK_AHEAD = 240;
+    private static final int RANDOM_SEED = 200;
+    
+    /* run states of the simulation */
+    private static final int IDLE = 0;
+    private static final int RUNNING = 1;
+    private static final int PAUSED = 2;
+    private static final int STOPPING = 3;
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    /* the thread which runs the simulation, made when it is first started */
+    private volatile Thread worker = null;
+    /* the worker, while it is running frames */
+    private volatile Thread runner = null;
+    /* notified by the worker each time a run has finished */
+    private final Object idleLock = new Object();
+    /* whether any bodies have been removed since the last compaction */
+    private boolean hasDeadBodies = false;
+    /* commands from other threads, and the bodies they have added since the
+     * commands were last run */
+    private CommandQueue commands = new CommandQueue();
+    private ArrayList<Body> addedBodies = new ArrayList<Body>();
+    /* the parameters as they were at the start of the current step */
+    private volatile SimConfig config;
+    /* holds the values of the parameters and notes when they change */
+    private ParameterRegistry settings;
+    
+    //simulation parameters
+    private BoundIntParameter simWidth;
+    private BoundIntParameter simHeight;
+    private BoundIntParameter nPlanets;
+    private BoundDoubleParameter planSpd;
+    private BoundDoubleParameter planOrb;
+    private BoundDoubleParameter simSpeed;
+    private BooleanParameter unthrottled;
+    private BoundIntParameter lookAhead;
+    private BoundDoubleParameter planMass;
+    private BoundDoubleParameter starMass;
+    private BoundDoubleParameter rogueMass;
+    private BoundDoubleParameter grvConst;
+    private ColorParameter planCol;
+    private ColorParameter starCol;
+    private ColorParameter rogueCol;
+    private BooleanParameter trails;
+    private BooleanParameter antialiasing;
+    private BooleanParameter collisions;
+    private ChoiceParameter integratorType;
+    private BoundDoubleParameter softening;
+    private BoundDoubleParameter stepAccuracy;
+    private BooleanParameter adaptiveStep;
+    private BoundDoubleParameter minTimeStep;
+    private BoundDoubleParameter maxTimeStep;
+    private BooleanParameter testParticles;
+    private BoundDoubleParameter testParticleMass;
+    private BooleanParameter regularization;
+    private BoundDoubleParameter regRadius;
+    private ChoiceParameter broadPhase;
+    private BooleanParameter continuous;
+    private BoundIntParameter collisionThreads;
+    private BooleanParameter neighbourLists;
+    private BoundDoubleParameter neighbourSkin;
+    private BoundIntParameter neighbourInterval;
+    private BooleanParameter escapeDetection;
+    private BoundDoubleParameter escapeDistance;
+	private final int N_PARAMS = 36;
+	private Parameter[] params;
+    
+    /**
+     * Creates a PlanetSim which runs headless, with no view.
+     */
+    public PlanetSim()
+    {
+    	this(null);
+    }
+    
+    /**
+     * Constructor for PlanetSim.
+     * @param view the SimView showing the simulation, or null for none.
+     */
+    public PlanetSim(SimView view)
+    {
+    	this.view = view;
+    	data = new DataAnalyser();
+    	random = new Random(RANDOM_SEED);
+    	stepController = new TimeStepController(this);
+    	regularizer = new Regularizer(this, data);
+    	broadPhases = new BroadPhase[] {new HashGridBroadPhase(),
+    	                                new SweepAndPruneBroadPhase()};
+    	verletLists = new VerletListBroadPhase[broadPhases.length];
+    	for (int k = 0; k < broadPhases.length; ++k) {
+    		verletLists[k] = new VerletListBroadPhase(broadPhases[k], data);
+    	}
+    	collider = new CollisionDetector(this, broadPhases[0], data);
+    	escapes = new EscapeDetector(this, data);
+    	scheduler = new FrameScheduler(MAX_CATCH_UP_FRAMES, data);
+    	scheduler.setPeriod(FRAME_NANOS);
+    	frames = new FrameBuffer(MAX_LOOK_AHEAD);
+    	latest = new TripleBuffer();
+    	
+    	params = new Parameter[N_PARAMS];
+    	int i = 0;
+    	
+    	simWidth = new BoundIntParameter("Simulation width", 800, 200, 2000,
+    	                                 false);
+    	params[i++] = simWidth;
+    	
+    	simHeight = new BoundIntParameter("Simulation height", 600, 200, 2000,
+    	                                  false);
+    	params[i++] = simHeight;
+    	
+    	nPlanets = new BoundIntParameter("Number of planets", 50, 1,
+    	                                 (int) power(10, 6), false);
+    	params[i++] = nPlanets;
+    	
+    	planSpd = new BoundDoubleParameter("Planet speed", 4 * power(10, 3), 0.1,
+    	                                 power(10, 10), false);
+      	params[i++] = planSpd;
+      	
+    	planOrb = new BoundDoubleParameter("Planet orbit", 0.12, 0.0, 1.0, false);
+     	params[i++] = planOrb;
+     	
+    	/* steps per frame, without limit when there is nothing to draw */
+    	simSpeed = new BoundDoubleParameter("Simulation speed", 1.0, 0.125,
+    	                                  (view == null) ? Double.MAX_VALUE
+    	                                                 : MAX_VIEW_SPEED,
+    	                                  true);
+    	params[i++] = simSpeed;
+    	
+    	unthrottled = new BooleanParameter("Run unthrottled", false, true);
+    	params[i++] = unthrottled;
+    	
+    	/* frames run ahead of the view, set before the simulation starts */
+    	lookAhead = new BoundIntParameter("Look-ahead frames", 15, 0,
+    	                                  MAX_LOOK_AHEAD, false);
+    	params[i++] = lookAhead;
+    	
+    	planMass = new BoundDoubleParameter("Planet core mass", 1.0, 0.0,
+    	                                  power(10, 10), true);
+    	params[i++] = planMass;
+    	
+    	starMass = new BoundDoubleParameter("Star core mass", power(10, 6), 0.0,
+    	                                  power(10, 10), true);
+    	params[i++] = starMass;
+    	
+    	rogueMass = new BoundDoubleParameter("Rogue core mass", power(10, 2), 0.0,
+    	                                  power(10, 10), true);
+    	params[i++] = rogueMass;
+    	
+    	grvConst = new BoundDoubleParameter("Gravitational const.", 0.001, 0.0,
+ 	                                     100, true);
+    	params[i++] = grvConst;
+    	
+    	planCol = new ColorParameter("Planet colour", PLANET_COLS, true);
+    	params[i++] = planCol;
+
+    	starCol = new ColorParameter("Star colour", STAR_COLS, true);
+    	params[i++] = starCol;
+    	
+    	rogueCol = new ColorParameter("Rogue colour", ROGUE_COLS, true);
+    	params[i++] = rogueCol;
+    	
+    	trails = new BooleanParameter("Trails on", false, true);
+    	params[i++] = trails;
+    	
+    	antialiasing = new BooleanParameter("Antialiased bodies", false, true);
+    	params[i++] = antialiasing;
+    	
+    	collisions = new BooleanParameter("Body collisions", true, true);
+    	params[i++] = collisions;
+    	
+    	integratorType = new ChoiceParameter("Integrator", INTEGRATORS, false);
+    	params[i++] = integratorType;
+    	
+    	softening = new BoundDoubleParameter("Softening length", 1000.0, 0.0,
+    	                                     power(10, 6), true);
+    	params[i++] = softening;
+    	
+    	stepAccuracy = new BoundDoubleParameter("Time step accuracy", 0.02,
+    	                                        0.0001, 1.0, true);
+    	params[i++] = stepAccuracy;
+    	
+    	adaptiveStep = new BooleanParameter("Adaptive time step", false, true);
+    	params[i++] = adaptiveStep;
+    	
+    	minTimeStep = new BoundDoubleParameter("Min. time step", DELTA_T / 100,
+    	                                       0.0, power(10, 6), true);
+    	params[i++] = minTimeStep;
+    	
+    	maxTimeStep = new BoundDoubleParameter("Max. time step", DELTA_T * 100,
+    	                                       0.0, power(10, 6), true);
+    	params[i++] = maxTimeStep;
+    	
+    	testParticles = new BooleanParameter("Test particles", false, true);
+    	params[i++] = testParticles;
+    	
+    	testParticleMass = new BoundDoubleParameter("Test particle mass", 10.0,
+    	                                            0.0, power(10, 10), true);
+    	params[i++] = testParticleMass;
+    	
+    	regularization = new BooleanParameter("Regularize close pairs", false,
+    	                                      true);
+    	params[i++] = regularization;
+    	
+    	regRadius = new BoundDoubleParameter("Regularization radius", 5000.0,
+    	                                     0.0, power(10, 6), true);
+    	params[i++] = regRadius;
+    	
+    	broadPhase = new ChoiceParameter("Collision detection", BROAD_PHASES,
+    	                                 true);
+    	params[i++] = broadPhase;
+    	
+    	continuous = new BooleanParameter("Continuous collisions", false, true);
+    	params[i++] = continuous;
+    	
+    	collisionThreads = new BoundIntParameter("Collision threads", 1, 1, 64,
+    	                                         true);
+    	params[i++] = collisionThreads;
+    	
+    	neighbourLists = new BooleanParameter("Neighbour lists", false, true);
+    	params[i++] = neighbourLists;
+    	
+    	neighbourSkin = new BoundDoubleParameter("Neighbour list skin", 1000.0,
+    	                                         0.0, power(10, 6), true);
+    	params[i++] = neighbourSkin;
+    	
+    	neighbourInterval = new BoundIntParameter("Max. steps per list", 0, 0,
+    	                                          10000, true);
+    	params[i++] = neighbourInterval;
+    	
+    	escapeDetection = new BooleanParameter("Retire escaped bodies", true,
+    	                                       true);
+    	params[i++] = escapeDetection;
+    	
+    	escapeDistance = new BoundDoubleParameter("Escape distance",
+    	                                          2 * power(10, 6), 0.0,
+    	                                          power(10, 9), true);
+    	params[i++] = escapeDistance;
+    	
+    	settings = new ParameterRegistry(params);
+    	publishConfig();
+    }
+    
+    /**
+     * Takes a new SimConfig from the current values of the parameters, read
+     * from their slots in the registry, to be used until the next one is
+     * published. Nothing is done if no parameter has changed since the
+     * current SimConfig was taken.
+     */
+    private void publishConfig()
+    {
+    	long version = settings.getVersion();
+    	if (config != null && config.getVersion() == version) {
+    		return;
+    	}
+    	config = new SimConfig.Builder(version)
+    	         .width(intSetting(simWidth))
+    	         .height(intSetting(simHeight))
+    	         .simSpeed(doubleSetting(simSpeed))
+    	         .unthrottled(booleanSetting(unthrottled))
+    	         .lookAhead(intSetting(lookAhead))
+    	         .gravConst(doubleSetting(grvConst))
+    	         .softening(doubleSetting(softening))
+    	         .trails(booleanSetting(trails))
+    	         .antialiased(booleanSetting(antialiasing))
+    	         .collisions(booleanSetting(collisions))
+    	         .timeStepAccuracy(doubleSetting(stepAccuracy))
+    	         .adaptiveStep(booleanSetting(adaptiveStep))
+    	         .minTimeStep(doubleSetting(minTimeStep))
+    	         .maxTimeStep(doubleSetting(maxTimeStep))
+    	         .testParticles(booleanSetting(testParticles))
+    	         .testParticleMass(doubleSetting(testParticleMass))
+    	         .regularization(booleanSetting(regularization))
+    	         .regularizationRadius(doubleSetting(regRadius))
+    	         .broadPhase(intSetting(broadPhase))
+    	         .continuous(booleanSetting(continuous))
+    	         .collisionThreads(intSetting(collisionThreads))
+    	         .neighbourLists(booleanSetting(neighbourLists))
+    	         .neighbourSkin(doubleSetting(neighbourSkin))
+    	         .neighbourInterval(intSetting(neighbourInterval))
+    	         .escapeDetection(booleanSetting(escapeDetection))
+    	         .escapeDistance(doubleSetting(escapeDistance))
+    	         .massParams(new DoubleParameter[] {planMass, starMass,
+    	                                            rogueMass})
+    	         .colorParams(new ColorParameter[] {planCol, starCol,
+    	                                            rogueCol})
+    	         .build();
+    }
+    
+    /**
+     * Reads the value of an int parameter from its slot in the registry of
+     * setup parameters.
+     * @param param the Parameter.
+     * @return the value.
+     */
+    private int intSetting(IntParameter param)
+    {
+    	return settings.getInt(param.getSlot());
+    }
+    
+    /**
+     * Reads the index of the choice of a choice parameter from its slot in
+     * the registry of setup parameters.
+     * @param param the Parameter.
+     * @return the index of the choice.
+     */
+    private int intSetting(ChoiceParameter param)
+    {
+    	return settings.getInt(param.getSlot());
+    }
+    
+    /**
+     * Reads the value of a double parameter from its slot in the registry of
+     * setup parameters.
+     * @param param the Parameter.
+     * @return the value.
+     */
+    private double doubleSetting(DoubleParameter param)
+    {
+    	return settings.getDouble(param.getSlot());
+    }
+    
+    /**
+     * Reads the value of a boolean parameter from its slot in the registry of
+     * setup parameters.
+     * @param param the Parameter.
+     * @return the value.
+     */
+    private boolean booleanSetting(BooleanParameter param)
+    {
+    	return settings.getBoolean(param.getSlot());
+    }
+    
+    /**
+     * Gets the parameters as they were at the start of the current step.
+     * @return the SimConfig.
+     */
+    public SimConfig getConfig()
+    {
+    	return config;
+    }
+    
+    /**
+     * Gets the array of setup Parameters for the simulation.
+     * @return an array of type Parameter.
+     */
+    public Parameter[] getSetupParams()
+    {
+    	return params;
+    }
+    
+    /**
+     * Gets the setup Parameter with the given name, ignoring case.
+     * @param name the name of the Parameter, as shown in the setup panel.
+     * @return the Parameter.
+     * @throws IllegalArgumentException if there is no Parameter of that name.
+     */
+    public Parameter getParameter(String name)
+    {
+    	for (Parameter param : params) {
+    		if (param.getName().equalsIgnoreCase(name.trim())) {
+    			return param;
+    		}
+    	}
+    	throw new IllegalArgumentException("Unknown parameter: " + name);
+    }
+    
+    /**
+     * Sets the value of a setup Parameter from a String, as the setup panel
+     * does. The change is made between two steps.
+     * @param name the name of the Parameter.
+     * @param value the new value.
+     * @throws IllegalArgumentException if there is no Parameter of that name
+     * or the value cannot be read.
+     */
+    public void setParameter(String name, final String value)
+    {
+    	final Parameter param = getParameter(name);
+    	execute(new Runnable() {
+    		public void run()
+    		{
+    			param.setValue(value);
+    		}
+    	});
+    }
+    
+    /**
+     * Gets the dynamic data parameters of the simulation.
+     * @return an array of type Parameter.
+     */
+    public Parameter[] getDataParams()
+    {
+    	return data.getParams();
+    }
+    
+    /**
+     * Gets the ParameterRegistry holding the setup parameters, whose listeners
+     * are told of the changes made to them by each batch of commands.
+     * @return the ParameterRegistry.
+     */
+    public ParameterRegistry getSettings()
+    {
+    	return settings;
+    }
+    
+    /**
+     * Gets the ParameterRegistry holding the data parameters, whose listeners
+     * are told of the changes to them once per step.
+     * @return the ParameterRegistry.
+     */
+    public ParameterRegistry getDataRegistry()
+    {
+    	return data.getRegistry();
+    }
+    
+    /**
+     * 
+     * @return the width of the simulation space
+     */
+    public int getWidth()
+    {
+    	return simWidth.getValue();
+    }
+    
+    /**
+     * 
+     * @return the height of the simulation space
+     */
+    public int getHeight()
+    {
+    	return simHeight.getValue();
+    }
+    
+    /**
+     * Gets all the bodies in this simulation.
+     * @return an array of Body.
+     */
+    public Body[] getBodies()
+    {
+    	return bodies;
+    }
+    
+    /**
+     * Gets the bodies which are sources of gravity. When test particles are
+     * on these are the bodies at least as heavy as the test particle mass,
+     * otherwise they are all the bodies being integrated. Regularized pairs
+     * appear as their composite bodies.
+     * @return an array of Body, which may contain null or dead entries.
+     */
+    public Body[] getMassiveBodies()
+    {
+    	if (config.isTestParticlesOn()) {
+    		return massiveBodies;
+    	}
+    	return stepBodies;
+    }
+    
+    /**
+     * Gets the final states of the bodies which have escaped from the
+     * simulation since it was started.
+     * @return an unmodifiable list of EscapedBody.
+     */
+    public List<EscapedBody> getEscapedBodies()
+    {
+    	return escapes.getArchive();
+    }
+    
+    /**
+     * Gets the central star of the simulation.
+     * @return the star.
+     */
+    public Body getStar()
+    {
+    	return star;
+    }
+    
+    /**
+     * Returns a boolean value to indicate whether or not the simulation is
+     * currently running.
+     * @return true or false.
+     */
+    public boolean isRunning()
+    {
+    	int current = state.get();
+    	return current == RUNNING || current == PAUSED;
+    }
+    
+    /**
+     * Checks whether the simulation is paused.
+     * @return true or false.
+     */
+    public boolean isPaused()
+    {
+    	return state.get() == PAUSED;
+    }
+    
+    /**
+     * Checks whether 'trails' are currently on or off in this PlanetSim.
+     * @return true or false.
+     */
+    public boolean trailsOn()
+    {
+    	return config.isTrailsOn();
+    }
+    
+    /**
+     * Checks whether 'collisions' are currently on or off in this PlanetSim.
+     * @return true or false.
+     */
+    public boolean collisionsOn()
+    {
+    	return config.isCollisionsOn();
+    }
+    
+    /**
+     * Gets the current value of the gravitational constant.
+     * @return the gravitational constant.
+     */
+    public double getGravConst()
+    {
+    	return config.getGravConst();
+    }
+    
+    /**
+     * Gets the current softening length, which limits the force between two
+     * bodies at very small separations for the Hermite integrator.
+     * @return the softening length.
+     */
+    public double getSoftening()
+    {
+    	return config.getSoftening();
+    }
+    
+    /**
+     * Gets the accuracy parameter used to choose the time step of each body
+     * for the block time step integrator, and the global time step when it
+     * is adaptive. Smaller values give shorter steps.
+     * @return the accuracy parameter.
+     */
+    public double getTimeStepAccuracy()
+    {
+    	return config.getTimeStepAccuracy();
+    }
+    
+    /**
+     * Gets the shortest time step the adaptive time step may take.
+     * @return the minimum time step.
+     */
+    public double getMinTimeStep()
+    {
+    	return config.getMinTimeStep();
+    }
+    
+    /**
+     * Gets the longest time step the adaptive time step may take.
+     * @return the maximum time step.
+     */
+    public double getMaxTimeStep()
+    {
+    	return config.getMaxTimeStep();
+    }
+    
+    /**
+     * Gets the separation below which a bound pair of bodies may be
+     * regularized.
+     * @return the regularization radius.
+     */
+    public double getRegularizationRadius()
+    {
+    	return config.getRegularizationRadius();
+    }
+    
+    /**
+     * Gets the time which has been simulated since the data was last reset.
+     * @return the simulated time.
+     */
+    public double getSimTime()
+    {
+    	return data.getSimTime();
+    }
+    
+    /**
+     * Creates the planets for the simulation. Only to be called while the
+     * simulation is stopped, and while nothing is playing its Frames.
+     */
+    public void createBodies()
+    {
+    	checkIdle();
+    	publishConfig();
+    	integrator = createIntegrator();
+    	regularizer.reset();
+    	escapes.reset();
+    	hasDeadBodies = false;
+    	
+    	int n = nPlanets.getValue();
+        bodies = new Body[n + 1];
+        
+        int xBound = (int) (simWidth.getValue() * Body.SCALE_FACTOR);
+        int yBound = (int) (simHeight.getValue() * Body.SCALE_FACTOR);
+        
+        double r = planOrb.getValue() * xBound;
+        double xStar = (xBound / 2.0);
+        double yStar = (yBound / 2.0);
+        
+        star = new Body(xStar, yStar, 0.0, 0.0, starMass, starCol, data, this);
+        bodies[0] = star;
+        
+        double w;
+        r = (planOrb.getValue() + 0.001 * random.nextInt(100)) * xBound;
+        double x;
+        double y;
+        double speed = orbitSpeed(r);
+        double xVel;
+        double yVel;
+        for (int i = 0; i < n ; ++i) {
+        	w = i * 2 * Math.PI / (double) n;
+        	x = xStar + r * Math.sin(w);
+        	y = yStar + r * Math.cos(w) * -1;
+        	
+        	xVel = speed * Math.cos(w);
+        	yVel = speed * Math.sin(w);
+        	
+        	bodies[i + 1] = new Body(x, y, xVel, yVel, planMass, planCol, data,
+        	                         this);
+        }
+        stepBodies = bodies;
+        frames.clear();
+        latest.clear();
+    }
+    
+    /**
+     * Updates the size and screen bounds of all the bodies in the simulation
+     * and shows them on the view, if there is one.
+     */
+    public void drawBodies()
+    {
+    	updateBounds();
+    	if (view != null) {
+    		view.drawBodies(bodies);
+    	}
+    }
+    
+    /**
+     * Updates the size and screen bounds of all the bodies in the simulation.
+     */
+    private void updateBounds()
+    {
+    	for (Body body : bodies) {
+    		if (body != null) {
+    			body.updateBounds();
+    		}
+    	}
+    }
+    
+    /**
+     * Gets the FrameBuffer which the simulation fills ahead of the view when
+     * it has a look-ahead. The view is its only consumer.
+     * @return the FrameBuffer.
+     */
+    public FrameBuffer getFrameBuffer()
+    {
+    	return frames;
+    }
+    
+    /**
+     * Gets the TripleBuffer into which the simulation publishes its latest
+     * frame while it runs with no look-ahead. The view is its only consumer.
+     * @return the TripleBuffer.
+     */
+    public TripleBuffer getLatestFrames()
+    {
+    	return latest;
+    }
+    
+    /**
+     * Erases all the bodies in the simulation from the view, unless trails
+     * are on.
+     */
+    public void eraseBodies()
+    {
+    	if (view != null && !config.isTrailsOn()) {
+    		view.eraseBodies(bodies);
+    	}
+    }
+    
+    /**
+     * Removes the given Body from the simulation. The Body is marked as dead
+     * straight away, and is taken out of the array of bodies along with any
+     * others removed during the same step when the step ends.
+     * @param body the Body to be removed.
+     */
+    public void removeBody(Body deadBody)
+    {
+    	deadBody.setDead(true);
+    	hasDeadBodies = true;
+    }
+    
+    /**
+     * Takes the bodies which have been removed during the step out of the
+     * array of bodies, moving the remaining bodies down in a single pass.
+     */
+    private void compactBodies()
+    {
+    	if (!hasDeadBodies) {
+    		return;
+    	}
+    	int n = 0;
+    	for (int i = 0; i < bodies.length; ++i) {
+    		Body body = bodies[i];
+    		if (body != null && body.isDead()) {
+    			if (body.isOffScreen()) {
+    				data.decBodiesOffScreen();
+    			}
+    			else {
+    				data.decBodiesOnScreen();
+    			}
+    			if (!body.isEscaped() && !body.isRemoved()) {
+    				data.incMergedBodies();
+    			}
+    		}
+    		else if (body != null) {
+    			bodies[n++] = body;
+    		}
+    	}
+    	Body[] newBodies = new Body[n];
+    	System.arraycopy(bodies, 0, newBodies, 0, n);
+    	bodies = newBodies;
+    	hasDeadBodies = false;
+    	integrator.reset();
+    }
+    
+    /**
+     * Runs a command which changes the simulation between two steps. If the
+     * simulation thread is not running the command is run straight away on
+     * the calling thread. This may be called from any thread.
+     * @param command the command.
+     */
+    public void execute(Runnable command)
+    {
+    	commands.add(command);
+    	flushCommands();
+    }
+    
+    /**
+     * Runs the queued commands if no other thread is running them, i.e. if
+     * the simulation thread is not running.
+     */
+    private void flushCommands()
+    {
+    	if (commands.tryAcquire()) {
+    		try {
+    			runCommands();
+    		}
+    		finally {
+    			commands.release();
+    		}
+    	}
+    }
+    
+    /**
+     * Introduces a rogue planet to the simulation to make it more interesting.
+     */
+    public void addRogue()
+    {
+    	execute(new Runnable() {
+    		public void run()
+    		{
+    			addedBodies.add(createRogue());
+    		}
+    	});
+    }
+    
+    /**
+     * Adds a number of bodies to the simulation at the next step boundary.
+     * However many bodies are added, the array of bodies is copied once.
+     * @param newBodies the bodies to add.
+     */
+    public void addBodies(final Body[] newBodies)
+    {
+    	execute(new Runnable() {
+    		public void run()
+    		{
+    			addedBodies.addAll(Arrays.asList(newBodies));
+    		}
+    	});
+    }
+    
+    /**
+     * Takes the given Body out of the simulation at the next step boundary.
+     * The Body is marked as removed, so it is not counted as merged.
+     * @param body the Body to be removed.
+     */
+    public void deleteBody(final Body body)
+    {
+    	execute(new Runnable() {
+    		public void run()
+    		{
+    			body.setRemoved(true);
+    			removeBody(body);
+    		}
+    	});
+    }
+    
+    /**
+     * Runs the queued commands, then takes out the bodies they removed and
+     * adds the bodies they added, copying the array of bodies at most twice.
+     * Only the consumer of the command queue may call this.
+     */
+    private void runCommands()
+    {
+    	if (commands.drain() == 0) {
+    		return;
+    	}
+    	settings.fireChanges();
+    	compactBodies();
+    	if (!addedBodies.isEmpty()) {
+    		Body[] newBodies = new Body[bodies.length + addedBodies.size()];
+    		System.arraycopy(bodies, 0, newBodies, 0, bodies.length);
+    		for (int i = 0; i < addedBodies.size(); ++i) {
+    			newBodies[bodies.length + i] = addedBodies.get(i);
+    		}
+    		bodies = newBodies;
+    		stepBodies = bodies;
+    		addedBodies.clear();
+    		integrator.reset();
+    	}
+    }
+    
+    /**
+     * Creates a rogue planet on a random path through the planets' orbit.
+     * @return the rogue planet.
+     */
+    private Body createRogue()
+    {
+        double r = planOrb.getValue() * simWidth.getValue()
+        							  * Body.SCALE_FACTOR * 2.0;
+        double speed = orbitSpeed(r);
+        
+    	double w =  0.01 * random.nextInt(200) * Math.PI;
+    	double x = star.getXPos() + r * Math.sin(w);
+    	double y = star.getYPos() + r * Math.cos(w) * - 1;
+    	double xVel = 0.01 * random.nextInt(100) * speed * Math.cos(w);
+    	double yVel = 0.01 * random.nextInt(100) * speed * Math.sin(w * -1);
+        
+        return new Body(x, y, xVel, yVel, rogueMass, rogueCol, data, this);
+    }
+         
+    /**
+     * Gets the speed at which a planet starts at a given distance from the
+     * star. The Euler integrator keeps the original pull of constant
+     * magnitude which the 'Planet speed' parameter was chosen for, so it
+     * uses that speed. The other integrators use the softened inverse-square
+     * law, under which a planet at that speed would escape, so they use the
+     * speed of a circular orbit about the star instead.
+     * @param r the distance from the star.
+     * @return the speed.
+     */
+    private double orbitSpeed(double r)
+    {
+    	if (integrator instanceof EulerIntegrator) {
+    		return planSpd.getValue();
+    	}
+    	double softening = config.getSoftening();
+    	double s2 = r * r + softening * softening;
+    	return Math.sqrt(config.getGravConst() * star.getMass() * r * r
+    	                 / (s2 * Math.sqrt(s2)));
+    }
+    
+    /**
+     * Calculates n to the power of m.
+     * @param n argument to the function.
+     * @param m exponent to raise n to.
+     * @return m to the power of n.
+     */
+    private double power(double n, int m)
+    {
+    	int result = 1;
+    	for (int i = 0; i < m; ++i) {
+    		result *= n;
+    	}
+    	return result;
+    }
+    
+    /**
+     * Creates the Integrator chosen by the 'Integrator' parameter.
+     * @return the Integrator.
+     */
+    private Integrator createIntegrator()
+    {
+    	if (integratorType.getIndex() == BLOCK_HERMITE) {
+    		data.setTimeStepLevels(BlockHermiteIntegrator.N_LEVELS);
+    	}
+    	else {
+    		data.setTimeStepLevels(0);
+    	}
+    	switch (integratorType.getIndex()) {
+    		case BLOCK_HERMITE:
+    			return new BlockHermiteIntegrator(this, data);
+    		case WISDOM_HOLMAN:
+    			return new WisdomHolmanIntegrator(this, data);
+    		case HERMITE:
+    			return new HermiteIntegrator(this);
+    		case EULER:
+    		default:
+    			return new EulerIntegrator();
+    	}
+    }
+    
+    /**
+     * Starts the simulation running on its worker thread, making the thread
+     * if this is the first run. Nothing is done unless the simulation is
+     * idle.
+     * @return true if the simulation was started.
+     */
+    public boolean start()
+    {
+    	if (!state.compareAndSet(IDLE, RUNNING)) {
+    		return false;
+    	}
+    	startWorker();
+    	wakeWorker();
+    	return true;
+    }
+    
+    /**
+     * Stops the simulation, whether it is running or paused, and waits for
+     * the worker to finish the current step and tell the view, so that once
+     * this returns the bodies may be changed and the simulation started
+     * again.
+     */
+    public void stop()
+    {
+    	int current = state.get();
+    	while (current == RUNNING || current == PAUSED) {
+    		if (state.compareAndSet(current, STOPPING)) {
+    			wakeWorker();
+    			break;
+    		}
+    		current = state.get();
+    	}
+    	awaitIdle();
+    }
+    
+    /**
+     * Waits until the worker has finished stopping the simulation, unless it
+     * is the worker itself which is waiting.
+     */
+    private void awaitIdle()
+    {
+    	if (Thread.currentThread() == worker) {
+    		return;
+    	}
+    	boolean isInterrupted = false;
+    	synchronized (idleLock) {
+    		while (state.get() == STOPPING) {
+    			try {
+    				idleLock.wait();
+    			}
+    			catch (InterruptedException e) {
+    				isInterrupted = true;
+    			}
+    		}
+    	}
+    	if (isInterrupted) {
+    		Thread.currentThread().interrupt();
+    	}
+    }
+    
+    /**
+     * Checks that the simulation is stopped, before its bodies or data are
+     * changed from outside the worker.
+     */
+    private void checkIdle()
+    {
+    	if (state.get() != IDLE) {
+    		throw new IllegalStateException("The simulation is not stopped");
+    	}
+    }
+    
+    /**
+     * Pauses the simulation, if it is running.
+     */
+    public void pause() {
+        if (state.compareAndSet(RUNNING, PAUSED)) {
+        	wakeWorker();
+        }
+    }
+    
+    /**
+     * Resumes the simulation, if it is paused.
+     */
+    public void resume()
+    {
+    	if (state.compareAndSet(PAUSED, RUNNING)) {
+    		wakeWorker();
+    	}
+    }
+    
+    /**
+     * Makes the worker thread if it has not been made yet.
+     */
+    private synchronized void startWorker()
+    {
+    	if (worker == null) {
+    		Thread thread = new Thread(new Runnable() {
+    			public void run()
+    			{
+    				work();
+    			}
+    		}, "PlanetSim worker");
+    		thread.setDaemon(true);
+    		worker = thread;
+    		thread.start();
+    	}
+    }
+    
+    /**
+     * Wakes the worker if it is parked, so that it sees a change of run state
+     * straight away.
+     */
+    private void wakeWorker()
+    {
+    	Thread thread = worker;
+    	if (thread != null) {
+    		LockSupport.unpark(thread);
+    	}
+    }
+    
+    /**
+     * The body of the worker thread, which runs frames while the simulation
+     * is running, finishes each run once it is stopped and otherwise parks
+     * until the run state changes.
+     */
+    private void work()
+    {
+    	while (true) {
+    		int current = state.get();
+    		if (current == RUNNING) {
+    			runFrames();
+    		}
+    		else if (current == STOPPING) {
+    			if (view != null) {
+    				view.simFinished();
+    			}
+    			synchronized (idleLock) {
+    				state.compareAndSet(STOPPING, IDLE);
+    				idleLock.notifyAll();
+    			}
+    		}
+    		else {
+    			LockSupport.park(this);
+    		}
+    	}
+    }
+    
+    /**
+     * Resets the BallSim's DataAnalyser. Only to be called while the
+     * simulation is stopped.
+     */
+    public void resetData()
+    {
+    	checkIdle();
+    	data.reset();
+    	data.fireChanges();
+    }
+    
+    /**
+     * Advances the simulation by one step, using the parameters as they were
+     * when the step started.
+     */
+    private void moveBodies()
+    {
+    	publishConfig();
+    	SimConfig config = this.config;
+    	stepBodies = regularizer.update(bodies, config.isRegularizationOn());
+    	if (regularizer.isChanged()) {
+    		integrator.reset();
+    	}
+    	tagBodies();
+    	double deltaT = DELTA_T;
+    	if (config.isAdaptiveStepOn()) {
+    		deltaT = stepController.nextTimeStep(stepBodies);
+    	}
+    	regularizer.beginStep(deltaT);
+    	if (config.isNeighbourListsOn()) {
+    		VerletListBroadPhase lists = verletLists[config.getBroadPhase()];
+    		lists.setSkin(config.getNeighbourSkin());
+    		lists.setMaxInterval(config.getNeighbourInterval());
+    		collider.setBroadPhase(lists);
+    	}
+    	else {
+    		collider.setBroadPhase(broadPhases[config.getBroadPhase()]);
+    	}
+    	collider.setThreads(config.getCollisionThreads());
+    	if (config.isCollisionsOn() && config.isContinuousOn()) {
+    		collider.begin(stepBodies);
+    	}
+    	integrator.step(stepBodies, deltaT);
+    	regularizer.endStep(deltaT);
+    	if (config.isCollisionsOn()) {
+    		collider.resolve(stepBodies, deltaT);
+    	}
+    	if (config.isEscapeDetectionOn()) {
+    		escapes.detect(bodies, stepBodies, regularizer,
+    		               config.getEscapeDistance(), config.getGravConst());
+    	}
+    	compactBodies();
+    	data.incSimTime(deltaT);
+    }
+        
+    /**
+     * Marks each Body being integrated as massive or as a test particle
+     * according to its current mass, so that bodies which grow by merging
+     * become massive.
+     */
+    private void tagBodies()
+    {
+    	boolean isOn = config.isTestParticlesOn();
+    	double threshold = config.getTestParticleMass();
+    	int nMassive = 0;
+    	for (Body body : stepBodies) {
+    		if (body != null && !body.isDead()) {
+    			body.updateMass();
+    			body.setMassive(!isOn || body.getMass() >= threshold);
+    			if (body.isMassive()) {
+    				nMassive++;
+    			}
+    		}
+    	}
+    	if (massiveBodies == null || massiveBodies.length != nMassive) {
+    		massiveBodies = new Body[nMassive];
+    	}
+    	int i = 0;
+    	for (Body body : stepBodies) {
+    		if (body != null && !body.isDead() && body.isMassive()) {
+    			massiveBodies[i++] = body;
+    		}
+    	}
+    	data.setMassiveBodies(nMassive);
+    }
+    
+    /**
+     * Advances the simulation by a number of steps on the calling thread,
+     * running any queued commands before each one. The simulated time per
+     * second is measured over the whole call. The simulation must not be
+     * running on another thread.
+     * @param nSteps the number of steps.
+     */
+    public void step(int nSteps)
+    {
+    	commands.acquire();
+    	try {
+    		data.startThroughput();
+    		advance(nSteps);
+    	}
+    	finally {
+    		commands.release();
+    		flushCommands();
+    	}
+    }
+    
+    /**
+     * Runs a number of steps back to back, running any queued commands before
+     * each one, then shows the bodies on the view and passes on the changes
+     * to the data once at the end. Only the consumer of the command queue may
+     * call this.
+     * @param nSteps the number of steps.
+     */
+    private void advance(int nSteps)
+    {
+    	if (nSteps == 0) {
+    		return;
+    	}
+    	eraseBodies();
+    	runSteps(nSteps);
+    	drawBodies();
+    	data.finishThroughput();
+    	data.fireChanges();
+    }
+    
+    /**
+     * Runs the steps for one frame on the worker, then publishes the bodies
+     * as the latest frame for the view, if there is one, and passes on the
+     * changes to the data.
+     * @param nSteps the number of steps.
+     */
+    private void runFrame(int nSteps)
+    {
+    	if (nSteps == 0) {
+    		return;
+    	}
+    	nSteps = runSteps(nSteps);
+    	updateBounds();
+    	if (view != null) {
+    		latest.getBackFrame().capture(bodies, data.getSimTime(), nSteps);
+    		latest.publish();
+    	}
+    	data.sampleThroughput();
+    	data.fireChanges();
+    }
+    
+    /**
+     * Runs the steps for one frame ahead of the view, capturing the bodies
+     * at the end into the next Frame of the FrameBuffer rather than drawing
+     * them. If the FrameBuffer is full the simulation waits for the view to
+     * play a frame, for at most one frame's time.
+     */
+    private void runAhead()
+    {
+    	frames.setLimit(config.getLookAhead());
+    	Frame frame = frames.claim();
+    	if (frame == null) {
+    		frames.awaitSpace(FRAME_NANOS);
+    		return;
+    	}
+    	/* every frame moves the bodies on, and at speeds below one step per
+    	 * frame the view holds each frame for longer */
+    	int nSteps = stepsFor(1);
+    	if (nSteps == 0) {
+    		nSteps = 1;
+    		stepCredit = 0.0;
+    	}
+    	nSteps = runSteps(nSteps);
+    	if (nSteps == 0) {
+    		return;
+    	}
+    	updateBounds();
+    	frame.capture(bodies, data.getSimTime(), nSteps);
+    	frames.publish();
+    	data.setBufferedFrames(frames.size());
+    	data.sampleThroughput();
+    	data.fireChanges();
+    }
+    
+    /**
+     * Runs a number of steps back to back, running any queued commands before
+     * each one, and stopping early if the simulation is stopped or paused
+     * from another thread while the worker is running the steps.
+     * @param nSteps the number of steps.
+     * @return the number of steps run.
+     */
+    private int runSteps(int nSteps)
+    {
+    	for (int i = 0; i < nSteps; ++i) {
+    		if (runner != null && state.get() != RUNNING) {
+    			return i;
+    		}
+    		runCommands();
+    		moveBodies();
+    	}
+    	return nSteps;
+    }
+    
+    /**
+     * Gets the number of steps to run for a number of frames at the current
+     * speed, carrying over any part of a step to the next frame.
+     * @param nFrames the number of frames.
+     * @return the number of steps.
+     */
+    private int stepsFor(int nFrames)
+    {
+    	stepCredit += nFrames * config.getSimSpeed();
+    	int nSteps = (int) Math.min(stepCredit, Integer.MAX_VALUE);
+    	stepCredit -= nSteps;
+    	return nSteps;
+    }
+    
+    /**
+     * Runs frames on the worker until the simulation is stopped or paused,
+     * being the consumer of the command queue meanwhile so that commands
+     * from other threads are run between two steps. The simulation speed
+     * is the number of steps run for each frame, and the bodies are
+     * published once per frame. Each frame stands for FRAME_NANOS
+     * nanoseconds, and the FrameScheduler runs the frames as they fall due,
+     * catching up on missed ones up to a limit by running their steps as a
+     * single frame.
+     * When unthrottled the frames are run one after another as fast as they
+     * can be. With a view and a look-ahead the frames are instead captured
+     * into the FrameBuffer as fast as the view plays them, up to the
+     * look-ahead in front of it.
+     */
+    private void runFrames()
+    {
+    	runner = Thread.currentThread();
+    	commands.acquire();
+    	try {
+    		boolean isAhead = (view != null && config.getLookAhead() > 0);
+    		if (!isAhead) {
+    			runFrame(1);
+    		}
+    		scheduler.reset();
+    		data.startThroughput();
+    		while (state.get() == RUNNING) {
+    			if (isAhead) {
+    				runAhead();
+    			}
+    			else if (config.isUnthrottledOn()) {
+    				scheduler.reset();
+    				runFrame(stepsFor(1));
+    			}
+    			else {
+    				runFrame(stepsFor(scheduler.nextFrames()));
+    			}
+    		}
+    	}
+    	finally {
+    		runner = null;
+    		commands.release();
+    		/* run any commands added while this thread was releasing */
+    		flushCommands();
+    	}
+    }
+
+}
@@ -0,0 +1,179 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import uk.co.mrrobinsmith.planetsim.base.*;
+
+/**
+ * PlanetSimCLI runs a PlanetSim from the command line with no GUI, so that
+ * it can be used for batch jobs on machines without a display. It never
+ * loads AWT. The parameters are the ones shown in the setup panel, given as
+ * name=value with the name in any case and with '-' or '_' for each space.
+ * The value of a choice may be written the same way, and a boolean must be
+ * true or false. A value which cannot be read stops the run with an error,
+ * e.g.
+ *
+ *     java -jar planetsim-core.jar --steps=10000 number-of-planets=50
+ *
+ * The options are:
+ *     --steps=N   the number of steps to run, 1000 by default.
+ *     --report=N  print the data every N steps as well as at the end.
+ *     --bodies    print the final position, velocity and mass of each Body.
+ *     --list      print the parameters and their values, then stop.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class PlanetSimCLI
+{
+	private static final int DEFAULT_STEPS = 1000;
+	private static final int NAME_WIDTH = 24;
+
+	/**
+	 * Runs the simulation.
+	 * @param args the options and parameters.
+	 */
+	public static void main(String[] args)
+	{
+		PlanetSim sim = new PlanetSim();
+		int nSteps = DEFAULT_STEPS;
+		int report = 0;
+		boolean isBodies = false;
+		boolean isList = false;
+		try {
+			for (String arg : args) {
+				if (arg.startsWith("--steps=")) {
+					nSteps = Integer.parseInt(optionValue(arg));
+				}
+				else if (arg.startsWith("--report=")) {
+					report = Integer.parseInt(optionValue(arg));
+				}
+				else if (arg.equals("--bodies")) {
+					isBodies = true;
+				}
+				else if (arg.equals("--list")) {
+					isList = true;
+				}
+				else if (!arg.startsWith("--") && arg.indexOf('=') > 0) {
+					int split = arg.indexOf('=');
+					String name = arg.substring(0, split).replace('-', ' ')
+					                 .replace('_', ' ');
+					setValue(sim.getParameter(name),
+					         arg.substring(split + 1));
+				}
+				else {
+					throw new IllegalArgumentException("Unknown option: "
+					                                   + arg);
+				}
+			}
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: PlanetSimCLI [--steps=N] [--report=N]"
+			                   + " [--bodies] [--list] [name=value ...]");
+			System.exit(1);
+		}
+
+		if (isList) {
+			print(sim.getSetupParams());
+			return;
+		}
+		sim.createBodies();
+		int done = 0;
+		while (done < nSteps) {
+			int batch = nSteps - done;
+			if (report > 0) {
+				batch = Math.min(batch, report);
+			}
+			sim.step(batch);
+			done += batch;
+			if (report > 0 && done < nSteps) {
+				System.out.println("Step " + done);
+				print(sim.getDataParams());
+			}
+		}
+		System.out.println("Step " + done);
+		print(sim.getDataParams());
+		if (isBodies) {
+			printBodies(sim.getBodies());
+		}
+	}
+
+	/**
+	 * Sets the value of a Parameter from the command line. A choice is
+	 * matched in any case and with '-' or '_' for each space, and a boolean
+	 * must be true or false.
+	 * @param param the Parameter.
+	 * @param value the value.
+	 * @throws IllegalArgumentException if the value cannot be read.
+	 */
+	private static void setValue(Parameter param, String value)
+	{
+		String s = value.trim();
+		if (param.getType() == Parameter.CHOICE) {
+			for (String choice : ((ChoiceParameter) param).getChoices()) {
+				if (spaced(choice).equalsIgnoreCase(spaced(s))) {
+					s = choice;
+					break;
+				}
+			}
+		}
+		else if (param.getType() == Parameter.BOOLEAN
+		         && !s.equalsIgnoreCase("true")
+		         && !s.equalsIgnoreCase("false")) {
+			throw new IllegalArgumentException("Not true or false for "
+			                                   + param.getName() + ": "
+			                                   + value);
+		}
+		param.setValue(s);
+	}
+
+	/**
+	 * Replaces each '-' or '_' in a String with a space.
+	 * @param s the String.
+	 * @return the String with spaces.
+	 */
+	private static String spaced(String s)
+	{
+		return s.replace('-', ' ').replace('_', ' ');
+	}
+
+	/**
+	 * Gets the value of an option of the form --name=value.
+	 * @param arg the option.
+	 * @return the value.
+	 */
+	private static String optionValue(String arg)
+	{
+		return arg.substring(arg.indexOf('=') + 1);
+	}
+
+	/**
+	 * Prints the name and value of each of a set of Parameters, one to a
+	 * line.
+	 * @param params the Parameters.
+	 */
+	private static void print(Parameter[] params)
+	{
+		for (Parameter param : params) {
+			System.out.println(Formatter.leftJustify(param.getName(),
+			                                         NAME_WIDTH)
+			                   + param.getValueString());
+		}
+	}
+
+	/**
+	 * Prints the position, velocity and mass of each Body, one to a line.
+	 * @param bodies the bodies.
+	 */
+	private static void printBodies(Body[] bodies)
+	{
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				System.out.println(body.getXPos() + " " + body.getYPos() + " "
+				                   + body.getXVel() + " " + body.getYVel()
+				                   + " " + body.getMass());
+			}
+		}
+	}
+
+}
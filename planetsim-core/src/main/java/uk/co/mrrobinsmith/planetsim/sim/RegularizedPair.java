@@ -0,0 +1,356 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import uk.co.mrrobinsmith.planetsim.base.DoubleParameter;
+
+/**
+ * RegularizedPair holds a close bound pair of bodies. The pair is integrated
+ * as a single composite Body at its centre of mass, while the motion of the
+ * two bodies relative to each other is advanced separately using the
+ * Levi-Civita transformation, the planar form of Kustaanheimo-Stiefel
+ * regularization.
+ *
+ * Writing the separation as the square of a complex number u, and measuring
+ * time with a fictitious time s where dt = r ds, turns the Kepler problem
+ * into a harmonic oscillator in u whose frequency depends only on the
+ * binding energy of the pair. The oscillator is solved exactly, and the
+ * physical time it covers is a simple closed form which is inverted for s,
+ * so the cost of a step does not depend on how eccentric or tight the pair
+ * is. The pull of the other bodies is added to the relative motion as kicks.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class RegularizedPair
+{
+	private static final int MAX_ITERATIONS = 50;
+	private static final double TOLERANCE = 1e-14;
+
+	private Body primary;
+	private Body secondary;
+	private Body composite;
+	private DoubleParameter totalMass;
+
+	/* position and velocity of the secondary relative to the primary */
+	private double xRel;
+	private double yRel;
+	private double xVelRel;
+	private double yVelRel;
+
+	/* ratio of the tidal pull of the other bodies to the pull of the pair */
+	private double perturbation = 0.0;
+
+	/**
+	 * Creates a new RegularizedPair from two bodies. The heavier of the two
+	 * becomes the primary.
+	 * @param body1 the first Body.
+	 * @param body2 the second Body.
+	 */
+	public RegularizedPair(Body body1, Body body2)
+	{
+		if (body2.getMass() > body1.getMass()) {
+			primary = body2;
+			secondary = body1;
+		}
+		else {
+			primary = body1;
+			secondary = body2;
+		}
+		totalMass = new DoubleParameter("Pair mass",
+		                                primary.getMass() + secondary.getMass(),
+		                                false);
+		composite = Body.createComposite(primary, secondary, totalMass);
+		xRel = secondary.getXPos() - primary.getXPos();
+		yRel = secondary.getYPos() - primary.getYPos();
+		xVelRel = secondary.getXVel() - primary.getXVel();
+		yVelRel = secondary.getYVel() - primary.getYVel();
+	}
+
+	/**
+	 * Gets the heavier Body of the pair.
+	 * @return the primary.
+	 */
+	public Body getPrimary()
+	{
+		return primary;
+	}
+
+	/**
+	 * Gets the lighter Body of the pair.
+	 * @return the secondary.
+	 */
+	public Body getSecondary()
+	{
+		return secondary;
+	}
+
+	/**
+	 * Gets the Body which stands in for the pair while it is integrated.
+	 * @return the composite Body.
+	 */
+	public Body getComposite()
+	{
+		return composite;
+	}
+
+	/**
+	 * Gets the mass of the pair when it was last updated, which differs from
+	 * the mass of the composite Body if that has merged with another Body.
+	 * @return the total mass.
+	 */
+	public double getTotalMass()
+	{
+		return totalMass.getValue();
+	}
+
+	/**
+	 * Gets the distance between the two bodies.
+	 * @return the separation.
+	 */
+	public double getSeparation()
+	{
+		return Math.sqrt(xRel * xRel + yRel * yRel);
+	}
+
+	/**
+	 * Gets the orbital energy of the pair per unit reduced mass, which is
+	 * negative while the pair is bound.
+	 * @param G the gravitational constant.
+	 * @return the energy.
+	 */
+	public double getEnergy(double G)
+	{
+		return energy(xRel, yRel, xVelRel, yVelRel, G * getTotalMass());
+	}
+
+	/**
+	 * Gets the closest approach of the two bodies on their current orbit.
+	 * @param G the gravitational constant.
+	 * @return the pericentre distance.
+	 */
+	public double getPericentre(double G)
+	{
+		return pericentre(xRel, yRel, xVelRel, yVelRel, G * getTotalMass());
+	}
+
+	/**
+	 * Gets the ratio of the tidal acceleration from the other bodies to the
+	 * acceleration between the pair, as found by the last kick.
+	 * @return the perturbation.
+	 */
+	public double getPerturbation()
+	{
+		return perturbation;
+	}
+
+	/**
+	 * Sets the total mass of the pair from the current masses of its bodies,
+	 * which may have changed while the simulation is running.
+	 */
+	public void updateMass()
+	{
+		primary.updateMass();
+		secondary.updateMass();
+		totalMass.setValue(primary.getMass() + secondary.getMass());
+		composite.updateMass();
+	}
+
+	/**
+	 * Places the two bodies about the current centre of mass of the composite
+	 * Body according to their relative position and velocity.
+	 */
+	public void store()
+	{
+		double m1 = primary.getMass();
+		double m2 = secondary.getMass();
+		double f1 = m2 / (m1 + m2);
+		double f2 = m1 / (m1 + m2);
+		primary.setXPos(composite.getXPos() - f1 * xRel);
+		primary.setYPos(composite.getYPos() - f1 * yRel);
+		primary.setXVel(composite.getXVel() - f1 * xVelRel);
+		primary.setYVel(composite.getYVel() - f1 * yVelRel);
+		secondary.setXPos(composite.getXPos() + f2 * xRel);
+		secondary.setYPos(composite.getYPos() + f2 * yRel);
+		secondary.setXVel(composite.getXVel() + f2 * xVelRel);
+		secondary.setYVel(composite.getYVel() + f2 * yVelRel);
+	}
+
+	/**
+	 * Changes the relative velocity of the pair by the difference between the
+	 * external accelerations of the two bodies.
+	 * @param xAcc x-acceleration of the secondary minus that of the primary.
+	 * @param yAcc y-acceleration of the secondary minus that of the primary.
+	 * @param deltaT the length of the kick.
+	 * @param G the gravitational constant.
+	 */
+	public void kick(double xAcc, double yAcc, double deltaT, double G)
+	{
+		xVelRel += xAcc * deltaT;
+		yVelRel += yAcc * deltaT;
+		double r2 = xRel * xRel + yRel * yRel;
+		perturbation = Math.sqrt(xAcc * xAcc + yAcc * yAcc) * r2
+		               / (G * getTotalMass());
+	}
+
+	/**
+	 * Advances the relative motion of the pair by a time deltaT along its
+	 * Kepler orbit. If the pair is no longer bound its bodies are moved in a
+	 * straight line instead.
+	 * @param deltaT the time step.
+	 * @param G the gravitational constant.
+	 * @return true if the pair was bound, or false if it was not.
+	 */
+	public boolean drift(double deltaT, double G)
+	{
+		double mu = G * getTotalMass();
+		double r0 = Math.sqrt(xRel * xRel + yRel * yRel);
+		double h = energy(xRel, yRel, xVelRel, yVelRel, mu);
+		if (r0 == 0.0 || !(h < 0.0)) {
+			xRel += xVelRel * deltaT;
+			yRel += yVelRel * deltaT;
+			return false;
+		}
+
+		/* u0 = sqrt(z0), taking whichever root loses no precision */
+		double ux;
+		double uy;
+		if (xRel >= 0.0) {
+			ux = Math.sqrt((r0 + xRel) / 2.0);
+			uy = yRel / (2.0 * ux);
+		}
+		else {
+			uy = Math.sqrt((r0 - xRel) / 2.0);
+			if (yRel < 0.0) {
+				uy = -uy;
+			}
+			ux = yRel / (2.0 * uy);
+		}
+
+		/* u(s) = u0 cos(ws) + b sin(ws), where b = conj(u0) v0 / 2w */
+		double omega = Math.sqrt(-h / 2.0);
+		double bx = (ux * xVelRel + uy * yVelRel) / (2.0 * omega);
+		double by = (ux * yVelRel - uy * xVelRel) / (2.0 * omega);
+
+		double s = solveTime(deltaT, omega, ux * ux + uy * uy,
+		                     bx * bx + by * by, ux * bx + uy * by);
+
+		double c = Math.cos(omega * s);
+		double sn = Math.sin(omega * s);
+		double uxs = ux * c + bx * sn;
+		double uys = uy * c + by * sn;
+		double duxs = omega * (bx * c - ux * sn);
+		double duys = omega * (by * c - uy * sn);
+		double r = uxs * uxs + uys * uys;
+
+		/* z = u^2 and dz/dt = 2 u u' / r */
+		xRel = uxs * uxs - uys * uys;
+		yRel = 2.0 * uxs * uys;
+		xVelRel = 2.0 * (uxs * duxs - uys * duys) / r;
+		yVelRel = 2.0 * (uxs * duys + uys * duxs) / r;
+		return true;
+	}
+
+	/**
+	 * Finds the fictitious time s which covers a physical time deltaT. With
+	 * u(s) = a cos(ws) + b sin(ws) the physical time is
+	 * t(s) = (|a|^2 + |b|^2) s / 2 + (|a|^2 - |b|^2) sin(2ws) / 4w
+	 *        + Re(a conj(b)) (1 - cos(2ws)) / 2w,
+	 * which only ever increases, so Newton's method is used and kept within
+	 * the bounds on s given by the bounds on the oscillating terms.
+	 * @param deltaT the physical time.
+	 * @param omega the frequency w.
+	 * @param a2 |a|^2.
+	 * @param b2 |b|^2.
+	 * @param ab Re(a conj(b)).
+	 * @return the fictitious time.
+	 */
+	private static double solveTime(double deltaT, double omega, double a2,
+	                                double b2, double ab)
+	{
+		double mean = (a2 + b2) / 2.0;
+		double range = Math.abs(a2 - b2) / (4.0 * omega)
+		               + Math.abs(ab) / omega;
+		double lower = Math.max(0.0, (deltaT - range) / mean);
+		double upper = (deltaT + range) / mean;
+		double s = deltaT / mean;
+		for (int k = 0; k < MAX_ITERATIONS; ++k) {
+			double phase = 2.0 * omega * s;
+			double sin2 = Math.sin(phase);
+			double cos2 = Math.cos(phase);
+			double t = mean * s + (a2 - b2) / (4.0 * omega) * sin2
+			           + ab / (2.0 * omega) * (1.0 - cos2);
+			double f = t - deltaT;
+			if (f > 0.0) {
+				upper = s;
+			}
+			else {
+				lower = s;
+			}
+			double dtds = mean + (a2 - b2) / 2.0 * cos2 + ab * sin2;
+			double next = s - f / dtds;
+			if (!(next > lower && next < upper)) {
+				next = (lower + upper) / 2.0;
+			}
+			if (Math.abs(next - s) <= TOLERANCE * s) {
+				return next;
+			}
+			s = next;
+		}
+		return s;
+	}
+
+	/**
+	 * Calculates the orbital energy per unit reduced mass of a relative orbit.
+	 * @param x relative x-position.
+	 * @param y relative y-position.
+	 * @param vx relative x-velocity.
+	 * @param vy relative y-velocity.
+	 * @param mu the gravitational constant times the total mass.
+	 * @return the energy.
+	 */
+	static double energy(double x, double y, double vx, double vy, double mu)
+	{
+		return (vx * vx + vy * vy) / 2.0 - mu / Math.sqrt(x * x + y * y);
+	}
+
+	/**
+	 * Calculates the semi-major axis of a bound relative orbit.
+	 * @param x relative x-position.
+	 * @param y relative y-position.
+	 * @param vx relative x-velocity.
+	 * @param vy relative y-velocity.
+	 * @param mu the gravitational constant times the total mass.
+	 * @return the semi-major axis, or infinity if the orbit is not bound.
+	 */
+	static double semiMajorAxis(double x, double y, double vx, double vy,
+	                            double mu)
+	{
+		double h = energy(x, y, vx, vy, mu);
+		if (!(h < 0.0)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return -mu / (2.0 * h);
+	}
+
+	/**
+	 * Calculates the pericentre distance of a bound relative orbit.
+	 * @param x relative x-position.
+	 * @param y relative y-position.
+	 * @param vx relative x-velocity.
+	 * @param vy relative y-velocity.
+	 * @param mu the gravitational constant times the total mass.
+	 * @return the pericentre distance, or 0 if the orbit is not bound.
+	 */
+	static double pericentre(double x, double y, double vx, double vy,
+	                         double mu)
+	{
+		double a = semiMajorAxis(x, y, vx, vy, mu);
+		if (Double.isInfinite(a)) {
+			return 0.0;
+		}
+		double l = x * vy - y * vx;
+		double e2 = 1.0 - l * l / (mu * a);
+		return a * (1.0 - Math.sqrt(Math.max(0.0, e2)));
+	}
+
+}
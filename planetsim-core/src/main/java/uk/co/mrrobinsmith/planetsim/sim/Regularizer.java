@@ -0,0 +1,361 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Regularizer finds close bound pairs of bodies and integrates each of them
+ * as a RegularizedPair. Before every step it replaces the two bodies of each
+ * pair with the pair's composite Body, so the Integrator sees a single body
+ * at the pair's centre of mass, and after the step it advances the relative
+ * motion of each pair and places its bodies about the composite again.
+ *
+ * A pair is formed when two massive bodies other than the star are closer
+ * than the regularization radius, are bound with a semi-major axis below
+ * that radius, and are only weakly disturbed by the rest of the system. It
+ * is dissolved when it becomes unbound, widens to twice the radius or is
+ * disturbed too strongly, and its bodies are merged if their orbit would
+ * bring them into contact.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class Regularizer
+{
+	/* largest perturbation at which a new pair is formed */
+	private static final double FORMATION_PERTURBATION = 0.05;
+	/* largest perturbation at which an existing pair is kept */
+	private static final double MAX_PERTURBATION = 0.25;
+
+	private PlanetSim sim;
+	private DataAnalyser data;
+	private ArrayList<RegularizedPair> pairs = new ArrayList<RegularizedPair>();
+	private HashSet<Body> members = new HashSet<Body>();
+	private boolean isChanged = false;
+	/* time spent on the pairs during the current step */
+	private long nanos = 0;
+
+	/**
+	 * Creates a new Regularizer for the given simulation.
+	 * @param sim the PlanetSim whose bodies are regularized.
+	 * @param data the DataAnalyser to report the pairs to.
+	 */
+	public Regularizer(PlanetSim sim, DataAnalyser data)
+	{
+		this.sim = sim;
+		this.data = data;
+	}
+
+	/**
+	 * Checks whether the last call to update() formed or dissolved any pairs,
+	 * in which case any state kept by the Integrator is no longer valid.
+	 * @return true or false.
+	 */
+	public boolean isChanged()
+	{
+		return isChanged;
+	}
+
+	/**
+	 * Checks whether a Body is a member of one of the pairs.
+	 * @param body the Body.
+	 * @return true or false.
+	 */
+	public boolean isRegularized(Body body)
+	{
+		return members.contains(body);
+	}
+
+	/**
+	 * Dissolves all of the pairs, e.g. when the simulation is restarted.
+	 */
+	public void reset()
+	{
+		pairs.clear();
+		members.clear();
+		data.setRegularizedPairs(0);
+	}
+
+	/**
+	 * Updates the existing pairs, dissolving or merging those which no longer
+	 * qualify, and forms new pairs if regularization is on.
+	 * @param bodies the bodies of the simulation.
+	 * @param isOn whether regularization is on.
+	 * @return the bodies to integrate this step, with the bodies of each pair
+	 * replaced by its composite Body.
+	 */
+	public Body[] update(Body[] bodies, boolean isOn)
+	{
+		long start = System.nanoTime();
+		isChanged = false;
+		double G = sim.getGravConst();
+		double radius = sim.getRegularizationRadius();
+
+		for (int k = pairs.size() - 1; k >= 0; --k) {
+			RegularizedPair pair = pairs.get(k);
+			Body composite = pair.getComposite();
+			Body primary = pair.getPrimary();
+			Body secondary = pair.getSecondary();
+			if (composite.isDead()) {
+				/* the whole pair has merged into another Body */
+				remove(primary);
+				remove(secondary);
+				dissolve(k);
+				continue;
+			}
+			double extraMass = composite.getMass() - pair.getTotalMass();
+			if (extraMass > 0.0) {
+				primary.addMass(extraMass);
+			}
+			pair.updateMass();
+			pair.store();
+			if (sim.collisionsOn() && pair.getPericentre(G) < contactDistance(
+			                                          primary, secondary)) {
+				primary.merge(secondary);
+				dissolve(k);
+			}
+			else if (!isOn || extraMass > 0.0
+			         || pair.getSeparation() > 2.0 * radius
+			         || !(pair.getEnergy(G) < 0.0)
+			         || pair.getPerturbation() > MAX_PERTURBATION) {
+				dissolve(k);
+			}
+		}
+
+		if (isOn) {
+			findPairs(bodies, G, radius);
+		}
+		data.setRegularizedPairs(pairs.size());
+		nanos = System.nanoTime() - start;
+
+		if (pairs.isEmpty()) {
+			return bodies;
+		}
+		int n = pairs.size();
+		for (Body body : bodies) {
+			if (body != null && !body.isDead() && !members.contains(body)) {
+				n++;
+			}
+		}
+		Body[] stepBodies = new Body[n];
+		int i = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead() && !members.contains(body)) {
+				stepBodies[i++] = body;
+			}
+		}
+		for (RegularizedPair pair : pairs) {
+			stepBodies[i++] = pair.getComposite();
+		}
+		return stepBodies;
+	}
+
+	/**
+	 * Kicks the relative motion of each pair by the tidal acceleration of the
+	 * other bodies over half of the step, before the Integrator is run.
+	 * @param deltaT the time step.
+	 */
+	public void beginStep(double deltaT)
+	{
+		long start = System.nanoTime();
+		kick(deltaT / 2.0);
+		nanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * Advances the relative motion of each pair through the step and kicks it
+	 * over the second half of the step, after the Integrator has moved the
+	 * composite bodies, then reports the time spent on the pairs.
+	 * @param deltaT the time step.
+	 */
+	public void endStep(double deltaT)
+	{
+		long start = System.nanoTime();
+		double G = sim.getGravConst();
+		for (RegularizedPair pair : pairs) {
+			if (!pair.getComposite().isDead()) {
+				pair.drift(deltaT, G);
+				pair.store();
+			}
+		}
+		kick(deltaT / 2.0);
+		nanos += System.nanoTime() - start;
+		data.setRegularizationTime(nanos / 1.0e6);
+	}
+
+	/**
+	 * Kicks the relative motion of each pair by the difference between the
+	 * accelerations of its two bodies due to the other massive bodies.
+	 * @param deltaT the length of the kick.
+	 */
+	private void kick(double deltaT)
+	{
+		if (pairs.isEmpty()) {
+			return;
+		}
+		double G = sim.getGravConst();
+		double eps2 = sim.getSoftening() * sim.getSoftening();
+		Body[] sources = sim.getMassiveBodies();
+		double[] acc1 = new double[2];
+		double[] acc2 = new double[2];
+		for (RegularizedPair pair : pairs) {
+			Body composite = pair.getComposite();
+			if (composite.isDead()) {
+				continue;
+			}
+			Body primary = pair.getPrimary();
+			Body secondary = pair.getSecondary();
+			externalAcc(sources, primary, composite, null, G, eps2, acc1);
+			externalAcc(sources, secondary, composite, null, G, eps2, acc2);
+			pair.kick(acc2[0] - acc1[0], acc2[1] - acc1[1], deltaT, G);
+			pair.store();
+		}
+	}
+
+	/**
+	 * Forms pairs from the bodies which are not yet in a pair. The bodies are
+	 * sorted into vertical strips as wide as the regularization radius, so
+	 * only bodies in the same or neighbouring strips are compared.
+	 * @param bodies the bodies of the simulation.
+	 * @param G the gravitational constant.
+	 * @param radius the regularization radius.
+	 */
+	private void findPairs(Body[] bodies, double G, double radius)
+	{
+		if (radius <= 0.0) {
+			return;
+		}
+		Body star = sim.getStar();
+		int n = 0;
+		long[] keys = new long[bodies.length];
+		for (int i = 0; i < bodies.length; ++i) {
+			Body body = bodies[i];
+			if (body != null && !body.isDead() && body != star
+			    && body.isMassive() && !members.contains(body)) {
+				double strip = Math.floor(body.getXPos() / radius);
+				strip = Math.max(Integer.MIN_VALUE / 2,
+				                 Math.min(Integer.MAX_VALUE / 2, strip));
+				keys[n++] = ((long) strip << 32) | i;
+			}
+		}
+		Arrays.sort(keys, 0, n);
+
+		double eps2 = sim.getSoftening() * sim.getSoftening();
+		double[] acc1 = new double[2];
+		double[] acc2 = new double[2];
+		for (int a = 0; a < n; ++a) {
+			Body body1 = bodies[(int) keys[a]];
+			long strip1 = keys[a] >> 32;
+			for (int b = a + 1; b < n && (keys[b] >> 32) - strip1 <= 1; ++b) {
+				if (members.contains(body1)) {
+					break;
+				}
+				Body body2 = bodies[(int) keys[b]];
+				if (members.contains(body2)) {
+					continue;
+				}
+				double x = body2.getXPos() - body1.getXPos();
+				double y = body2.getYPos() - body1.getYPos();
+				double r2 = x * x + y * y;
+				if (r2 >= radius * radius) {
+					continue;
+				}
+				double vx = body2.getXVel() - body1.getXVel();
+				double vy = body2.getYVel() - body1.getYVel();
+				double mu = G * (body1.getMass() + body2.getMass());
+				if (!(RegularizedPair.semiMajorAxis(x, y, vx, vy, mu) < radius)) {
+					continue;
+				}
+				if (sim.collisionsOn() && RegularizedPair.pericentre(x, y,
+				                  vx, vy, mu) < contactDistance(body1, body2)) {
+					continue;
+				}
+				externalAcc(bodies, body1, body1, body2, G, eps2, acc1);
+				externalAcc(bodies, body2, body1, body2, G, eps2, acc2);
+				double xTide = acc2[0] - acc1[0];
+				double yTide = acc2[1] - acc1[1];
+				if (Math.sqrt(xTide * xTide + yTide * yTide) * r2 / mu
+				    > FORMATION_PERTURBATION) {
+					continue;
+				}
+				pairs.add(new RegularizedPair(body1, body2));
+				members.add(body1);
+				members.add(body2);
+				isChanged = true;
+			}
+		}
+	}
+
+	/**
+	 * Dissolves a pair, returning its bodies to the simulation.
+	 * @param k the index of the pair.
+	 */
+	private void dissolve(int k)
+	{
+		RegularizedPair pair = pairs.remove(k);
+		members.remove(pair.getPrimary());
+		members.remove(pair.getSecondary());
+		isChanged = true;
+	}
+
+	/**
+	 * Removes a Body of a pair which has merged into another Body.
+	 * @param body the Body.
+	 */
+	private void remove(Body body)
+	{
+		if (!body.isDead()) {
+			body.setDead(true);
+			sim.removeBody(body);
+		}
+	}
+
+	/**
+	 * Calculates the separation at which two bodies touch, using the same
+	 * test as the CollisionDetector.
+	 * @param body1 the first Body.
+	 * @param body2 the second Body.
+	 * @return the separation.
+	 */
+	private static double contactDistance(Body body1, Body body2)
+	{
+		return CollisionDetector.getRadius(body1)
+		       + CollisionDetector.getRadius(body2);
+	}
+
+	/**
+	 * Calculates the softened acceleration of a Body due to the massive
+	 * bodies, leaving out up to two bodies which belong to its own pair.
+	 * @param sources the bodies exerting the acceleration.
+	 * @param body the Body.
+	 * @param skip1 a Body to leave out.
+	 * @param skip2 another Body to leave out, or null.
+	 * @param G the gravitational constant.
+	 * @param eps2 the square of the softening length.
+	 * @param acc array which the x- and y-acceleration are written into.
+	 */
+	private static void externalAcc(Body[] sources, Body body, Body skip1,
+	                                Body skip2, double G, double eps2,
+	                                double[] acc)
+	{
+		double xAcc = 0.0;
+		double yAcc = 0.0;
+		for (Body source : sources) {
+			if (source == null || source.isDead() || source == body
+			    || source == skip1 || source == skip2 || !source.isMassive()) {
+				continue;
+			}
+			double x = source.getXPos() - body.getXPos();
+			double y = source.getYPos() - body.getYPos();
+			double s2 = x * x + y * y + eps2;
+			double mrInv3 = G * source.getMass() / (s2 * Math.sqrt(s2));
+			xAcc += x * mrInv3;
+			yAcc += y * mrInv3;
+		}
+		acc[0] = xAcc;
+		acc[1] = yAcc;
+	}
+
+}
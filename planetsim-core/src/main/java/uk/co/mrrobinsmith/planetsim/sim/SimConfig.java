@@ -0,0 +1,754 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import uk.co.mrrobinsmith.planetsim.base.*;
+
+/**
+ * SimConfig is an immutable copy of the parameters of a PlanetSim, taken
+ * between two steps. The parameters can be changed by the GUI at any time,
+ * so rather than reading them during a step the simulation publishes a new
+ * SimConfig before each step and reads only that, which gives every part of
+ * the step the same values and makes a change take effect as a whole at the
+ * start of the next step. Each SimConfig has the version of the
+ * ParameterRegistry of the parameters it was taken from, so a new one is
+ * only needed when that version has moved on. A SimConfig is made with a
+ * SimConfig.Builder, which names each value as it is set.
+ *
+ * The masses and colours of the bodies are copied for the planet, star and
+ * rogue parameters; the mass or colour of any other parameter is read from
+ * the parameter itself.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class SimConfig
+{
+	private final long version;
+	private final int width;
+	private final int height;
+	private final double simSpeed;
+	private final boolean unthrottled;
+	private final int lookAhead;
+	private final double gravConst;
+	private final double softening;
+	private final boolean trails;
+	private final boolean antialiased;
+	private final boolean collisions;
+	private final double timeStepAccuracy;
+	private final boolean adaptiveStep;
+	private final double minTimeStep;
+	private final double maxTimeStep;
+	private final boolean testParticles;
+	private final double testParticleMass;
+	private final boolean regularization;
+	private final double regularizationRadius;
+	private final int broadPhase;
+	private final boolean continuous;
+	private final int collisionThreads;
+	private final boolean neighbourLists;
+	private final double neighbourSkin;
+	private final int neighbourInterval;
+	private final boolean escapeDetection;
+	private final double escapeDistance;
+	/* the mass and colour parameters copied, and their values */
+	private final DoubleParameter[] massParams;
+	private final double[] masses;
+	private final ColorParameter[] colorParams;
+	private final int[] colors;
+
+	/**
+	 * Creates a new SimConfig from the values set on a Builder.
+	 * @param builder the Builder.
+	 */
+	private SimConfig(Builder builder)
+	{
+		version = builder.version;
+		width = builder.width;
+		height = builder.height;
+		simSpeed = builder.simSpeed;
+		unthrottled = builder.unthrottled;
+		lookAhead = builder.lookAhead;
+		gravConst = builder.gravConst;
+		softening = builder.softening;
+		trails = builder.trails;
+		antialiased = builder.antialiased;
+		collisions = builder.collisions;
+		timeStepAccuracy = builder.timeStepAccuracy;
+		adaptiveStep = builder.adaptiveStep;
+		minTimeStep = builder.minTimeStep;
+		maxTimeStep = builder.maxTimeStep;
+		testParticles = builder.testParticles;
+		testParticleMass = builder.testParticleMass;
+		regularization = builder.regularization;
+		regularizationRadius = builder.regularizationRadius;
+		broadPhase = builder.broadPhase;
+		continuous = builder.continuous;
+		collisionThreads = builder.collisionThreads;
+		neighbourLists = builder.neighbourLists;
+		neighbourSkin = builder.neighbourSkin;
+		neighbourInterval = builder.neighbourInterval;
+		escapeDetection = builder.escapeDetection;
+		escapeDistance = builder.escapeDistance;
+		massParams = builder.massParams.clone();
+		masses = new double[massParams.length];
+		for (int k = 0; k < massParams.length; ++k) {
+			masses[k] = massParams[k].getValue();
+		}
+		colorParams = builder.colorParams.clone();
+		colors = new int[colorParams.length];
+		for (int k = 0; k < colorParams.length; ++k) {
+			colors[k] = colorParams[k].getValue();
+		}
+	}
+
+	/**
+	 * Gets the version of this SimConfig.
+	 * @return the version.
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Gets the width of the simulation space in pixels.
+	 * @return the width.
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Gets the height of the simulation space in pixels.
+	 * @return the height.
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Gets the speed at which the simulation is shown.
+	 * @return the speed.
+	 */
+	public double getSimSpeed()
+	{
+		return simSpeed;
+	}
+
+	/**
+	 * Checks whether the simulation runs as fast as it can, rather than at
+	 * its speed.
+	 * @return true or false.
+	 */
+	public boolean isUnthrottledOn()
+	{
+		return unthrottled;
+	}
+
+	/**
+	 * Gets the most frames the simulation runs ahead of the view.
+	 * @return the number of frames, or 0 if the view is drawn as the
+	 * simulation runs.
+	 */
+	public int getLookAhead()
+	{
+		return lookAhead;
+	}
+
+	/**
+	 * Gets the gravitational constant.
+	 * @return the gravitational constant.
+	 */
+	public double getGravConst()
+	{
+		return gravConst;
+	}
+
+	/**
+	 * Gets the softening length.
+	 * @return the softening length.
+	 */
+	public double getSoftening()
+	{
+		return softening;
+	}
+
+	/**
+	 * Checks whether trails are on.
+	 * @return true or false.
+	 */
+	public boolean isTrailsOn()
+	{
+		return trails;
+	}
+
+	/**
+	 * Checks whether the bodies are drawn antialiased.
+	 * @return true or false.
+	 */
+	public boolean isAntialiasedOn()
+	{
+		return antialiased;
+	}
+
+	/**
+	 * Checks whether touching bodies are merged.
+	 * @return true or false.
+	 */
+	public boolean isCollisionsOn()
+	{
+		return collisions;
+	}
+
+	/**
+	 * Gets the accuracy parameter used to choose time steps.
+	 * @return the accuracy parameter.
+	 */
+	public double getTimeStepAccuracy()
+	{
+		return timeStepAccuracy;
+	}
+
+	/**
+	 * Checks whether the global time step is adaptive.
+	 * @return true or false.
+	 */
+	public boolean isAdaptiveStepOn()
+	{
+		return adaptiveStep;
+	}
+
+	/**
+	 * Gets the shortest adaptive time step.
+	 * @return the minimum time step.
+	 */
+	public double getMinTimeStep()
+	{
+		return minTimeStep;
+	}
+
+	/**
+	 * Gets the longest adaptive time step.
+	 * @return the maximum time step.
+	 */
+	public double getMaxTimeStep()
+	{
+		return maxTimeStep;
+	}
+
+	/**
+	 * Checks whether light bodies are test particles.
+	 * @return true or false.
+	 */
+	public boolean isTestParticlesOn()
+	{
+		return testParticles;
+	}
+
+	/**
+	 * Gets the mass below which a body is a test particle.
+	 * @return the test particle mass.
+	 */
+	public double getTestParticleMass()
+	{
+		return testParticleMass;
+	}
+
+	/**
+	 * Checks whether close pairs are regularized.
+	 * @return true or false.
+	 */
+	public boolean isRegularizationOn()
+	{
+		return regularization;
+	}
+
+	/**
+	 * Gets the separation below which a pair may be regularized.
+	 * @return the regularization radius.
+	 */
+	public double getRegularizationRadius()
+	{
+		return regularizationRadius;
+	}
+
+	/**
+	 * Gets the index of the BroadPhase used to find touching bodies.
+	 * @return the index.
+	 */
+	public int getBroadPhase()
+	{
+		return broadPhase;
+	}
+
+	/**
+	 * Checks whether collisions are found continuously.
+	 * @return true or false.
+	 */
+	public boolean isContinuousOn()
+	{
+		return continuous;
+	}
+
+	/**
+	 * Gets the number of threads used to find touching bodies.
+	 * @return the number of threads.
+	 */
+	public int getCollisionThreads()
+	{
+		return collisionThreads;
+	}
+
+	/**
+	 * Checks whether neighbour lists are reused between steps.
+	 * @return true or false.
+	 */
+	public boolean isNeighbourListsOn()
+	{
+		return neighbourLists;
+	}
+
+	/**
+	 * Gets the skin distance of the neighbour lists.
+	 * @return the skin distance.
+	 */
+	public double getNeighbourSkin()
+	{
+		return neighbourSkin;
+	}
+
+	/**
+	 * Gets the most steps a neighbour list is used for, or 0.
+	 * @return the number of steps, or 0.
+	 */
+	public int getNeighbourInterval()
+	{
+		return neighbourInterval;
+	}
+
+	/**
+	 * Checks whether escaped bodies are retired.
+	 * @return true or false.
+	 */
+	public boolean isEscapeDetectionOn()
+	{
+		return escapeDetection;
+	}
+
+	/**
+	 * Gets the distance beyond which a body may escape.
+	 * @return the escape distance.
+	 */
+	public double getEscapeDistance()
+	{
+		return escapeDistance;
+	}
+
+	/**
+	 * Gets the value of a mass parameter when this SimConfig was taken.
+	 * @param param the mass parameter.
+	 * @return the mass.
+	 */
+	public double getMass(DoubleParameter param)
+	{
+		for (int k = 0; k < massParams.length; ++k) {
+			if (massParams[k] == param) {
+				return masses[k];
+			}
+		}
+		return param.getValue();
+	}
+
+	/**
+	 * Gets the values of the colour parameters copied when this SimConfig
+	 * was taken.
+	 * @return the RGB values of the colours.
+	 */
+	public int[] getColors()
+	{
+		return colors.clone();
+	}
+
+	/**
+	 * Gets the value of a colour parameter when this SimConfig was taken.
+	 * @param param the colour parameter.
+	 * @return the RGB value of the colour.
+	 */
+	public int getColor(ColorParameter param)
+	{
+		for (int k = 0; k < colorParams.length; ++k) {
+			if (colorParams[k] == param) {
+				return colors[k];
+			}
+		}
+		return param.getValue();
+	}
+
+	/**
+	 * Builder collects the values of a new SimConfig by name, so that no value
+	 * can be given in the place of another. Values which are not set are zero
+	 * or false, and there are no mass or colour parameters unless they are set.
+	 */
+	public static class Builder
+	{
+		private long version;
+		private int width;
+		private int height;
+		private double simSpeed;
+		private boolean unthrottled;
+		private int lookAhead;
+		private double gravConst;
+		private double softening;
+		private boolean trails;
+		private boolean antialiased;
+		private boolean collisions;
+		private double timeStepAccuracy;
+		private boolean adaptiveStep;
+		private double minTimeStep;
+		private double maxTimeStep;
+		private boolean testParticles;
+		private double testParticleMass;
+		private boolean regularization;
+		private double regularizationRadius;
+		private int broadPhase;
+		private boolean continuous;
+		private int collisionThreads;
+		private boolean neighbourLists;
+		private double neighbourSkin;
+		private int neighbourInterval;
+		private boolean escapeDetection;
+		private double escapeDistance;
+		private DoubleParameter[] massParams = new DoubleParameter[0];
+		private ColorParameter[] colorParams = new ColorParameter[0];
+
+		/**
+		 * Creates a Builder for a SimConfig with the given version.
+		 * @param version the version of the SimConfig.
+		 */
+		public Builder(long version)
+		{
+			this.version = version;
+		}
+
+		/**
+		 * Sets the width of the simulation space in pixels.
+		 * @param width the value.
+		 * @return this Builder.
+		 */
+		public Builder width(int width)
+		{
+			this.width = width;
+			return this;
+		}
+
+		/**
+		 * Sets the height of the simulation space in pixels.
+		 * @param height the value.
+		 * @return this Builder.
+		 */
+		public Builder height(int height)
+		{
+			this.height = height;
+			return this;
+		}
+
+		/**
+		 * Sets the speed at which the simulation is shown.
+		 * @param simSpeed the value.
+		 * @return this Builder.
+		 */
+		public Builder simSpeed(double simSpeed)
+		{
+			this.simSpeed = simSpeed;
+			return this;
+		}
+
+		/**
+		 * Sets whether the simulation runs as fast as it can.
+		 * @param unthrottled the value.
+		 * @return this Builder.
+		 */
+		public Builder unthrottled(boolean unthrottled)
+		{
+			this.unthrottled = unthrottled;
+			return this;
+		}
+
+		/**
+		 * Sets the most frames the simulation runs ahead of the view, or 0.
+		 * @param lookAhead the value.
+		 * @return this Builder.
+		 */
+		public Builder lookAhead(int lookAhead)
+		{
+			this.lookAhead = lookAhead;
+			return this;
+		}
+
+		/**
+		 * Sets the gravitational constant.
+		 * @param gravConst the value.
+		 * @return this Builder.
+		 */
+		public Builder gravConst(double gravConst)
+		{
+			this.gravConst = gravConst;
+			return this;
+		}
+
+		/**
+		 * Sets the softening length.
+		 * @param softening the value.
+		 * @return this Builder.
+		 */
+		public Builder softening(double softening)
+		{
+			this.softening = softening;
+			return this;
+		}
+
+		/**
+		 * Sets whether trails are on.
+		 * @param trails the value.
+		 * @return this Builder.
+		 */
+		public Builder trails(boolean trails)
+		{
+			this.trails = trails;
+			return this;
+		}
+
+		/**
+		 * Sets whether the bodies are drawn antialiased.
+		 * @param antialiased the value.
+		 * @return this Builder.
+		 */
+		public Builder antialiased(boolean antialiased)
+		{
+			this.antialiased = antialiased;
+			return this;
+		}
+
+		/**
+		 * Sets whether touching bodies are merged.
+		 * @param collisions the value.
+		 * @return this Builder.
+		 */
+		public Builder collisions(boolean collisions)
+		{
+			this.collisions = collisions;
+			return this;
+		}
+
+		/**
+		 * Sets the accuracy used to choose time steps.
+		 * @param timeStepAccuracy the value.
+		 * @return this Builder.
+		 */
+		public Builder timeStepAccuracy(double timeStepAccuracy)
+		{
+			this.timeStepAccuracy = timeStepAccuracy;
+			return this;
+		}
+
+		/**
+		 * Sets whether the global time step is adaptive.
+		 * @param adaptiveStep the value.
+		 * @return this Builder.
+		 */
+		public Builder adaptiveStep(boolean adaptiveStep)
+		{
+			this.adaptiveStep = adaptiveStep;
+			return this;
+		}
+
+		/**
+		 * Sets the shortest adaptive time step.
+		 * @param minTimeStep the value.
+		 * @return this Builder.
+		 */
+		public Builder minTimeStep(double minTimeStep)
+		{
+			this.minTimeStep = minTimeStep;
+			return this;
+		}
+
+		/**
+		 * Sets the longest adaptive time step.
+		 * @param maxTimeStep the value.
+		 * @return this Builder.
+		 */
+		public Builder maxTimeStep(double maxTimeStep)
+		{
+			this.maxTimeStep = maxTimeStep;
+			return this;
+		}
+
+		/**
+		 * Sets whether light bodies are test particles.
+		 * @param testParticles the value.
+		 * @return this Builder.
+		 */
+		public Builder testParticles(boolean testParticles)
+		{
+			this.testParticles = testParticles;
+			return this;
+		}
+
+		/**
+		 * Sets the mass below which a body is a test particle.
+		 * @param testParticleMass the value.
+		 * @return this Builder.
+		 */
+		public Builder testParticleMass(double testParticleMass)
+		{
+			this.testParticleMass = testParticleMass;
+			return this;
+		}
+
+		/**
+		 * Sets whether close pairs are regularized.
+		 * @param regularization the value.
+		 * @return this Builder.
+		 */
+		public Builder regularization(boolean regularization)
+		{
+			this.regularization = regularization;
+			return this;
+		}
+
+		/**
+		 * Sets the separation below which a pair may be regularized.
+		 * @param regularizationRadius the value.
+		 * @return this Builder.
+		 */
+		public Builder regularizationRadius(double regularizationRadius)
+		{
+			this.regularizationRadius = regularizationRadius;
+			return this;
+		}
+
+		/**
+		 * Sets the index of the BroadPhase used to find touching bodies.
+		 * @param broadPhase the value.
+		 * @return this Builder.
+		 */
+		public Builder broadPhase(int broadPhase)
+		{
+			this.broadPhase = broadPhase;
+			return this;
+		}
+
+		/**
+		 * Sets whether collisions are found continuously.
+		 * @param continuous the value.
+		 * @return this Builder.
+		 */
+		public Builder continuous(boolean continuous)
+		{
+			this.continuous = continuous;
+			return this;
+		}
+
+		/**
+		 * Sets the number of threads used to find touching bodies.
+		 * @param collisionThreads the value.
+		 * @return this Builder.
+		 */
+		public Builder collisionThreads(int collisionThreads)
+		{
+			this.collisionThreads = collisionThreads;
+			return this;
+		}
+
+		/**
+		 * Sets whether neighbour lists are reused between steps.
+		 * @param neighbourLists the value.
+		 * @return this Builder.
+		 */
+		public Builder neighbourLists(boolean neighbourLists)
+		{
+			this.neighbourLists = neighbourLists;
+			return this;
+		}
+
+		/**
+		 * Sets the skin distance of the neighbour lists.
+		 * @param neighbourSkin the value.
+		 * @return this Builder.
+		 */
+		public Builder neighbourSkin(double neighbourSkin)
+		{
+			this.neighbourSkin = neighbourSkin;
+			return this;
+		}
+
+		/**
+		 * Sets the most steps a neighbour list is used for, or 0.
+		 * @param neighbourInterval the value.
+		 * @return this Builder.
+		 */
+		public Builder neighbourInterval(int neighbourInterval)
+		{
+			this.neighbourInterval = neighbourInterval;
+			return this;
+		}
+
+		/**
+		 * Sets whether escaped bodies are retired.
+		 * @param escapeDetection the value.
+		 * @return this Builder.
+		 */
+		public Builder escapeDetection(boolean escapeDetection)
+		{
+			this.escapeDetection = escapeDetection;
+			return this;
+		}
+
+		/**
+		 * Sets the distance beyond which a body may escape.
+		 * @param escapeDistance the value.
+		 * @return this Builder.
+		 */
+		public Builder escapeDistance(double escapeDistance)
+		{
+			this.escapeDistance = escapeDistance;
+			return this;
+		}
+
+		/**
+		 * Sets the mass parameters whose values are copied.
+		 * @param massParams the value.
+		 * @return this Builder.
+		 */
+		public Builder massParams(DoubleParameter[] massParams)
+		{
+			this.massParams = massParams;
+			return this;
+		}
+
+		/**
+		 * Sets the colour parameters whose values are copied.
+		 * @param colorParams the value.
+		 * @return this Builder.
+		 */
+		public Builder colorParams(ColorParameter[] colorParams)
+		{
+			this.colorParams = colorParams;
+			return this;
+		}
+
+		/**
+		 * Creates the SimConfig.
+		 * @return the SimConfig.
+		 */
+		public SimConfig build()
+		{
+			return new SimConfig(this);
+		}
+
+	}
+
+}
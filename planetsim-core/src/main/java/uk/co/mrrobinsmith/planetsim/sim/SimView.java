@@ -0,0 +1,35 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * SimView is implemented by anything which shows a running PlanetSim, e.g.
+ * a window drawing the bodies. A PlanetSim needs no SimView: without one it
+ * runs headless, as fast as it can, which is how batch jobs use it.
+ *
+ * The methods are called on the simulation thread, between steps.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public interface SimView
+{
+
+	/**
+	 * Removes the bodies from the view at the positions they were last drawn,
+	 * before the simulation moves them.
+	 * @param bodies the bodies.
+	 */
+	public void eraseBodies(Body[] bodies);
+
+	/**
+	 * Shows the bodies at their current positions.
+	 * @param bodies the bodies.
+	 */
+	public void drawBodies(Body[] bodies);
+
+	/**
+	 * Called once the simulation has stopped running.
+	 */
+	public void simFinished();
+
+}
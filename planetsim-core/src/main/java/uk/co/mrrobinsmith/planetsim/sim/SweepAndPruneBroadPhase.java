@@ -0,0 +1,222 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * SweepAndPruneBroadPhase finds touching pairs by keeping the two ends of
+ * each body's extent along the x-axis in one sorted list. Bodies move only
+ * a little between steps, so the list from the last step is almost sorted
+ * and an insertion sort puts it back in order in close to linear time.
+ * Each time the sort moves the start of one body past the end of another
+ * the pair begins to overlap along the x-axis, and the reverse swap ends the
+ * overlap, so the set of overlapping pairs is updated as a side effect of
+ * the sort rather than being found again each step. The y-extents of these
+ * pairs are then compared to give the pairs whose bounding boxes overlap.
+ *
+ * The list is rebuilt from scratch whenever bodies are added or removed.
+ * The search is split into parts by position in the set of overlapping
+ * pairs.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class SweepAndPruneBroadPhase implements BroadPhase
+{
+	private int n = 0;
+	private boolean isValid = false;
+	private double[] xPos;
+	private double[] yPos;
+	private double[] radius;
+
+	/* the ends, each stored as (body << 1) | 1 for the upper end and
+	 * body << 1 for the lower end, sorted by their x-coordinate */
+	private int[] ends = new int[0];
+	private double[] endValue = new double[0];
+	/* pairs whose x-extents overlap */
+	private PairSet overlaps = new PairSet();
+
+	/* scratch arrays used when the list is rebuilt */
+	private int[] buffer = new int[0];
+	private int[] open = new int[0];
+	private int[] openPosition = new int[0];
+
+	/**
+	 * Updates the sorted list of ends and the set of overlapping pairs.
+	 * @param xPos x-position of each body.
+	 * @param yPos y-position of each body.
+	 * @param radius radius of each body.
+	 * @param n the number of bodies.
+	 */
+	public void update(double[] xPos, double[] yPos, double[] radius, int n)
+	{
+		this.xPos = xPos;
+		this.yPos = yPos;
+		this.radius = radius;
+		if (!isValid || n != this.n) {
+			rebuild(xPos, radius, n);
+		}
+		else {
+			for (int k = 0; k < 2 * n; ++k) {
+				endValue[k] = value(ends[k], xPos, radius);
+			}
+			insertionSort();
+		}
+	}
+
+	/**
+	 * Reports the pairs in one part of the set of overlapping pairs whose
+	 * y-extents also overlap.
+	 * @param part the part of the search, from 0 to nParts - 1.
+	 * @param nParts the number of parts the search is split into.
+	 * @param pairs the list to add the pairs to.
+	 */
+	public void findPairs(int part, int nParts, PairList pairs)
+	{
+		int from = (int) ((long) overlaps.size() * part / nParts);
+		int to = (int) ((long) overlaps.size() * (part + 1) / nParts);
+		for (int k = from; k < to; ++k) {
+			int i = overlaps.getFirst(k);
+			int j = overlaps.getSecond(k);
+			if (Math.abs(yPos[j] - yPos[i]) < radius[i] + radius[j]
+			    && Math.abs(xPos[j] - xPos[i]) < radius[i] + radius[j]) {
+				pairs.add(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Marks the list as out of date, since the indices of the bodies may
+	 * have changed.
+	 */
+	public void reset()
+	{
+		isValid = false;
+	}
+
+	/**
+	 * Restores the order of the ends after the bodies have moved. Moving a
+	 * lower end below an upper end starts an overlap and moving an upper end
+	 * below a lower end ends one.
+	 */
+	private void insertionSort()
+	{
+		for (int k = 1; k < 2 * n; ++k) {
+			int end = ends[k];
+			double value = endValue[k];
+			int m = k - 1;
+			while (m >= 0 && endValue[m] > value) {
+				int other = ends[m];
+				boolean isUpper = (end & 1) == 1;
+				boolean isOtherUpper = (other & 1) == 1;
+				if (!isUpper && isOtherUpper) {
+					overlaps.add(end >> 1, other >> 1);
+				}
+				else if (isUpper && !isOtherUpper) {
+					overlaps.remove(end >> 1, other >> 1);
+				}
+				ends[m + 1] = other;
+				endValue[m + 1] = endValue[m];
+				m--;
+			}
+			ends[m + 1] = end;
+			endValue[m + 1] = value;
+		}
+	}
+
+	/**
+	 * Sorts the ends from scratch with a merge sort and finds the overlapping
+	 * pairs with a single sweep along the sorted list.
+	 * @param xPos x-position of each body.
+	 * @param radius radius of each body.
+	 * @param n the number of bodies.
+	 */
+	private void rebuild(double[] xPos, double[] radius, int n)
+	{
+		this.n = n;
+		if (ends.length < 2 * n) {
+			int capacity = Math.max(2 * n, 2 * ends.length);
+			ends = new int[capacity];
+			endValue = new double[capacity];
+			buffer = new int[capacity];
+			open = new int[capacity / 2];
+			openPosition = new int[capacity / 2];
+		}
+		for (int k = 0; k < 2 * n; ++k) {
+			ends[k] = k;
+		}
+		for (int width = 1; width < 2 * n; width *= 2) {
+			for (int lo = 0; lo < 2 * n; lo += 2 * width) {
+				merge(lo, Math.min(lo + width, 2 * n),
+				      Math.min(lo + 2 * width, 2 * n), xPos, radius);
+			}
+		}
+		for (int k = 0; k < 2 * n; ++k) {
+			endValue[k] = value(ends[k], xPos, radius);
+		}
+
+		overlaps.clear();
+		int nOpen = 0;
+		for (int k = 0; k < 2 * n; ++k) {
+			int body = ends[k] >> 1;
+			if ((ends[k] & 1) == 0) {
+				for (int m = 0; m < nOpen; ++m) {
+					overlaps.add(open[m], body);
+				}
+				openPosition[body] = nOpen;
+				open[nOpen++] = body;
+			}
+			else {
+				int last = open[--nOpen];
+				open[openPosition[body]] = last;
+				openPosition[last] = openPosition[body];
+			}
+		}
+		isValid = true;
+	}
+
+	/**
+	 * Merges the sorted runs ends[lo..mid) and ends[mid..hi).
+	 * @param lo the start of the first run.
+	 * @param mid the start of the second run.
+	 * @param hi the end of the second run.
+	 * @param xPos x-position of each body.
+	 * @param radius radius of each body.
+	 */
+	private void merge(int lo, int mid, int hi, double[] xPos, double[] radius)
+	{
+		int a = lo;
+		int b = mid;
+		int k = lo;
+		while (a < mid && b < hi) {
+			if (value(ends[b], xPos, radius) < value(ends[a], xPos, radius)) {
+				buffer[k++] = ends[b++];
+			}
+			else {
+				buffer[k++] = ends[a++];
+			}
+		}
+		while (a < mid) {
+			buffer[k++] = ends[a++];
+		}
+		while (b < hi) {
+			buffer[k++] = ends[b++];
+		}
+		System.arraycopy(buffer, lo, ends, lo, hi - lo);
+	}
+
+	/**
+	 * Gets the x-coordinate of an end.
+	 * @param end the end.
+	 * @param xPos x-position of each body.
+	 * @param radius radius of each body.
+	 * @return the x-coordinate.
+	 */
+	private static double value(int end, double[] xPos, double[] radius)
+	{
+		int body = end >> 1;
+		if ((end & 1) == 1) {
+			return xPos[body] + radius[body];
+		}
+		return xPos[body] - radius[body];
+	}
+
+}
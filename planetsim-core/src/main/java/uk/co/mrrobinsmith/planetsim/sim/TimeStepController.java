@@ -0,0 +1,198 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * TimeStepController chooses the global time step of PlanetSim before each
+ * step from the dynamical time of the system: the shortest time over all the
+ * bodies of sqrt(L / |a|), where |a| is the body's softened gravitational
+ * acceleration and L is a length scale given by the softening length (but
+ * never less than one pixel). The criterion depends only on the positions
+ * and velocities of the bodies, so the step is made time-symmetric by
+ * taking it to be the mean of the criterion at its start and at its end,
+ * dt = (tau(t0) + tau(t0 + dt)) / 2, iterated until it settles. The state
+ * at the end of the step is predicted from the acceleration and jerk at its
+ * start, as in the Hermite predictor. While no body is accelerating the
+ * criterion is taken to be the maximum step. The step is always kept within
+ * the given minimum and maximum.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class TimeStepController
+{
+	/* most times the step is refined against the criterion at its end */
+	private static final int MAX_ITERATIONS = 8;
+	/* relative change in the step below which it has settled */
+	private static final double TOLERANCE = 1e-4;
+
+	private PlanetSim sim;
+	private GravityKernel kernel = new GravityKernel();
+
+	/* state of each body at the start of the step */
+	private double[] xPos0 = new double[0];
+	private double[] yPos0 = new double[0];
+	private double[] xVel0 = new double[0];
+	private double[] yVel0 = new double[0];
+	private double[] xAcc0 = new double[0];
+	private double[] yAcc0 = new double[0];
+	private double[] xJerk0 = new double[0];
+	private double[] yJerk0 = new double[0];
+
+	/**
+	 * Creates a new TimeStepController for the given simulation.
+	 * @param sim the PlanetSim whose time step is controlled.
+	 */
+	public TimeStepController(PlanetSim sim)
+	{
+		this.sim = sim;
+	}
+
+	/**
+	 * Chooses the length of the next time step.
+	 * @param bodies the bodies of the simulation.
+	 * @return the time step.
+	 */
+	public double nextTimeStep(Body[] bodies)
+	{
+		double minStep = sim.getMinTimeStep();
+		double maxStep = sim.getMaxTimeStep();
+		double G = sim.getGravConst();
+		double softening = sim.getSoftening();
+
+		int n = load(bodies);
+		kernel.evaluateAll(G, softening);
+		for (int i = 0; i < n; ++i) {
+			xAcc0[i] = kernel.xAcc[i];
+			yAcc0[i] = kernel.yAcc[i];
+			xJerk0[i] = kernel.xJerk[i];
+			yJerk0[i] = kernel.yJerk[i];
+		}
+		double startCriterion = criterion(n, minStep, maxStep);
+
+		double dt = startCriterion;
+		for (int k = 0; k < MAX_ITERATIONS; ++k) {
+			predict(n, dt);
+			kernel.evaluateAll(G, softening);
+			double next = (startCriterion + criterion(n, minStep, maxStep))
+			              / 2.0;
+			boolean isSettled = Math.abs(next - dt) <= TOLERANCE * dt;
+			dt = next;
+			if (isSettled) {
+				break;
+			}
+		}
+		return dt;
+	}
+
+	/**
+	 * Loads the positions, velocities and masses of the bodies into the
+	 * kernel and keeps them as the state at the start of the step.
+	 * @param bodies the bodies of the simulation.
+	 * @return the number of bodies loaded.
+	 */
+	private int load(Body[] bodies)
+	{
+		int n = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				n++;
+			}
+		}
+		kernel.setSize(n);
+		if (xPos0.length < n) {
+			allocate(kernel.xPos.length);
+		}
+
+		int i = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead()) {
+				kernel.xPos[i] = xPos0[i] = body.getXPos();
+				kernel.yPos[i] = yPos0[i] = body.getYPos();
+				kernel.xVel[i] = xVel0[i] = body.getXVel();
+				kernel.yVel[i] = yVel0[i] = body.getYVel();
+				kernel.mass[i] = body.getMass();
+				kernel.isMassive[i] = body.isMassive();
+				i++;
+			}
+		}
+		kernel.updateSources();
+		return n;
+	}
+
+	/**
+	 * Predicts the positions and velocities of the bodies at the end of a
+	 * step from their acceleration and jerk at its start, and puts them into
+	 * the kernel.
+	 * @param n the number of bodies.
+	 * @param deltaT the time step.
+	 */
+	private void predict(int n, double deltaT)
+	{
+		double dt2 = deltaT * deltaT / 2.0;
+		double dt3 = deltaT * deltaT * deltaT / 6.0;
+		for (int i = 0; i < n; ++i) {
+			kernel.xPos[i] = xPos0[i] + xVel0[i] * deltaT + xAcc0[i] * dt2
+			                 + xJerk0[i] * dt3;
+			kernel.yPos[i] = yPos0[i] + yVel0[i] * deltaT + yAcc0[i] * dt2
+			                 + yJerk0[i] * dt3;
+			kernel.xVel[i] = xVel0[i] + xAcc0[i] * deltaT + xJerk0[i] * dt2;
+			kernel.yVel[i] = yVel0[i] + yAcc0[i] * deltaT + yJerk0[i] * dt2;
+		}
+	}
+
+	/**
+	 * Calculates the time step asked for by the accelerations last evaluated
+	 * by the kernel, kept within the minimum and maximum step.
+	 * @param n the number of bodies.
+	 * @param minStep the minimum time step.
+	 * @param maxStep the maximum time step.
+	 * @return the time step.
+	 */
+	private double criterion(int n, double minStep, double maxStep)
+	{
+		double criterion = sim.getTimeStepAccuracy() * dynamicalTime(n);
+		if (Double.isInfinite(criterion) || Double.isNaN(criterion)) {
+			/* nothing is accelerating, so any step will do */
+			criterion = maxStep;
+		}
+		return Math.max(minStep, Math.min(maxStep, criterion));
+	}
+
+	/**
+	 * Calculates the shortest dynamical time of any body from the
+	 * accelerations last evaluated by the kernel.
+	 * @param n the number of bodies.
+	 * @return the time, or infinity if no body is accelerating.
+	 */
+	private double dynamicalTime(int n)
+	{
+		double length = Math.max(sim.getSoftening(), Body.SCALE_FACTOR);
+		double maxAcc2 = 0.0;
+		for (int i = 0; i < n; ++i) {
+			double ax = kernel.xAcc[i];
+			double ay = kernel.yAcc[i];
+			maxAcc2 = Math.max(maxAcc2, ax * ax + ay * ay);
+		}
+		if (maxAcc2 == 0.0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Math.sqrt(length / Math.sqrt(maxAcc2));
+	}
+
+	/**
+	 * Allocates the arrays holding the state at the start of the step.
+	 * @param capacity the number of bodies the arrays can hold.
+	 */
+	private void allocate(int capacity)
+	{
+		xPos0 = new double[capacity];
+		yPos0 = new double[capacity];
+		xVel0 = new double[capacity];
+		yVel0 = new double[capacity];
+		xAcc0 = new double[capacity];
+		yAcc0 = new double[capacity];
+		xJerk0 = new double[capacity];
+		yJerk0 = new double[capacity];
+	}
+
+}
@@ -0,0 +1,76 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TripleBuffer passes the latest Frame from one producer thread, the
+ * simulation, to one consumer thread, the renderer, without either ever
+ * waiting for the other. Of its three Frames the producer fills the back
+ * one and the consumer reads the front one, and neither is touched by the
+ * other side; the third, in the middle, is swapped with the back when the
+ * producer publishes and with the front when the consumer takes the latest.
+ * Each swap is a single atomic exchange of the index of the middle Frame,
+ * which also carries a flag saying whether it holds a Frame the consumer
+ * has not yet taken. Frames published faster than they are taken are
+ * simply overwritten, so the consumer always sees the newest whole Frame.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class TripleBuffer
+{
+	/* set in the middle index when it holds a Frame not yet taken */
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+
+	private final Frame[] frames = {new Frame(), new Frame(), new Frame()};
+	/* the index of the middle Frame, with the FRESH flag */
+	private final AtomicInteger middle = new AtomicInteger(1);
+	/* the Frame being filled, used only by the producer */
+	private int back = 0;
+	/* the Frame being read, used only by the consumer */
+	private int front = 2;
+
+	/**
+	 * Gets the Frame for the producer to fill before it publishes it.
+	 * @return the back Frame.
+	 */
+	public Frame getBackFrame()
+	{
+		return frames[back];
+	}
+
+	/**
+	 * Makes the back Frame the latest, for the consumer to take, and gives
+	 * the producer a new back Frame.
+	 */
+	public void publish()
+	{
+		back = middle.getAndSet(back | FRESH) & INDEX;
+	}
+
+	/**
+	 * Takes the latest Frame published, if there is one the consumer has not
+	 * already taken. It stays the consumer's until the next one is taken.
+	 * @return the Frame, or null if nothing new has been published.
+	 */
+	public Frame takeLatest()
+	{
+		if ((middle.get() & FRESH) == 0) {
+			return null;
+		}
+		front = middle.getAndSet(front) & INDEX;
+		return frames[front];
+	}
+
+	/**
+	 * Forgets any Frame published but not taken. Only to be called while
+	 * neither side is using the TripleBuffer.
+	 */
+	public void clear()
+	{
+		middle.set(middle.get() & INDEX);
+	}
+
+}
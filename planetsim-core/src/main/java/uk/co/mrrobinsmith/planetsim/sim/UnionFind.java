@@ -0,0 +1,101 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * UnionFind partitions the indices 0 to n - 1 into disjoint sets, e.g. the
+ * clusters of bodies which have touched during a step. Sets are joined by
+ * size and paths are halved on lookup, so each operation takes close to
+ * constant time. The members of each set are also linked in a ring so that
+ * they can be visited from any one of them.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class UnionFind
+{
+	private int[] parent = new int[0];
+	private int[] size = new int[0];
+	private int[] next = new int[0];
+
+	/**
+	 * Makes each of the indices 0 to n - 1 a set of its own.
+	 * @param n the number of indices.
+	 */
+	public void reset(int n)
+	{
+		if (parent.length < n) {
+			int capacity = Math.max(n, 2 * parent.length);
+			parent = new int[capacity];
+			size = new int[capacity];
+			next = new int[capacity];
+		}
+		for (int i = 0; i < n; ++i) {
+			parent[i] = i;
+			size[i] = 1;
+			next[i] = i;
+		}
+	}
+
+	/**
+	 * Finds the representative of the set containing an index.
+	 * @param i the index.
+	 * @return the representative.
+	 */
+	public int find(int i)
+	{
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Joins the sets containing two indices.
+	 * @param i the first index.
+	 * @param j the second index.
+	 * @return the representative of the joined set.
+	 */
+	public int union(int i, int j)
+	{
+		int a = find(i);
+		int b = find(j);
+		if (a == b) {
+			return a;
+		}
+		if (size[a] < size[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		parent[b] = a;
+		size[a] += size[b];
+		/* splice the two rings together */
+		int swap = next[a];
+		next[a] = next[b];
+		next[b] = swap;
+		return a;
+	}
+
+	/**
+	 * Gets the number of indices in the set containing an index.
+	 * @param i the index.
+	 * @return the size of the set.
+	 */
+	public int getSize(int i)
+	{
+		return size[find(i)];
+	}
+
+	/**
+	 * Gets the next member of the set containing an index. Following next()
+	 * from any member visits every member of the set and returns to it.
+	 * @param i the index.
+	 * @return the next member.
+	 */
+	public int next(int i)
+	{
+		return next[i];
+	}
+
+}
@@ -0,0 +1,211 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * VerletListBroadPhase keeps a list of the neighbours of each body and
+ * reuses it from step to step, since bodies move only a little in each step.
+ * The lists are built with another BroadPhase, with every radius enlarged by
+ * half of a skin distance, so they hold every pair which is within the skin
+ * of touching. Until some body has moved more than half of the skin since
+ * the lists were built no other pair can have come into contact, and each
+ * step only the pairs in the lists need to be tested.
+ *
+ * The lists are built again when a body has moved too far or grown, when
+ * bodies are added or removed, and optionally after a fixed number of steps.
+ * They are stored flat, with the neighbours j > i of body i held in
+ * neighbours[first[i]] to neighbours[first[i + 1] - 1].
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class VerletListBroadPhase implements BroadPhase
+{
+	private BroadPhase broadPhase;
+	private DataAnalyser data;
+	private double skin = 0.0;
+	private int maxInterval = 0;
+
+	private boolean isValid = false;
+	private int n = 0;
+	private int stepsSinceBuild = 0;
+	private double[] xPos;
+	private double[] yPos;
+	private double[] radius;
+
+	/* positions and radii when the lists were built, and the enlarged radii
+	 * given to the BroadPhase */
+	private double[] xBuilt = new double[0];
+	private double[] yBuilt = new double[0];
+	private double[] rBuilt = new double[0];
+	private double[] rEnlarged = new double[0];
+	private PairList built = new PairList();
+	private int[] first = new int[1];
+	private int[] neighbours = new int[0];
+
+	/**
+	 * Creates a new VerletListBroadPhase which builds its lists with the
+	 * given BroadPhase.
+	 * @param broadPhase the BroadPhase used to build the lists.
+	 * @param data the DataAnalyser to report each build to.
+	 */
+	public VerletListBroadPhase(BroadPhase broadPhase, DataAnalyser data)
+	{
+		this.broadPhase = broadPhase;
+		this.data = data;
+	}
+
+	/**
+	 * Sets the skin distance. A larger skin makes the lists longer but lets
+	 * them last for more steps. The lists are built again if it changes.
+	 * @param skin the skin distance.
+	 */
+	public void setSkin(double skin)
+	{
+		if (skin != this.skin) {
+			this.skin = skin;
+			isValid = false;
+		}
+	}
+
+	/**
+	 * Sets the most steps for which the lists are used before they are built
+	 * again, however little the bodies have moved.
+	 * @param maxInterval the number of steps, or 0 for no limit.
+	 */
+	public void setMaxInterval(int maxInterval)
+	{
+		this.maxInterval = maxInterval;
+	}
+
+	/**
+	 * Builds the lists again if any body has moved more than half of the skin
+	 * or grown since they were last built.
+	 * @param xPos x-position of each body.
+	 * @param yPos y-position of each body.
+	 * @param radius radius of each body.
+	 * @param n the number of bodies.
+	 */
+	public void update(double[] xPos, double[] yPos, double[] radius, int n)
+	{
+		this.xPos = xPos;
+		this.yPos = yPos;
+		this.radius = radius;
+		if (isStale(n)) {
+			build(n);
+		}
+		else {
+			stepsSinceBuild++;
+		}
+	}
+
+	/**
+	 * Reports the pairs from the lists of the bodies in one part of the range
+	 * of indices whose bounding boxes now overlap.
+	 * @param part the part of the search, from 0 to nParts - 1.
+	 * @param nParts the number of parts the search is split into.
+	 * @param pairs the list to add the pairs to.
+	 */
+	public void findPairs(int part, int nParts, PairList pairs)
+	{
+		int from = (int) ((long) n * part / nParts);
+		int to = (int) ((long) n * (part + 1) / nParts);
+		for (int i = from; i < to; ++i) {
+			for (int a = first[i]; a < first[i + 1]; ++a) {
+				int j = neighbours[a];
+				double reach = radius[i] + radius[j];
+				if (Math.abs(xPos[j] - xPos[i]) < reach
+				    && Math.abs(yPos[j] - yPos[i]) < reach) {
+					pairs.add(i, j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the lists as out of date, since the indices of the bodies may
+	 * have changed.
+	 */
+	public void reset()
+	{
+		isValid = false;
+		broadPhase.reset();
+	}
+
+	/**
+	 * Decides whether the lists must be built again.
+	 * @param n the number of bodies.
+	 * @return true if the lists are out of date.
+	 */
+	private boolean isStale(int n)
+	{
+		if (!isValid || n != this.n
+		    || (maxInterval > 0 && stepsSinceBuild + 1 >= maxInterval)) {
+			return true;
+		}
+		double maxMove = skin / 2.0;
+		for (int i = 0; i < n; ++i) {
+			double dx = xPos[i] - xBuilt[i];
+			double dy = yPos[i] - yBuilt[i];
+			if (dx * dx + dy * dy > maxMove * maxMove
+			    || radius[i] > rBuilt[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the lists from the pairs found by the BroadPhase with every
+	 * radius enlarged by half of the skin.
+	 * @param n the number of bodies.
+	 */
+	private void build(int n)
+	{
+		this.n = n;
+		if (xBuilt.length < n) {
+			int capacity = Math.max(n, 2 * xBuilt.length);
+			xBuilt = new double[capacity];
+			yBuilt = new double[capacity];
+			rBuilt = new double[capacity];
+			rEnlarged = new double[capacity];
+			first = new int[capacity + 1];
+		}
+		for (int i = 0; i < n; ++i) {
+			xBuilt[i] = xPos[i];
+			yBuilt[i] = yPos[i];
+			rBuilt[i] = radius[i];
+			rEnlarged[i] = radius[i] + skin / 2.0;
+		}
+		broadPhase.update(xBuilt, yBuilt, rEnlarged, n);
+		built.clear();
+		broadPhase.findPairs(0, 1, built);
+
+		int nPairs = built.size();
+		if (neighbours.length < nPairs) {
+			neighbours = new int[Math.max(nPairs, 2 * neighbours.length)];
+		}
+		for (int i = 0; i <= n; ++i) {
+			first[i] = 0;
+		}
+		for (int k = 0; k < nPairs; ++k) {
+			first[built.getFirst(k) + 1]++;
+		}
+		for (int i = 0; i < n; ++i) {
+			first[i + 1] += first[i];
+		}
+		/* first[i + 1] now marks the end of the list of i; filling from the
+		 * end counts it back down to its start */
+		for (int k = 0; k < nPairs; ++k) {
+			neighbours[--first[built.getFirst(k) + 1]] = built.getSecond(k);
+		}
+		for (int i = 0; i < n; ++i) {
+			first[i] = first[i + 1];
+		}
+		first[n] = nPairs;
+
+		stepsSinceBuild = 0;
+		isValid = true;
+		data.incNeighbourRebuilds();
+	}
+
+}
@@ -0,0 +1,505 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+/**
+ * WisdomHolmanIntegrator is a symplectic map for systems dominated by the
+ * central star. Using democratic heliocentric coordinates (positions relative
+ * to the star, velocities relative to the centre of mass) the motion is split
+ * into a Kepler orbit of each body about the star, which is advanced exactly
+ * using universal variables, a drift due to the motion of the star, and kicks
+ * due to the interactions between the other bodies. The step is
+ * kick-drift-Kepler-drift-kick, so only the small interactions between bodies
+ * limit its length.
+ *
+ * The split is only valid while the interactions are small compared with the
+ * pull of the star, so whenever two bodies could come within a few mutual
+ * Hill radii of each other during a step that step is handed over to a
+ * BlockHermiteIntegrator instead.
+ *
+ * Test particles are treated as massless: they follow the star and the
+ * massive bodies without moving them.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class WisdomHolmanIntegrator implements Integrator
+{
+	/* separation, in mutual Hill radii, below which the split is abandoned */
+	private static final double ENCOUNTER_HILL_RADII = 3.0;
+	private static final int MAX_KEPLER_ITERATIONS = 50;
+	private static final int MAX_KEPLER_SPLITS = 8;
+	private static final double KEPLER_TOLERANCE = 1e-13;
+
+	private PlanetSim sim;
+	private DataAnalyser data;
+	private BlockHermiteIntegrator encounterIntegrator;
+	private boolean isInEncounter = false;
+
+	/* the bodies other than the star, in the order of the arrays below */
+	private Body[] planets = new Body[0];
+	private int n = 0;
+	/* heliocentric positions */
+	private double[] xHel = new double[0];
+	private double[] yHel = new double[0];
+	/* barycentric velocities */
+	private double[] xVelBar = new double[0];
+	private double[] yVelBar = new double[0];
+	private double[] mass = new double[0];
+	private boolean[] isMassive = new boolean[0];
+	/* indices of the massive bodies other than the star */
+	private int[] sources = new int[0];
+	private int nSources = 0;
+	/* accelerations due to the interactions between the planets */
+	private double[] xAcc = new double[0];
+	private double[] yAcc = new double[0];
+
+	/**
+	 * Creates a new WisdomHolmanIntegrator for the given simulation.
+	 * @param sim the PlanetSim whose bodies are integrated.
+	 * @param data the DataAnalyser to report close encounters to.
+	 */
+	public WisdomHolmanIntegrator(PlanetSim sim, DataAnalyser data)
+	{
+		this.sim = sim;
+		this.data = data;
+		encounterIntegrator = new BlockHermiteIntegrator(sim, data);
+	}
+
+	/**
+	 * Advances all of the bodies by one step of the map, or hands the step
+	 * over to the encounter integrator if the map is not valid for it.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the time step.
+	 */
+	public void step(Body[] bodies, double deltaT)
+	{
+		Body star = sim.getStar();
+		if (star == null || star.isDead()) {
+			stepEncounter(bodies, deltaT);
+			return;
+		}
+		star.updateMass();
+		double starMass = star.getMass();
+		double G = sim.getGravConst();
+		double softening = sim.getSoftening();
+
+		load(bodies, star);
+		if (hasEncounter(starMass, deltaT)) {
+			data.incEncounterSteps();
+			stepEncounter(bodies, deltaT);
+			return;
+		}
+		isInEncounter = false;
+
+		interact(G, softening);
+		kick(deltaT / 2.0);
+		starDrift(starMass, deltaT / 2.0);
+		double mu = G * starMass;
+		for (int i = 0; i < n; ++i) {
+			keplerDrift(i, mu, deltaT, 0);
+		}
+		starDrift(starMass, deltaT / 2.0);
+		interact(G, softening);
+		kick(deltaT / 2.0);
+
+		store(star, mu, deltaT);
+	}
+
+	/**
+	 * Forgets any state about the bodies.
+	 */
+	public void reset()
+	{
+		encounterIntegrator.reset();
+		isInEncounter = false;
+	}
+
+	/**
+	 * Takes a step with the encounter integrator. Its stored accelerations
+	 * are discarded when an encounter begins, since the bodies have been
+	 * moved by the map since it was last used.
+	 * @param bodies the bodies of the simulation.
+	 * @param deltaT the time step.
+	 */
+	private void stepEncounter(Body[] bodies, double deltaT)
+	{
+		if (!isInEncounter) {
+			encounterIntegrator.reset();
+			isInEncounter = true;
+		}
+		encounterIntegrator.step(bodies, deltaT);
+	}
+
+	/**
+	 * Converts the bodies other than the star into democratic heliocentric
+	 * coordinates.
+	 * @param bodies the bodies of the simulation.
+	 * @param star the central star.
+	 */
+	private void load(Body[] bodies, Body star)
+	{
+		n = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead() && body != star) {
+				n++;
+			}
+		}
+		if (planets.length < n) {
+			allocate(Math.max(n, 2 * planets.length));
+		}
+
+		double totalMass = star.getMass();
+		double xMom = totalMass * star.getXVel();
+		double yMom = totalMass * star.getYVel();
+		int i = 0;
+		nSources = 0;
+		for (Body body : bodies) {
+			if (body != null && !body.isDead() && body != star) {
+				body.updateMass();
+				planets[i] = body;
+				isMassive[i] = body.isMassive();
+				mass[i] = isMassive[i] ? body.getMass() : 0.0;
+				if (isMassive[i]) {
+					sources[nSources++] = i;
+				}
+				xHel[i] = body.getXPos() - star.getXPos();
+				yHel[i] = body.getYPos() - star.getYPos();
+				totalMass += mass[i];
+				xMom += mass[i] * body.getXVel();
+				yMom += mass[i] * body.getYVel();
+				i++;
+			}
+		}
+		double xVelCM = xMom / totalMass;
+		double yVelCM = yMom / totalMass;
+		for (i = 0; i < n; ++i) {
+			xVelBar[i] = planets[i].getXVel() - xVelCM;
+			yVelBar[i] = planets[i].getYVel() - yVelCM;
+		}
+	}
+
+	/**
+	 * Checks whether any two bodies, at least one of them massive, could come
+	 * within ENCOUNTER_HILL_RADII of their mutual Hill radius during the next
+	 * step.
+	 * @param starMass the mass of the star.
+	 * @param deltaT the time step.
+	 * @return true or false.
+	 */
+	private boolean hasEncounter(double starMass, double deltaT)
+	{
+		for (int i = 0; i < n; ++i) {
+			double ri = Math.sqrt(xHel[i] * xHel[i] + yHel[i] * yHel[i]);
+			for (int b = 0; b < nSources; ++b) {
+				int j = sources[b];
+				if (j == i || (isMassive[i] && j < i)) {
+					continue;
+				}
+				double dx = xHel[j] - xHel[i];
+				double dy = yHel[j] - yHel[i];
+				double dvx = xVelBar[j] - xVelBar[i];
+				double dvy = yVelBar[j] - yVelBar[i];
+				double rj = Math.sqrt(xHel[j] * xHel[j] + yHel[j] * yHel[j]);
+				double hill = Math.cbrt((mass[i] + mass[j]) / (3.0 * starMass))
+				              * (ri + rj) / 2.0;
+				double closest = Math.sqrt(dx * dx + dy * dy)
+				                 - Math.sqrt(dvx * dvx + dvy * dvy) * deltaT;
+				if (closest < ENCOUNTER_HILL_RADII * hill) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Calculates the accelerations due to the interactions between the
+	 * bodies other than the star. Each pair with at least one massive body
+	 * is visited once; since test particles have no mass here, they gain
+	 * an acceleration without giving one.
+	 * @param G the gravitational constant.
+	 * @param softening the softening length.
+	 */
+	private void interact(double G, double softening)
+	{
+		double eps2 = softening * softening;
+		for (int i = 0; i < n; ++i) {
+			xAcc[i] = 0.0;
+			yAcc[i] = 0.0;
+		}
+		for (int i = 0; i < n; ++i) {
+			for (int b = 0; b < nSources; ++b) {
+				int j = sources[b];
+				if (j == i || (isMassive[i] && j < i)) {
+					continue;
+				}
+				double dx = xHel[j] - xHel[i];
+				double dy = yHel[j] - yHel[i];
+				double rInv = 1.0 / Math.sqrt(dx * dx + dy * dy + eps2);
+				double rInv3 = G * rInv * rInv * rInv;
+				xAcc[i] += mass[j] * dx * rInv3;
+				yAcc[i] += mass[j] * dy * rInv3;
+				xAcc[j] -= mass[i] * dx * rInv3;
+				yAcc[j] -= mass[i] * dy * rInv3;
+			}
+		}
+	}
+
+	/**
+	 * Applies the interaction accelerations to the barycentric velocities.
+	 * @param dt the length of the kick.
+	 */
+	private void kick(double dt)
+	{
+		for (int i = 0; i < n; ++i) {
+			xVelBar[i] += xAcc[i] * dt;
+			yVelBar[i] += yAcc[i] * dt;
+		}
+	}
+
+	/**
+	 * Moves the heliocentric positions to account for the motion of the
+	 * star, which carries the momentum of all the other bodies.
+	 * @param starMass the mass of the star.
+	 * @param dt the length of the drift.
+	 */
+	private void starDrift(double starMass, double dt)
+	{
+		double xMom = 0.0;
+		double yMom = 0.0;
+		for (int i = 0; i < n; ++i) {
+			xMom += mass[i] * xVelBar[i];
+			yMom += mass[i] * yVelBar[i];
+		}
+		double xShift = xMom / starMass * dt;
+		double yShift = yMom / starMass * dt;
+		for (int i = 0; i < n; ++i) {
+			xHel[i] += xShift;
+			yHel[i] += yShift;
+		}
+	}
+
+	/**
+	 * Advances body i along its Kepler orbit about the star using universal
+	 * variables, which cover elliptic, parabolic and hyperbolic orbits alike.
+	 * If the solution for the universal anomaly does not converge the drift
+	 * is split into two halves.
+	 * @param i the index of the body.
+	 * @param mu the gravitational parameter G times the star's mass.
+	 * @param dt the length of the drift.
+	 * @param depth the number of times the drift has already been split.
+	 */
+	private void keplerDrift(int i, double mu, double dt, int depth)
+	{
+		double x0 = xHel[i];
+		double y0 = yHel[i];
+		double vx0 = xVelBar[i];
+		double vy0 = yVelBar[i];
+		double r0 = Math.sqrt(x0 * x0 + y0 * y0);
+		if (r0 == 0.0 || mu <= 0.0) {
+			xHel[i] += vx0 * dt;
+			yHel[i] += vy0 * dt;
+			return;
+		}
+		double sqrtMu = Math.sqrt(mu);
+		double rv = (x0 * vx0 + y0 * vy0) / sqrtMu;
+		double alpha = 2.0 / r0 - (vx0 * vx0 + vy0 * vy0) / mu;
+
+		double t = dt;
+		if (alpha > 0.0) {
+			/* whole orbits make no difference to a bound orbit */
+			double period = 2.0 * Math.PI / (sqrtMu * alpha * Math.sqrt(alpha));
+			t = dt % period;
+		}
+
+		double chi = initialAnomaly(r0, rv, alpha, sqrtMu, t);
+		double c = 0.5;
+		double s = 1.0 / 6.0;
+		double r = r0;
+		boolean converged = false;
+		for (int k = 0; k < MAX_KEPLER_ITERATIONS && !converged; ++k) {
+			double chi2 = chi * chi;
+			double z = alpha * chi2;
+			c = stumpffC(z);
+			s = stumpffS(z);
+			r = chi2 * c + rv * chi * (1.0 - z * s) + r0 * (1.0 - z * c);
+			double f = rv * chi2 * c + (1.0 - alpha * r0) * chi2 * chi * s
+			           + r0 * chi - sqrtMu * t;
+			double delta = f / r;
+			chi -= delta;
+			converged = Math.abs(delta) <= KEPLER_TOLERANCE
+			                                * Math.max(1.0, Math.abs(chi));
+		}
+		if (!converged || Double.isNaN(chi)) {
+			if (depth < MAX_KEPLER_SPLITS) {
+				keplerDrift(i, mu, dt / 2.0, depth + 1);
+				keplerDrift(i, mu, dt / 2.0, depth + 1);
+			}
+			else {
+				xHel[i] += vx0 * dt;
+				yHel[i] += vy0 * dt;
+			}
+			return;
+		}
+
+		double chi2 = chi * chi;
+		double z = alpha * chi2;
+		c = stumpffC(z);
+		s = stumpffS(z);
+		double f = 1.0 - chi2 / r0 * c;
+		double g = t - chi2 * chi / sqrtMu * s;
+		double x = f * x0 + g * vx0;
+		double y = f * y0 + g * vy0;
+		r = Math.sqrt(x * x + y * y);
+		double fDot = sqrtMu / (r * r0) * (z * chi * s - chi);
+		double gDot = 1.0 - chi2 / r * c;
+		xHel[i] = x;
+		yHel[i] = y;
+		xVelBar[i] = fDot * x0 + gDot * vx0;
+		yVelBar[i] = fDot * y0 + gDot * vy0;
+	}
+
+	/**
+	 * Makes an initial guess at the universal anomaly after a time t.
+	 * @param r0 the initial distance from the star.
+	 * @param rv the initial radial velocity times r0 / sqrt(mu).
+	 * @param alpha the reciprocal of the semi-major axis.
+	 * @param sqrtMu the square root of the gravitational parameter.
+	 * @param t the time.
+	 * @return the guess.
+	 */
+	private double initialAnomaly(double r0, double rv, double alpha,
+	                              double sqrtMu, double t)
+	{
+		if (alpha > 1e-12 / r0) {
+			return sqrtMu * t * alpha;
+		}
+		else if (alpha < -1e-12 / r0) {
+			double a = 1.0 / alpha;
+			double sign = Math.signum(t);
+			double guess = sign * Math.sqrt(-a)
+			               * Math.log(-2.0 * sqrtMu * sqrtMu * alpha * t
+			                          / (rv * sqrtMu + sign * Math.sqrt(-a)
+			                             * sqrtMu * (1.0 - r0 * alpha)));
+			if (!Double.isNaN(guess) && !Double.isInfinite(guess)) {
+				return guess;
+			}
+		}
+		return sqrtMu * t / r0;
+	}
+
+	/**
+	 * Writes the new state of the bodies back into them, converting from
+	 * democratic heliocentric coordinates to the simulation's coordinates,
+	 * and stores their accelerations for the adaptive time step.
+	 * @param star the central star.
+	 * @param mu the gravitational parameter G times the star's mass.
+	 * @param deltaT the time step.
+	 */
+	private void store(Body star, double mu, double deltaT)
+	{
+		double starMass = star.getMass();
+		double totalMass = starMass;
+		double xMassPos = starMass * star.getXPos();
+		double yMassPos = starMass * star.getYPos();
+		double xMom = starMass * star.getXVel();
+		double yMom = starMass * star.getYVel();
+		double xMassHel = 0.0;
+		double yMassHel = 0.0;
+		double xMomBar = 0.0;
+		double yMomBar = 0.0;
+		for (int i = 0; i < n; ++i) {
+			Body body = planets[i];
+			totalMass += mass[i];
+			xMassPos += mass[i] * body.getXPos();
+			yMassPos += mass[i] * body.getYPos();
+			xMom += mass[i] * body.getXVel();
+			yMom += mass[i] * body.getYVel();
+			xMassHel += mass[i] * xHel[i];
+			yMassHel += mass[i] * yHel[i];
+			xMomBar += mass[i] * xVelBar[i];
+			yMomBar += mass[i] * yVelBar[i];
+		}
+		double xVelCM = xMom / totalMass;
+		double yVelCM = yMom / totalMass;
+		double xCM = xMassPos / totalMass + xVelCM * deltaT;
+		double yCM = yMassPos / totalMass + yVelCM * deltaT;
+
+		double xStar = xCM - xMassHel / totalMass;
+		double yStar = yCM - yMassHel / totalMass;
+		double xStarAcc = 0.0;
+		double yStarAcc = 0.0;
+		for (int i = 0; i < n; ++i) {
+			Body body = planets[i];
+			body.setXPos(xStar + xHel[i]);
+			body.setYPos(yStar + yHel[i]);
+			body.setXVel(xVelCM + xVelBar[i]);
+			body.setYVel(yVelCM + yVelBar[i]);
+			double r2 = xHel[i] * xHel[i] + yHel[i] * yHel[i];
+			double rInv3 = 1.0 / (r2 * Math.sqrt(r2));
+			body.setAcceleration(xAcc[i] - mu * xHel[i] * rInv3,
+			                     yAcc[i] - mu * yHel[i] * rInv3);
+			xStarAcc += mu / starMass * mass[i] * xHel[i] * rInv3;
+			yStarAcc += mu / starMass * mass[i] * yHel[i] * rInv3;
+		}
+		star.setXPos(xStar);
+		star.setYPos(yStar);
+		star.setXVel(xVelCM - xMomBar / starMass);
+		star.setYVel(yVelCM - yMomBar / starMass);
+		star.setAcceleration(xStarAcc, yStarAcc);
+	}
+
+	/**
+	 * Allocates the arrays holding the bodies other than the star.
+	 * @param capacity the number of bodies the arrays can hold.
+	 */
+	private void allocate(int capacity)
+	{
+		planets = new Body[capacity];
+		xHel = new double[capacity];
+		yHel = new double[capacity];
+		xVelBar = new double[capacity];
+		yVelBar = new double[capacity];
+		mass = new double[capacity];
+		isMassive = new boolean[capacity];
+		sources = new int[capacity];
+		xAcc = new double[capacity];
+		yAcc = new double[capacity];
+	}
+
+	/**
+	 * Calculates the Stumpff function c2(z) = (1 - cos(sqrt(z))) / z.
+	 * @param z the argument.
+	 * @return the value.
+	 */
+	private static double stumpffC(double z)
+	{
+		if (z > 1e-4) {
+			return (1.0 - Math.cos(Math.sqrt(z))) / z;
+		}
+		else if (z < -1e-4) {
+			return (Math.cosh(Math.sqrt(-z)) - 1.0) / -z;
+		}
+		return 1.0 / 2.0 - z / 24.0 + z * z / 720.0;
+	}
+
+	/**
+	 * Calculates the Stumpff function
+	 * c3(z) = (sqrt(z) - sin(sqrt(z))) / sqrt(z)^3.
+	 * @param z the argument.
+	 * @return the value.
+	 */
+	private static double stumpffS(double z)
+	{
+		if (z > 1e-4) {
+			double sz = Math.sqrt(z);
+			return (sz - Math.sin(sz)) / (sz * z);
+		}
+		else if (z < -1e-4) {
+			double sz = Math.sqrt(-z);
+			return (Math.sinh(sz) - sz) / (sz * -z);
+		}
+		return 1.0 / 6.0 - z / 120.0 + z * z / 5040.0;
+	}
+
+}
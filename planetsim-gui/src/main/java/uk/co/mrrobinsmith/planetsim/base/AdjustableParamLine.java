@@ -4,6 +4,7 @@ import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.Executor;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -14,7 +15,10 @@ import javax.swing.JPanel;
  * AdjustableParamLine extends ParamLine to provide functionality for displaying
  * a Parameter's name, its value and either: a label indicating the Parameter's
  * value is fixed during simulation run-time; a pair of buttons for increasing
- * and decreasing the Parameter's value.
+ * and decreasing the Parameter's value. Each change to the value is passed to
+ * an Executor, so that the simulation can apply it at a safe moment; the
+ * value shown is updated by the AdjustableParamPanel once the change has
+ * been made.
  * 
  * @author Robin Smith
  * @version 1 (11/11/2010)
@@ -27,6 +31,9 @@ public class AdjustableParamLine extends ParamLine
 	
     private static final String INFO_TEXT = "fixed";
     private static final int INFO_WIDTH = 14;
+    
+    /* runs each change to the Parameter's value */
+    private Executor executor;
 	
     /**
      * Creates a new AdjustableParamLine given a Parameter and a width for the
@@ -37,8 +44,27 @@ public class AdjustableParamLine extends ParamLine
 	 * @param nameWidth integer width for the Parameter's name label.
      */
 	public AdjustableParamLine(Parameter param, int nameWidth)
+	{
+		this(param, nameWidth, new Executor() {
+			public void execute(Runnable command)
+			{
+				command.run();
+			}
+		});
+	}
+	
+    /**
+     * Creates a new AdjustableParamLine which passes each change to its
+     * Parameter's value to the given Executor.
+	 * @param param Parameter to be held by this ParamLine.
+	 * @param nameWidth integer width for the Parameter's name label.
+	 * @param executor the Executor which runs each change.
+     */
+	public AdjustableParamLine(Parameter param, int nameWidth,
+	                           Executor executor)
 	{
 		super(param, nameWidth);
+		this.executor = executor;
 		
 		LINE_WIDTH = NAME_LABEL_WIDTH + VALUE_LABEL_WIDTH + 2 * BUTTON_WIDTH;
 		this.setPreferredSize(new Dimension(LINE_WIDTH, LINE_HEIGHT));
@@ -57,11 +83,10 @@ public class AdjustableParamLine extends ParamLine
     	labelPanel.setLayout(new BorderLayout());
     	labelPanel.add(createNameLabel(), BorderLayout.WEST);
         
-    	JLabel valueLabel = createValueLabel();
-    	labelPanel.add(valueLabel, BorderLayout.EAST);
+    	labelPanel.add(createValueLabel(), BorderLayout.EAST);
     	this.add(labelPanel, BorderLayout.WEST);
             
-    	this.add(createActionPanel(valueLabel), BorderLayout.EAST);
+    	this.add(createActionPanel(), BorderLayout.EAST);
 	}
 	
 	/**
@@ -71,14 +96,14 @@ public class AdjustableParamLine extends ParamLine
 	 * parameter the 'action' panel contains buttons for adjusting its value.
 	 * @return the JPanel.
 	 */
-	private JPanel createActionPanel(JLabel valueLabel)
+	private JPanel createActionPanel()
     {
     	JPanel actionPanel = new JPanel();
     	actionPanel.setLayout(new GridLayout(1, 0));
     	
     	if (param.isAdjustable()) {
-    		actionPanel.add(createIncrementButton(valueLabel));
-            actionPanel.add(createDecrementButton(valueLabel));
+    		actionPanel.add(createIncrementButton());
+            actionPanel.add(createDecrementButton());
            }
         else {
         	JLabel label;
@@ -92,21 +117,20 @@ public class AdjustableParamLine extends ParamLine
        
 	/**
 	 * Used by createActionPanel() to create the increment button.
-	 * @param valueLabel the JLabel showing the Parameter's value which can be
-	 * incremented using this button.
 	 * @return the JButton.
 	 */
-	private JButton createIncrementButton(JLabel valueLabel)
+	private JButton createIncrementButton()
 	{
 		JButton button = new JButton("+");
         //button.setPreferredSize(new Dimension(BUTTON_WIDTH, LINE_HEIGHT));
         final Parameter p = param;
-        final JLabel l = valueLabel;
         button.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
-        	p.incValue();
-        	String text = NUM_PREFIX + param.getValueString() + NUM_SUFFIX;
-        	l.setText(Formatter.formatString(text, VALUE_WIDTH));
+        	executor.execute(new Runnable() {
+        		public void run() {
+        			p.incValue();
+        		}
+        	});
         	}
         });
         return button;
@@ -114,21 +138,20 @@ public class AdjustableParamLine extends ParamLine
 	
 	/**
 	 * Used by createActionPanel() to create the decrement button.
-	 * @param valueLabel the JLabel showing the Parameter's value which can be
-	 * decremented using this button.
 	 * @return the JButton.
 	 */
-	private JButton createDecrementButton(JLabel valueLabel)
+	private JButton createDecrementButton()
 	{
         JButton button = new JButton("-");
         button.setPreferredSize(new Dimension(BUTTON_WIDTH, LINE_HEIGHT));
         final Parameter p = param;
-        final JLabel l = valueLabel;
         button.addActionListener(new ActionListener() {
         public void actionPerformed(ActionEvent e) {
-        	p.decValue();
-        	String text = NUM_PREFIX + param.getValueString() + NUM_SUFFIX;
-        	l.setText(Formatter.formatString(text, VALUE_WIDTH));
+        	executor.execute(new Runnable() {
+        		public void run() {
+        			p.decValue();
+        		}
+        	});
         	}
         });
         return button;
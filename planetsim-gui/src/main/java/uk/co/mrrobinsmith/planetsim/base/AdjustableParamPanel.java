@@ -0,0 +1,95 @@
+package uk.co.mrrobinsmith.planetsim.base;
+import java.awt.*;
+import java.util.concurrent.Executor;
+
+
+/**
+ * AdjustableParamPanel extends ParamPanel to provide a JPanel which displays a
+ * set of Parameters using AdjustableParamLines. AdjustableParamPanel allows
+ * adjustment of adjustable Parameters during running of the simulation.
+ * Changes can be passed to an Executor so that they are made by the
+ * simulation thread between steps. The values shown are updated by listening
+ * to the ParameterRegistry holding the Parameters, so a change is shown once
+ * it has been made, whichever way it was made.
+ * 
+ * @author Robin Smith
+ * @version 1 (19/10/2010)
+ */
+
+public class AdjustableParamPanel extends ParamPanel
+{
+    private static final long serialVersionUID = 2407717884636741269L;
+    
+    private Executor executor;
+    
+    /**
+     * Creates a new AdjustableParamPanel given an array of Parameters.
+     * @param params Parameters to be displayed by this AdjustableParamPanel.
+     */
+    public AdjustableParamPanel(Parameter[] params)
+    {
+    	this(params, new Executor() {
+    		public void execute(Runnable command)
+    		{
+    			command.run();
+    		}
+    	});
+    }
+    
+    /**
+     * Creates a new AdjustableParamPanel whose changes to the Parameters are
+     * run by the given Executor. The values shown are not updated unless the
+     * panel is added as a listener to the ParameterRegistry holding the
+     * Parameters.
+     * @param params Parameters to be displayed by this AdjustableParamPanel.
+     * @param executor the Executor which runs each change.
+     */
+    public AdjustableParamPanel(Parameter[] params, Executor executor)
+    {
+    	super(params);
+    	this.executor = executor;
+    	
+    	paramLines = new AdjustableParamLine[params.length];
+    	
+    	PANEL_HEIGHT = N_PARAMS * LINE_HEIGHT;
+    	
+        createPanel();
+    }
+    
+    /**
+     * Creates a new AdjustableParamPanel whose changes to the Parameters are
+     * run by the given Executor, and which shows the changes to the
+     * Parameters passed on by the ParameterRegistry holding them.
+     * @param params Parameters to be displayed by this AdjustableParamPanel.
+     * @param executor the Executor which runs each change.
+     * @param registry the ParameterRegistry holding the Parameters.
+     */
+    public AdjustableParamPanel(Parameter[] params, Executor executor,
+                                ParameterRegistry registry)
+    {
+    	this(params, executor);
+    	registry.addListener(this);
+    }
+    
+    /**
+     * Constructs the AdjustableParamPanel; used by the constructor.
+     */
+    protected void createPanel()
+    {
+        this.setLayout(new GridLayout(0, 1));
+        
+        AdjustableParamLine paramLine;
+        for (int i = 0; i < N_PARAMS; ++i) {
+        	paramLine = new AdjustableParamLine(params[i], MAX_NAME_WIDTH,
+        	                                    executor);
+        	paramLines[i] = paramLine;
+        	this.add(paramLine);
+        }
+        
+        PANEL_WIDTH = paramLines[0].getLineWidth();
+        this.setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
+    }
+
+}
+
+
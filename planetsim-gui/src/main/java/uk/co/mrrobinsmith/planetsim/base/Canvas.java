@@ -2,11 +2,19 @@ package uk.co.mrrobinsmith.planetsim.base;
 import javax.swing.*;
 
 import java.awt.*;
-import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 
 /**
  * Class Canvas - a class to allow for simple graphical drawing on a canvas.
  * 
+ * Drawing goes into a back image, and the region it touches is copied to
+ * the front image which is painted on screen. Each drawing call is copied
+ * and repainted on its own, unless it falls between beginFrame() and
+ * endFrame(), in which case the union of all the regions drawn in the frame
+ * is copied and repainted once when the frame ends. Circles and rectangles
+ * are written straight into the pixels of the back image by a
+ * PixelRasterizer, and allocate nothing.
+ * 
  * @author Michael Kolling (mik)
  * @author Bruce Quig
  * 
@@ -17,7 +25,20 @@ public class Canvas {
 	private CanvasPane canvas;
 	private Graphics2D graphic;
 	private Color backgroundColor;
-	private Image canvasImage;
+	private BufferedImage canvasImage;
+	private PixelRasterizer rasterizer;
+	/* the image painted on screen, and the lock held while it is used */
+	private Image frontImage;
+	private Graphics2D frontGraphic;
+	private final Object frontLock = new Object();
+	/* whether drawing is between beginFrame() and endFrame() */
+	private boolean isBatching = false;
+	/* the region drawn since it was last copied to the front, if any */
+	private boolean isDirty = false;
+	private int dirtyX1;
+	private int dirtyY1;
+	private int dirtyX2;
+	private int dirtyY2;
 	
 	
     /**
@@ -58,15 +79,108 @@ public class Canvas {
 			// first time: instantiate the offscreen image and fill it with
 			// the background color
 			Dimension size = canvas.getSize();
-			canvasImage = canvas.createImage(size.width, size.height);
-			graphic = (Graphics2D) canvasImage.getGraphics();
+			canvasImage = new BufferedImage(size.width, size.height,
+					BufferedImage.TYPE_INT_RGB);
+			rasterizer = new PixelRasterizer(canvasImage);
+			graphic = canvasImage.createGraphics();
 			graphic.setColor(backgroundColor);
 			graphic.fillRect(0, 0, size.width, size.height);
 			graphic.setColor(Color.black);
-			canvas.repaint();
+			frontImage = canvas.createImage(size.width, size.height);
+			frontGraphic = (Graphics2D) frontImage.getGraphics();
+			changedAll();
 		}
 	}
 
+	/**
+	 * Starts a frame. Until endFrame() is called, drawing only goes into the
+	 * back image, and the regions drawn are gathered up.
+	 */
+	public void beginFrame() {
+		isBatching = true;
+	}
+
+	/**
+	 * Ends a frame, copying the union of the regions drawn during it to the
+	 * front image and asking for that region alone to be repainted.
+	 */
+	public void endFrame() {
+		isBatching = false;
+		flush();
+	}
+
+	/**
+	 * Notes that the region of a shape drawn through Java2D has changed.
+	 * 
+	 * @param area
+	 *            the bounds of the shape
+	 */
+	private void changed(Rectangle area) {
+		/* a pixel either side for antialiased edges */
+		changed(area.x - 1, area.y - 1, area.width + 2, area.height + 2);
+	}
+
+	/**
+	 * Notes that a region of the back image has been drawn, copying it to
+	 * the front straight away unless a frame is being drawn.
+	 * 
+	 * @param x
+	 *            x co-ordinate of the left of the region
+	 * @param y
+	 *            y co-ordinate of the top of the region
+	 * @param width
+	 *            the width of the region
+	 * @param height
+	 *            the height of the region
+	 */
+	private void changed(int x, int y, int width, int height) {
+		if (!isDirty) {
+			dirtyX1 = x;
+			dirtyY1 = y;
+			dirtyX2 = x + width;
+			dirtyY2 = y + height;
+			isDirty = true;
+		} else {
+			dirtyX1 = Math.min(dirtyX1, x);
+			dirtyY1 = Math.min(dirtyY1, y);
+			dirtyX2 = Math.max(dirtyX2, x + width);
+			dirtyY2 = Math.max(dirtyY2, y + height);
+		}
+		if (!isBatching) {
+			flush();
+		}
+	}
+
+	/**
+	 * Notes that the whole of the back image has been drawn.
+	 */
+	private void changedAll() {
+		changed(0, 0, canvasImage.getWidth(), canvasImage.getHeight());
+	}
+
+	/**
+	 * Copies the region drawn since the last copy to the front image and asks
+	 * for it to be repainted.
+	 */
+	private void flush() {
+		if (!isDirty) {
+			return;
+		}
+		isDirty = false;
+		int x1 = Math.max(dirtyX1, 0);
+		int y1 = Math.max(dirtyY1, 0);
+		int x2 = Math.min(dirtyX2, canvasImage.getWidth());
+		int y2 = Math.min(dirtyY2, canvasImage.getHeight());
+		if (x1 >= x2 || y1 >= y2) {
+			return;
+		}
+		synchronized (frontLock) {
+			frontGraphic.drawImage(canvasImage, x1, y1, x2, y2, x1, y1, x2, y2,
+					null);
+		}
+		canvas.repaint(x1, y1, x2 - x1, y2 - y1);
+	}
+
 	/**
 	 * Draw the outline of a given shape onto the canvas.
 	 * 
@@ -75,7 +189,7 @@ public class Canvas {
 	 */
 	public void draw(Shape shape) {
 		graphic.draw(shape);
-		canvas.repaint();
+		changed(shape.getBounds());
 	}
 
 	/**
@@ -87,7 +201,7 @@ public class Canvas {
 	 */
 	public void fill(Shape shape) {
 		graphic.fill(shape);
-		canvas.repaint();
+		changed(shape.getBounds());
 	}
 
 	/**
@@ -95,9 +209,39 @@ public class Canvas {
 	 * foreground color of the canvas.
 	 */
 	public void fillCircle(int xPos, int yPos, int diameter) {
-		Ellipse2D.Double circle = new Ellipse2D.Double(xPos, yPos,
-		                                               diameter, diameter);
-		fill(circle);
+		rasterizer.fillCircle(xPos, yPos, diameter, graphic.getColor().getRGB());
+		changed(xPos, yPos, diameter, diameter);
+	}
+
+	/**
+	 * Draws a Sprite onto the canvas, blending its edges with what is
+	 * beneath.
+	 * 
+	 * @param sprite
+	 *            the Sprite
+	 * @param xPos
+	 *            x co-ordinate of the left of the Sprite
+	 * @param yPos
+	 *            y co-ordinate of the top of the Sprite
+	 */
+	public void drawSprite(Sprite sprite, int xPos, int yPos) {
+		rasterizer.drawSprite(sprite, xPos, yPos);
+		changed(xPos, yPos, sprite.getSize(), sprite.getSize());
+	}
+
+	/**
+	 * Erases every pixel which a Sprite covers.
+	 * 
+	 * @param sprite
+	 *            the Sprite
+	 * @param xPos
+	 *            x co-ordinate of the left of the Sprite
+	 * @param yPos
+	 *            y co-ordinate of the top of the Sprite
+	 */
+	public void eraseSprite(Sprite sprite, int xPos, int yPos) {
+		rasterizer.eraseSprite(sprite, xPos, yPos, backgroundColor.getRGB());
+		changed(xPos, yPos, sprite.getSize(), sprite.getSize());
 	}
 
 	/**
@@ -106,19 +250,18 @@ public class Canvas {
 	 * effect can be achieved with the "fill" method.
 	 */
 	public void fillRectangle(int xPos, int yPos, int width, int height) {
-		fill(new Rectangle(xPos, yPos, width, height));
+		rasterizer.fillRect(xPos, yPos, width, height,
+				graphic.getColor().getRGB());
+		changed(xPos, yPos, width, height);
 	}
 
 	/**
 	 * Erase the whole canvas.
 	 */
 	public void erase() {
-		Color original = graphic.getColor();
-		graphic.setColor(backgroundColor);
-		Dimension size = canvas.getSize();
-		graphic.fill(new Rectangle(0, 0, size.width, size.height));
-		graphic.setColor(original);
-		canvas.repaint();
+		rasterizer.fillRect(0, 0, canvasImage.getWidth(),
+				canvasImage.getHeight(), backgroundColor.getRGB());
+		changedAll();
 	}
 
 	/**
@@ -126,9 +269,8 @@ public class Canvas {
 	 * method. A similar effect can be achieved with the "erase" method.
 	 */
 	public void eraseCircle(int xPos, int yPos, int diameter) {
-		Ellipse2D.Double circle = new Ellipse2D.Double(xPos, yPos, diameter,
-				diameter);
-		erase(circle);
+		rasterizer.fillCircle(xPos, yPos, diameter, backgroundColor.getRGB());
+		changed(xPos, yPos, diameter, diameter);
 	}
 
 	/**
@@ -137,7 +279,9 @@ public class Canvas {
 	 * method.
 	 */
 	public void eraseRectangle(int xPos, int yPos, int width, int height) {
-		erase(new Rectangle(xPos, yPos, width, height));
+		rasterizer.fillRect(xPos, yPos, width, height,
+				backgroundColor.getRGB());
+		changed(xPos, yPos, width, height);
 	}
 
 	/**
@@ -151,7 +295,7 @@ public class Canvas {
 		graphic.setColor(backgroundColor);
 		graphic.fill(shape); // erase by filling background color
 		graphic.setColor(original);
-		canvas.repaint();
+		changed(shape.getBounds());
 	}
 
 	/**
@@ -165,7 +309,7 @@ public class Canvas {
 		graphic.setColor(backgroundColor);
 		graphic.draw(shape); // erase by drawing background color
 		graphic.setColor(original);
-		canvas.repaint();
+		changed(shape.getBounds());
 	}
 
 	/**
@@ -182,7 +326,13 @@ public class Canvas {
 	 */
 	public boolean drawImage(Image image, int x, int y) {
 		boolean result = graphic.drawImage(image, x, y, null);
-		canvas.repaint();
+		int width = image.getWidth(null);
+		int height = image.getHeight(null);
+		if (width < 0 || height < 0) {
+			changedAll();
+		} else {
+			changed(new Rectangle(x, y, width, height));
+		}
 		return result;
 	}
 
@@ -198,7 +348,7 @@ public class Canvas {
 	 */
 	public void drawString(String text, int x, int y) {
 		graphic.drawString(text, x, y);
-		canvas.repaint();
+		changed(stringBounds(text, x, y));
 	}
 
 	/**
@@ -216,7 +366,25 @@ public class Canvas {
 		graphic.setColor(backgroundColor);
 		graphic.drawString(text, x, y);
 		graphic.setColor(original);
-		canvas.repaint();
+		changed(stringBounds(text, x, y));
+	}
+
+	/**
+	 * Gets the region covered by a String drawn in the current font.
+	 * 
+	 * @param text
+	 *            the String
+	 * @param x
+	 *            x co-ordinate of the String
+	 * @param y
+	 *            y co-ordinate of the baseline of the String
+	 * @return the region
+	 */
+	private Rectangle stringBounds(String text, int x, int y) {
+		FontMetrics metrics = graphic.getFontMetrics();
+		return new Rectangle(x, y - metrics.getAscent(),
+				metrics.stringWidth(text),
+				metrics.getAscent() + metrics.getDescent());
 	}
 
 	/**
@@ -233,7 +401,8 @@ public class Canvas {
 	 */
 	public void drawLine(int x1, int y1, int x2, int y2) {
 		graphic.drawLine(x1, y1, x2, y2);
-		canvas.repaint();
+		changed(new Rectangle(Math.min(x1, x2), Math.min(y1, y2),
+				Math.abs(x2 - x1) + 1, Math.abs(y2 - y1) + 1));
 	}
 
 	/**
@@ -305,9 +474,21 @@ public class Canvas {
 	public void setSize(int width, int height) {
 		canvas.setPreferredSize(new Dimension(width, height));
 		Image oldImage = canvasImage;
-		canvasImage = canvas.createImage(width, height);
-		graphic = (Graphics2D) canvasImage.getGraphics();
+		Color color = graphic.getColor();
+		Font font = graphic.getFont();
+		canvasImage = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		rasterizer = new PixelRasterizer(canvasImage);
+		graphic = canvasImage.createGraphics();
 		graphic.drawImage(oldImage, 0, 0, null);
+		graphic.setColor(color);
+		graphic.setFont(font);
+		synchronized (frontLock) {
+			frontImage = canvas.createImage(width, height);
+			frontGraphic = (Graphics2D) frontImage.getGraphics();
+			frontGraphic.drawImage(canvasImage, 0, 0, null);
+		}
+		canvas.repaint();
 	}
 
 	/**
@@ -347,7 +528,9 @@ public class Canvas {
 		private static final long serialVersionUID = 1L;
 
 		public void paint(Graphics g) {
-			g.drawImage(canvasImage, 0, 0, null);
+			synchronized (frontLock) {
+				g.drawImage(frontImage, 0, 0, null);
+			}
 		}
 	}
 }
@@ -2,14 +2,12 @@ package uk.co.mrrobinsmith.planetsim.base;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 
-import javax.swing.JLabel;
-
 
 /**
  * DataParamLine displays a Parameter associated with a DataAnalyser object.
  * As such the displayed Parameters are dynamic during running of the
  * simulation that is using the DataAnalyser object and the DataParamLine's
- * display is updated when these values change.
+ * display is updated by its DataParamPanel when these values change.
  * 
  * @author Robin Smith
  * @version 1 (11/11/2010)
@@ -18,8 +16,6 @@ import javax.swing.JLabel;
 public class DataParamLine extends ParamLine
 {
 	private static final long serialVersionUID = 4873906016259042710L;
-    
-    private JLabel valueLabel;
 
     /**
      * Creates a DataParamLine given a Parameter (which must be one of the 
@@ -32,12 +28,6 @@ public class DataParamLine extends ParamLine
 		super(param, lineWidth);
 		
 		this.param = param;
-		if (param.getType() == Parameter.INT) {
-			((IntDataParameter) param).setParamLine(this);
-		}
-		else if (param.getType() == Parameter.DOUBLE) {
-			((DoubleDataParameter) param).setParamLine(this);
-		}
 		
 		LINE_WIDTH = NAME_LABEL_WIDTH + VALUE_LABEL_WIDTH;
 		this.setPreferredSize(new Dimension(LINE_WIDTH, LINE_HEIGHT));
@@ -52,17 +42,7 @@ public class DataParamLine extends ParamLine
 	{
 		this.setLayout(new BorderLayout());
     	this.add(createNameLabel(), BorderLayout.WEST);
-    	valueLabel = createValueLabel();
-    	this.add(valueLabel, BorderLayout.EAST);
+    	this.add(createValueLabel(), BorderLayout.EAST);
 	}
-    
-    /**
-     * Updates the Parameter value displayed by this DataParamLine.
-     */
-    public void updateDisplay()
-    {
-    	String s = param.getValueString();
-    	valueLabel.setText(Formatter.leftJustify(s, VALUE_WIDTH));
-    }
 	
 }
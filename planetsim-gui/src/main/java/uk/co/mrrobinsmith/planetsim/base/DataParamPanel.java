@@ -5,7 +5,8 @@ import java.awt.*;
 /**
  * DataParamPanel extends ParamPanel to provide a JPanel displaying the
  * Parameters of a DataAnalyser, which are dynamic during running of the
- * simulation.
+ * simulation. The panel listens to the ParameterRegistry holding the
+ * Parameters and redraws the lines of those which have changed.
  * 
  * @author Robin Smith
  * @version 1 (11/11/2010)
@@ -29,6 +30,18 @@ public class DataParamPanel extends ParamPanel {
 		createPanel();
 	}
 	
+	/**
+	 * Creates a new DataParamPanel given an array of Parameters and the
+	 * ParameterRegistry holding them, whose changes it displays.
+	 * @param params Parameters to be displayed by this DataParamPanel.
+	 * @param registry the ParameterRegistry holding the Parameters.
+	 */
+	public DataParamPanel(Parameter[] params, ParameterRegistry registry)
+	{
+		this(params);
+		registry.addListener(this);
+	}
+	
 	/**
 	 * Constructs the DataParamPanel.
 	 */
@@ -39,6 +52,7 @@ public class DataParamPanel extends ParamPanel {
         DataParamLine paramLine;
         for (int i = 0; i < N_PARAMS; ++i) {
         	paramLine = new DataParamLine(params[i], MAX_NAME_WIDTH);
+        	paramLine.updateDisplay();
         	paramLines[i] = paramLine;
         	this.add(paramLine);
         }
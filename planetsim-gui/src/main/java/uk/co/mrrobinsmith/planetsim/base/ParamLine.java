@@ -42,6 +42,8 @@ public abstract class ParamLine extends JPanel
 
 	
 	protected Parameter param;
+	/* the label showing the Parameter's value, if the line has one */
+	protected JLabel valueLabel = null;
 	
 	/**
 	 * Sets up a new ParamLine given a Parameter and an integer width for the
@@ -87,9 +89,22 @@ public abstract class ParamLine extends JPanel
         String s = Formatter.formatString(text, VALUE_WIDTH);
         label = new JLabel(Formatter.leftJustify(s, VALUE_WIDTH));
         label.setFont(VALUE_FONT);
+        valueLabel = label;
         return label;
     }
     
+    /**
+     * Updates the Parameter value displayed by this ParamLine, if it shows
+     * one. Must be called on the event dispatch thread.
+     */
+    public void updateDisplay()
+    {
+    	if (valueLabel != null) {
+    		String text = NUM_PREFIX + param.getValueString() + NUM_SUFFIX;
+    		valueLabel.setText(Formatter.formatString(text, VALUE_WIDTH));
+    	}
+    }
+    
     /**
      * Gets the width of the ParamLine.
      * @return the int width.
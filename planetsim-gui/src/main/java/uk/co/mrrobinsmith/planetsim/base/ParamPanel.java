@@ -7,11 +7,16 @@ import javax.swing.*;
  * and specific functionality of the ParamLine are defined by concrete
  * subclasses which implement the method createParaml().
  * 
+ * A ParamPanel can listen to the ParameterRegistry holding its Parameters, in
+ * which case it redraws the lines of those which have changed. Changes
+ * arriving faster than the event dispatch thread can draw them are merged,
+ * so at most one redraw is waiting at any time.
+ * 
  * @author Robin Smith
  * @version 1 (19/10/2010)
  */
 
-public abstract class ParamPanel extends JPanel
+public abstract class ParamPanel extends JPanel implements ParameterListener
 {
     private static final long serialVersionUID = 2407717884636741269L;
 	
@@ -24,6 +29,10 @@ public abstract class ParamPanel extends JPanel
     protected Parameter[] params;
     protected ParamLine[] paramLines;
     protected int N_PARAMS;
+    
+    /* lines whose Parameters have changed since they were last redrawn */
+    private boolean[] isDirty;
+    private boolean isRedrawPending = false;
 
     /**
      * Creates a ParamPanel given an array of Parameters.
@@ -35,6 +44,7 @@ public abstract class ParamPanel extends JPanel
     	
     	N_PARAMS = params.length;
         MAX_NAME_WIDTH = getMaxNameWidth();
+        isDirty = new boolean[N_PARAMS];
     }
     
     /**
@@ -55,7 +65,56 @@ public abstract class ParamPanel extends JPanel
     	return PANEL_HEIGHT;
     }
     
-
+	/**
+	 * Notes which of the displayed Parameters have changed and asks the
+	 * event dispatch thread to redraw them, unless it has already been asked.
+	 * @param registry the ParameterRegistry holding the Parameters.
+	 * @param slots the slots of the Parameters which have changed.
+	 */
+	public void parametersChanged(ParameterRegistry registry, int[] slots)
+	{
+		boolean isNew;
+		synchronized (isDirty) {
+			for (int slot : slots) {
+				Parameter param = registry.getParameter(slot);
+				for (int i = 0; i < N_PARAMS; ++i) {
+					if (params[i] == param) {
+						isDirty[i] = true;
+					}
+				}
+			}
+			isNew = !isRedrawPending;
+			isRedrawPending = true;
+		}
+		if (isNew) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run()
+				{
+					redraw();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Redraws the lines whose Parameters have changed.
+	 */
+	private void redraw()
+	{
+		boolean[] lines = new boolean[N_PARAMS];
+		synchronized (isDirty) {
+			for (int i = 0; i < N_PARAMS; ++i) {
+				lines[i] = isDirty[i];
+				isDirty[i] = false;
+			}
+			isRedrawPending = false;
+		}
+		for (int i = 0; i < N_PARAMS; ++i) {
+			if (lines[i]) {
+				paramLines[i].updateDisplay();
+			}
+		}
+	}
     
     /**
      * Gets the length of the longest Parameter name of the Parameters displayed
@@ -0,0 +1,203 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * PixelRasterizer draws filled circles and rectangles straight into the
+ * pixels of a BufferedImage of type TYPE_INT_RGB, which is much quicker than
+ * filling shapes through Java2D for the small dots of a simulation. Each
+ * circle is drawn from a table of spans, the first and last pixel of each of
+ * its rows, made the first time a circle of that diameter is drawn, so that
+ * drawing allocates nothing once every diameter has been seen. Sprites made
+ * ahead of time may also be copied in, blending their edges with what is
+ * beneath. Everything drawn is clipped to the image.
+ * 
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class PixelRasterizer {
+	private final int[] pixels;
+	private final int width;
+	private final int height;
+	/* for each diameter, the first and last column of each row of a circle */
+	private int[][] spanStarts = new int[0][];
+	private int[][] spanEnds = new int[0][];
+
+	/**
+	 * Creates a PixelRasterizer which draws into a BufferedImage.
+	 * 
+	 * @param image
+	 *            an image of type TYPE_INT_RGB
+	 */
+	public PixelRasterizer(BufferedImage image) {
+		pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		width = image.getWidth();
+		height = image.getHeight();
+	}
+
+	/**
+	 * Fills a circle with a colour.
+	 * 
+	 * @param xPos
+	 *            x co-ordinate of the left of the circle
+	 * @param yPos
+	 *            y co-ordinate of the top of the circle
+	 * @param diameter
+	 *            the diameter of the circle
+	 * @param rgb
+	 *            the RGB value of the colour
+	 */
+	public void fillCircle(int xPos, int yPos, int diameter, int rgb) {
+		if (diameter <= 0) {
+			return;
+		}
+		if (diameter >= spanStarts.length || spanStarts[diameter] == null) {
+			makeSpans(diameter);
+		}
+		int[] starts = spanStarts[diameter];
+		int[] ends = spanEnds[diameter];
+		int row = Math.max(0, -yPos);
+		int lastRow = Math.min(diameter, height - yPos);
+		for (; row < lastRow; ++row) {
+			int x1 = Math.max(xPos + starts[row], 0);
+			int x2 = Math.min(xPos + ends[row], width - 1);
+			int offset = (yPos + row) * width;
+			for (int x = x1; x <= x2; ++x) {
+				pixels[offset + x] = rgb;
+			}
+		}
+	}
+
+	/**
+	 * Fills a rectangle with a colour.
+	 * 
+	 * @param xPos
+	 *            x co-ordinate of the left of the rectangle
+	 * @param yPos
+	 *            y co-ordinate of the top of the rectangle
+	 * @param rectWidth
+	 *            the width of the rectangle
+	 * @param rectHeight
+	 *            the height of the rectangle
+	 * @param rgb
+	 *            the RGB value of the colour
+	 */
+	public void fillRect(int xPos, int yPos, int rectWidth, int rectHeight,
+			int rgb) {
+		int x1 = Math.max(xPos, 0);
+		int x2 = Math.min(xPos + rectWidth, width);
+		int y1 = Math.max(yPos, 0);
+		int y2 = Math.min(yPos + rectHeight, height);
+		for (int y = y1; y < y2; ++y) {
+			int offset = y * width;
+			for (int x = x1; x < x2; ++x) {
+				pixels[offset + x] = rgb;
+			}
+		}
+	}
+
+	/**
+	 * Draws a Sprite, blending each pixel it partly covers with the pixel
+	 * beneath.
+	 * 
+	 * @param sprite
+	 *            the Sprite
+	 * @param xPos
+	 *            x co-ordinate of the left of the Sprite
+	 * @param yPos
+	 *            y co-ordinate of the top of the Sprite
+	 */
+	public void drawSprite(Sprite sprite, int xPos, int yPos) {
+		int size = sprite.getSize();
+		int[] source = sprite.getPixels();
+		int x1 = Math.max(xPos, 0);
+		int x2 = Math.min(xPos + size, width);
+		int y1 = Math.max(yPos, 0);
+		int y2 = Math.min(yPos + size, height);
+		for (int y = y1; y < y2; ++y) {
+			int from = (y - yPos) * size - xPos;
+			int offset = y * width;
+			for (int x = x1; x < x2; ++x) {
+				int pixel = source[from + x];
+				int alpha = pixel >>> 24;
+				if (alpha == 0xFF) {
+					pixels[offset + x] = pixel;
+				} else if (alpha != 0) {
+					int under = pixels[offset + x];
+					int rest = 0xFF - alpha;
+					int red = ((pixel >> 16) & 0xFF)
+							+ (((under >> 16) & 0xFF) * rest + 127) / 255;
+					int green = ((pixel >> 8) & 0xFF)
+							+ (((under >> 8) & 0xFF) * rest + 127) / 255;
+					int blue = (pixel & 0xFF) + ((under & 0xFF) * rest + 127)
+							/ 255;
+					pixels[offset + x] = (red << 16) | (green << 8) | blue;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills every pixel which a Sprite covers at all with a colour, to erase
+	 * the Sprite.
+	 * 
+	 * @param sprite
+	 *            the Sprite
+	 * @param xPos
+	 *            x co-ordinate of the left of the Sprite
+	 * @param yPos
+	 *            y co-ordinate of the top of the Sprite
+	 * @param rgb
+	 *            the RGB value of the colour
+	 */
+	public void eraseSprite(Sprite sprite, int xPos, int yPos, int rgb) {
+		int size = sprite.getSize();
+		int[] source = sprite.getPixels();
+		int x1 = Math.max(xPos, 0);
+		int x2 = Math.min(xPos + size, width);
+		int y1 = Math.max(yPos, 0);
+		int y2 = Math.min(yPos + size, height);
+		for (int y = y1; y < y2; ++y) {
+			int from = (y - yPos) * size - xPos;
+			int offset = y * width;
+			for (int x = x1; x < x2; ++x) {
+				if (source[from + x] != 0) {
+					pixels[offset + x] = rgb;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes the table of spans for circles of a diameter. A pixel is in the
+	 * circle if its centre is, as when Java2D fills an Ellipse2D without
+	 * antialiasing.
+	 * 
+	 * @param diameter
+	 *            the diameter
+	 */
+	private void makeSpans(int diameter) {
+		if (diameter >= spanStarts.length) {
+			int length = Math.max(diameter + 1, 2 * spanStarts.length);
+			int[][] starts = new int[length][];
+			int[][] ends = new int[length][];
+			System.arraycopy(spanStarts, 0, starts, 0, spanStarts.length);
+			System.arraycopy(spanEnds, 0, ends, 0, spanEnds.length);
+			spanStarts = starts;
+			spanEnds = ends;
+		}
+		int[] starts = new int[diameter];
+		int[] ends = new int[diameter];
+		double r = diameter / 2.0;
+		for (int row = 0; row < diameter; ++row) {
+			double dy = row + 0.5 - r;
+			double half = Math.sqrt(Math.max(r * r - dy * dy, 0.0));
+			starts[row] = (int) Math.ceil(r - half - 0.5);
+			ends[row] = (int) Math.floor(r + half - 0.5);
+		}
+		spanStarts[diameter] = starts;
+		spanEnds[diameter] = ends;
+	}
+}
@@ -20,7 +20,7 @@ public class SetupParamLine extends ParamLine
 	private static final int FIELD_WIDTH = 120;
     
 	private JTextField textField;
-	private JComboBox colorBox = null;
+	private JComboBox choiceBox = null;
 	
 	/**
 	 * Creates a new SetupParamLine given a Parameter and an integer width for
@@ -47,8 +47,14 @@ public class SetupParamLine extends ParamLine
         this.add(createNameLabel(), BorderLayout.WEST);
         
         if (param.getType() == Parameter.COLOR) {
-        	colorBox = createColorBox();
-        	this.add(colorBox, BorderLayout.CENTER);
+        	choiceBox = createChoiceBox(
+        	                   ((ColorParameter) param).getPossibleColors());
+        	this.add(choiceBox, BorderLayout.CENTER);
+        }
+        else if (param.getType() == Parameter.CHOICE) {
+        	choiceBox = createChoiceBox(((ChoiceParameter) param).getChoices());
+        	choiceBox.setSelectedItem(param.getValueString());
+        	this.add(choiceBox, BorderLayout.CENTER);
         }
         else {
         	textField = createParamField();
@@ -70,13 +76,15 @@ public class SetupParamLine extends ParamLine
     }
     
     /**
-     * Creates a JComboBox filled with strings representing color names.
+     * Creates a JComboBox filled with strings representing the possible
+     * values of this SetupParamLine's Parameter, e.g. color names.
+     * @param names the names to fill the JComboBox with.
      */
-    private JComboBox createColorBox()
+    private JComboBox createChoiceBox(String[] names)
     {
     	JComboBox comboBox = new JComboBox();
-    	for (String colorName : ((ColorParameter) param).getPossibleColors()) {
-    		comboBox.addItem(colorName);
+    	for (String name : names) {
+    		comboBox.addItem(name);
     	}
     	return comboBox;
     }
@@ -87,11 +95,12 @@ public class SetupParamLine extends ParamLine
      */
     public String getFieldString()
     {
-    	if (!(param.getType() == Parameter.COLOR)) {
+    	if (!(param.getType() == Parameter.COLOR)
+    	    && !(param.getType() == Parameter.CHOICE)) {
     		return textField.getText().trim();
     	}
     	else {
-    		return ((String) colorBox.getSelectedItem()).trim();
+    		return ((String) choiceBox.getSelectedItem()).trim();
     	}
     }
     
@@ -96,7 +96,8 @@ public class SetupParamPanel extends ParamPanel
     {
     	for (int i = 0; i < N_PARAMS; ++i) {
     		int type = params[i].getType();
-    		if (type == Parameter.INT || type == Parameter.DOUBLE) { 
+    		if (type == Parameter.INT || type == Parameter.DOUBLE
+    		    || type == Parameter.BOOLEAN) {
     			params[i].setDefault();
     			((SetupParamLine) paramLines[i]).updateField();
     		}
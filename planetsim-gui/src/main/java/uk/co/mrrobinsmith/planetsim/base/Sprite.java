@@ -0,0 +1,47 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+/**
+ * Sprite is a square image of a filled circle drawn ahead of time, to be
+ * copied onto a Canvas. Each pixel is held as premultiplied ARGB, the alpha
+ * being how much of the pixel the circle covers, so that an antialiased
+ * edge blends into whatever it is drawn over.
+ * 
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class Sprite {
+	private final int size;
+	private final int[] pixels;
+
+	/**
+	 * Creates a Sprite.
+	 * 
+	 * @param size
+	 *            the width and height of the Sprite
+	 * @param pixels
+	 *            the premultiplied ARGB value of each pixel, row by row
+	 */
+	public Sprite(int size, int[] pixels) {
+		this.size = size;
+		this.pixels = pixels;
+	}
+
+	/**
+	 * Gets the width and height of the Sprite.
+	 * 
+	 * @return the size in pixels
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the pixels of the Sprite, which are not to be changed.
+	 * 
+	 * @return the premultiplied ARGB value of each pixel, row by row
+	 */
+	int[] getPixels() {
+		return pixels;
+	}
+}
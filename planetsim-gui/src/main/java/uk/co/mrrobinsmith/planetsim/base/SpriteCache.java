@@ -0,0 +1,188 @@
+package uk.co.mrrobinsmith.planetsim.base;
+
+import java.util.HashMap;
+
+/**
+ * SpriteCache holds a Sprite of a filled circle for each diameter and
+ * colour drawn, made the first time it is asked for, so that a circle is
+ * rasterized once rather than every time it is drawn. The shape of the
+ * circles of each diameter is held separately as a white mask, from which
+ * the Sprites of each colour are made and which is also used to erase them.
+ * The circles are either rasterized by whether the centre of each pixel is
+ * inside them, or antialiased by sampling each pixel on a grid.
+ * 
+ * The Sprites are looked up by colour and then by diameter, and the last
+ * colour looked up is remembered, so drawing the circles of one colour
+ * together costs nothing but an array lookup each.
+ * 
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class SpriteCache {
+	/* samples across each pixel in each direction when antialiasing */
+	private static final int SAMPLES = 4;
+	private boolean isAntialiased = false;
+	/* the white mask of each diameter */
+	private Sprite[] masks = new Sprite[0];
+	/* the Sprites of each colour, by diameter */
+	private HashMap<Integer, Sprite[]> sprites = new HashMap<Integer, Sprite[]>();
+	/* the colour last looked up, and its Sprites */
+	private int lastColor;
+	private Sprite[] lastSprites = null;
+
+	/**
+	 * Sets whether the circles are antialiased, forgetting all the Sprites
+	 * made if this changes.
+	 * 
+	 * @param isAntialiased
+	 *            true to antialias the circles
+	 */
+	public void setAntialiased(boolean isAntialiased) {
+		if (this.isAntialiased != isAntialiased) {
+			this.isAntialiased = isAntialiased;
+			masks = new Sprite[0];
+			clear();
+		}
+	}
+
+	/**
+	 * Checks whether the circles are antialiased.
+	 * 
+	 * @return true or false
+	 */
+	public boolean isAntialiased() {
+		return isAntialiased;
+	}
+
+	/**
+	 * Forgets the Sprites of every colour, e.g. when the colours in use have
+	 * changed. The masks are kept.
+	 */
+	public void clear() {
+		sprites.clear();
+		lastSprites = null;
+	}
+
+	/**
+	 * Gets the white mask of the circle of a diameter.
+	 * 
+	 * @param diameter
+	 *            the diameter
+	 * @return the mask, or null if the diameter is not positive
+	 */
+	public Sprite getMask(int diameter) {
+		if (diameter <= 0) {
+			return null;
+		}
+		if (diameter >= masks.length) {
+			masks = grow(masks, diameter);
+		}
+		if (masks[diameter] == null) {
+			masks[diameter] = makeMask(diameter);
+		}
+		return masks[diameter];
+	}
+
+	/**
+	 * Gets the Sprite of the circle of a diameter and colour.
+	 * 
+	 * @param rgb
+	 *            the RGB value of the colour
+	 * @param diameter
+	 *            the diameter
+	 * @return the Sprite, or null if the diameter is not positive
+	 */
+	public Sprite getSprite(int rgb, int diameter) {
+		if (diameter <= 0) {
+			return null;
+		}
+		rgb &= 0xFFFFFF;
+		if (lastSprites == null || lastColor != rgb) {
+			lastSprites = sprites.get(rgb);
+			if (lastSprites == null) {
+				lastSprites = new Sprite[0];
+			}
+			lastColor = rgb;
+		}
+		if (diameter >= lastSprites.length) {
+			lastSprites = grow(lastSprites, diameter);
+			sprites.put(rgb, lastSprites);
+		}
+		if (lastSprites[diameter] == null) {
+			lastSprites[diameter] = makeSprite(getMask(diameter), rgb);
+		}
+		return lastSprites[diameter];
+	}
+
+	/**
+	 * Makes a copy of an array of Sprites long enough to hold a diameter.
+	 * 
+	 * @param array
+	 *            the array
+	 * @param diameter
+	 *            the diameter
+	 * @return the longer array
+	 */
+	private static Sprite[] grow(Sprite[] array, int diameter) {
+		Sprite[] longer = new Sprite[Math.max(diameter + 1, 2 * array.length)];
+		System.arraycopy(array, 0, longer, 0, array.length);
+		return longer;
+	}
+
+	/**
+	 * Rasterizes the white mask of a circle.
+	 * 
+	 * @param diameter
+	 *            the diameter
+	 * @return the mask
+	 */
+	private Sprite makeMask(int diameter) {
+		int[] pixels = new int[diameter * diameter];
+		double r = diameter / 2.0;
+		int samples = isAntialiased ? SAMPLES : 1;
+		int nSamples = samples * samples;
+		for (int y = 0; y < diameter; ++y) {
+			for (int x = 0; x < diameter; ++x) {
+				int inside = 0;
+				for (int j = 0; j < samples; ++j) {
+					double dy = y + (j + 0.5) / samples - r;
+					for (int i = 0; i < samples; ++i) {
+						double dx = x + (i + 0.5) / samples - r;
+						if (dx * dx + dy * dy <= r * r) {
+							inside++;
+						}
+					}
+				}
+				int alpha = (255 * inside + nSamples / 2) / nSamples;
+				pixels[y * diameter + x] = (alpha << 24) | (alpha << 16)
+						| (alpha << 8) | alpha;
+			}
+		}
+		return new Sprite(diameter, pixels);
+	}
+
+	/**
+	 * Makes the Sprite of a colour from a white mask.
+	 * 
+	 * @param mask
+	 *            the mask
+	 * @param rgb
+	 *            the RGB value of the colour
+	 * @return the Sprite
+	 */
+	private static Sprite makeSprite(Sprite mask, int rgb) {
+		int[] maskPixels = mask.getPixels();
+		int[] pixels = new int[maskPixels.length];
+		int red = (rgb >> 16) & 0xFF;
+		int green = (rgb >> 8) & 0xFF;
+		int blue = rgb & 0xFF;
+		for (int k = 0; k < pixels.length; ++k) {
+			int alpha = maskPixels[k] >>> 24;
+			pixels[k] = (alpha << 24) | ((red * alpha + 127) / 255 << 16)
+					| ((green * alpha + 127) / 255 << 8)
+					| ((blue * alpha + 127) / 255);
+		}
+		return new Sprite(mask.getSize(), pixels);
+	}
+}
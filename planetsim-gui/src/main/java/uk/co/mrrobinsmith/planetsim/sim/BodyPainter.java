@@ -0,0 +1,187 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import uk.co.mrrobinsmith.planetsim.base.Canvas;
+import uk.co.mrrobinsmith.planetsim.base.Sprite;
+import uk.co.mrrobinsmith.planetsim.base.SpriteCache;
+
+/**
+ * BodyPainter draws the bodies of a PlanetSim onto a Canvas, as filled
+ * circles of their diameter and colour at their positions scaled down to
+ * pixels. Bodies outside the bounds of the simulation are not drawn. Frames
+ * captured by the simulation are drawn in the same way.
+ *
+ * Each circle is copied from a SpriteCache, which rasterizes the circle of
+ * each diameter and colour only once, optionally antialiased. The bodies in
+ * a Frame are drawn one colour at a time, so that the Sprites of a colour
+ * are looked up together.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class BodyPainter
+{
+	private Canvas canvas;
+	private SpriteCache sprites = new SpriteCache();
+	/* the colours of the Frame being drawn */
+	private int[] colors = new int[8];
+
+	/**
+	 * Creates a BodyPainter which draws onto a Canvas.
+	 * @param canvas the Canvas.
+	 */
+	public BodyPainter(Canvas canvas)
+	{
+		this.canvas = canvas;
+	}
+
+	/**
+	 * Sets whether the bodies are drawn antialiased. Bodies drawn before
+	 * this changes should be erased before it is called.
+	 * @param isAntialiased true to antialias the bodies.
+	 */
+	public void setAntialiased(boolean isAntialiased)
+	{
+		sprites.setAntialiased(isAntialiased);
+	}
+
+	/**
+	 * Forgets the circles drawn in each colour, to be called when the colours
+	 * of the bodies change.
+	 */
+	public void clearSprites()
+	{
+		sprites.clear();
+	}
+
+	/**
+	 * Draws each Body which is within the bounds of the simulation.
+	 * @param bodies the bodies, which may contain null entries.
+	 */
+	public void draw(Body[] bodies)
+	{
+		for (Body body : bodies) {
+			if (body != null && !body.isOffScreen()) {
+				Sprite sprite = sprites.getSprite(body.getColor(),
+				                                  body.getDiameter());
+				if (sprite != null) {
+					canvas.drawSprite(sprite, left(body), top(body));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Erases each Body which was drawn at its current position.
+	 * @param bodies the bodies, which may contain null entries.
+	 */
+	public void erase(Body[] bodies)
+	{
+		for (Body body : bodies) {
+			if (body != null && !body.isOffScreen()) {
+				Sprite mask = sprites.getMask(body.getDiameter());
+				if (mask != null) {
+					canvas.eraseSprite(mask, left(body), top(body));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws each Body in a Frame, one colour at a time.
+	 * @param frame the Frame.
+	 */
+	public void draw(Frame frame)
+	{
+		int nColors = findColors(frame);
+		for (int k = 0; k < nColors; ++k) {
+			int color = colors[k];
+			for (int i = 0; i < frame.size(); ++i) {
+				if (frame.getColor(i) == color) {
+					int d = frame.getDiameter(i);
+					Sprite sprite = sprites.getSprite(color, d);
+					if (sprite != null) {
+						canvas.drawSprite(sprite, corner(frame.getX(i), d),
+						                  corner(frame.getY(i), d));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the different colours of the bodies in a Frame.
+	 * @param frame the Frame.
+	 * @return the number of colours, which are put at the start of colors.
+	 */
+	private int findColors(Frame frame)
+	{
+		int nColors = 0;
+		for (int i = 0; i < frame.size(); ++i) {
+			int color = frame.getColor(i);
+			int k = 0;
+			while (k < nColors && colors[k] != color) {
+				k++;
+			}
+			if (k == nColors) {
+				if (nColors == colors.length) {
+					int[] more = new int[2 * nColors];
+					System.arraycopy(colors, 0, more, 0, nColors);
+					colors = more;
+				}
+				colors[nColors++] = color;
+			}
+		}
+		return nColors;
+	}
+
+	/**
+	 * Erases each Body in a Frame which has been drawn.
+	 * @param frame the Frame.
+	 */
+	public void erase(Frame frame)
+	{
+		for (int i = 0; i < frame.size(); ++i) {
+			int d = frame.getDiameter(i);
+			Sprite mask = sprites.getMask(d);
+			if (mask != null) {
+				canvas.eraseSprite(mask, corner(frame.getX(i), d),
+				                   corner(frame.getY(i), d));
+			}
+		}
+	}
+
+	/**
+	 * Gets the coordinate of the left or top of a circle in pixels.
+	 * @param centre the coordinate of the centre of the circle.
+	 * @param d the diameter of the circle.
+	 * @return the coordinate.
+	 */
+	private static int corner(float centre, int d)
+	{
+		return (int) (centre - d / 2);
+	}
+
+	/**
+	 * Gets the x-coordinate of the left of a Body's circle in pixels.
+	 * @param body the Body.
+	 * @return the x-coordinate.
+	 */
+	private static int left(Body body)
+	{
+		return (int) (body.getXPos() / Body.SCALE_FACTOR
+		              - body.getDiameter() / 2);
+	}
+
+	/**
+	 * Gets the y-coordinate of the top of a Body's circle in pixels.
+	 * @param body the Body.
+	 * @return the y-coordinate.
+	 */
+	private static int top(Body body)
+	{
+		return (int) (body.getYPos() / Body.SCALE_FACTOR
+		              - body.getDiameter() / 2);
+	}
+
+}
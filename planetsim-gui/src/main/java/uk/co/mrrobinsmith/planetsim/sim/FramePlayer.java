@@ -0,0 +1,245 @@
+package uk.co.mrrobinsmith.planetsim.sim;
+
+import java.util.Arrays;
+
+import uk.co.mrrobinsmith.planetsim.base.Canvas;
+
+/**
+ * FramePlayer is the render loop of the GUI. It draws the Frames which a
+ * running PlanetSim captures, on its own thread and at the steady pace of
+ * one display frame every PlanetSim.FRAME_NANOS, so that the simulation
+ * never waits for drawing and a Frame is only ever drawn whole.
+ *
+ * With no look-ahead each display frame shows the latest Frame taken from
+ * the simulation's TripleBuffer, if a new one has been published. With a
+ * look-ahead the Frames are played from its FrameBuffer instead, and each
+ * display frame earns as many steps as the
+ * simulation speed, and the buffered Frames are played for as long as they
+ * are paid for, so a change of speed takes effect on the very next display
+ * frame: a faster speed plays several Frames at once and shows only the
+ * last, and a slower one holds each Frame on screen for longer, while the
+ * simulation catches up behind with Frames of the new size.
+ *
+ * @author Robin Smith
+ * @version 1 (18/10/2026)
+ */
+
+public class FramePlayer implements Runnable
+{
+	/* most display frames played at once to catch up with the wall clock */
+	private static final int MAX_CATCH_UP_FRAMES = 4;
+	private PlanetSim sim;
+	private FrameBuffer frames;
+	private TripleBuffer latest;
+	private Canvas canvas;
+	private BodyPainter painter;
+	private FrameScheduler scheduler;
+	/* the Frame on screen, and the next one to be shown */
+	private Frame shown = new Frame();
+	private Frame next = new Frame();
+	/* the steps earned by display frames and not yet played */
+	private double stepCredit = 0.0;
+	/* the version of the parameters the bodies are drawn with, and the
+	 * colours they had */
+	private long styleVersion = -1;
+	private int[] palette = new int[0];
+	private volatile boolean isPlaying = false;
+	private Thread player = null;
+
+	/**
+	 * Creates a FramePlayer for a PlanetSim.
+	 * @param sim the PlanetSim.
+	 * @param canvas the Canvas on which the Frames are shown.
+	 * @param painter the BodyPainter which draws the Frames.
+	 */
+	public FramePlayer(PlanetSim sim, Canvas canvas, BodyPainter painter)
+	{
+		this.sim = sim;
+		this.canvas = canvas;
+		this.painter = painter;
+		frames = sim.getFrameBuffer();
+		latest = sim.getLatestFrames();
+		scheduler = new FrameScheduler(MAX_CATCH_UP_FRAMES, null);
+		scheduler.setPeriod(PlanetSim.FRAME_NANOS);
+	}
+
+	/**
+	 * Notes the bodies already drawn, so that they are erased when the first
+	 * Frame is shown. Only to be called while the player is stopped.
+	 * @param bodies the bodies which are on screen.
+	 */
+	public void setShown(Body[] bodies)
+	{
+		shown.capture(bodies, sim.getSimTime(), 0);
+		stepCredit = 0.0;
+	}
+
+	/**
+	 * Starts playing Frames on a new thread, unless there is already a
+	 * thread playing them. A thread which has been stopped but has not yet
+	 * finished carries on playing instead.
+	 */
+	public synchronized void start()
+	{
+		isPlaying = true;
+		if (player == null) {
+			player = new Thread(this, "FramePlayer");
+			player.setDaemon(true);
+			player.start();
+		}
+	}
+
+	/**
+	 * Stops playing Frames and waits for the thread playing them to finish,
+	 * so that once this returns nothing else reads the simulation's Frames
+	 * or draws on the Canvas, and a new FramePlayer can safely take over.
+	 * Any Frames still buffered are left unplayed. start() and stop() are
+	 * to be called from one thread, such as the event dispatch thread.
+	 */
+	public void stop()
+	{
+		Thread thread;
+		synchronized (this) {
+			isPlaying = false;
+			thread = player;
+		}
+		if (thread == null || thread == Thread.currentThread()) {
+			return;
+		}
+		boolean isInterrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			}
+			catch (InterruptedException e) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Plays Frames until the player is stopped and not started again before
+	 * the thread finishes.
+	 */
+	public void run()
+	{
+		try {
+			do {
+				scheduler.reset();
+				while (isPlaying) {
+					play(scheduler.nextFrames());
+				}
+			} while (!finish());
+		}
+		finally {
+			synchronized (this) {
+				if (player == Thread.currentThread()) {
+					player = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lets the thread playing Frames finish, unless start() has been called
+	 * since the player was stopped. Checking under the same lock as start()
+	 * means a start is never lost: either this thread sees it and carries
+	 * on, or start() sees no thread and makes a new one.
+	 * @return true if the thread is to finish.
+	 */
+	private synchronized boolean finish()
+	{
+		if (isPlaying) {
+			return false;
+		}
+		player = null;
+		return true;
+	}
+
+	/**
+	 * Shows the Frame due after a number of display frames, if it is not the
+	 * one already on screen.
+	 * @param nFrames the number of display frames.
+	 */
+	private void play(int nFrames)
+	{
+		if (nFrames == 0) {
+			return;
+		}
+		SimConfig config = sim.getConfig();
+		boolean isNew;
+		if (config.getLookAhead() > 0) {
+			isNew = playBuffered(nFrames, config);
+		}
+		else {
+			Frame frame = latest.takeLatest();
+			isNew = (frame != null);
+			if (isNew) {
+				next.copy(frame);
+			}
+		}
+		if (isNew) {
+			canvas.beginFrame();
+			if (!config.isTrailsOn()) {
+				painter.erase(shown);
+			}
+			updateStyle(config);
+			painter.draw(next);
+			canvas.endFrame();
+			Frame swap = shown;
+			shown = next;
+			next = swap;
+		}
+	}
+
+	/**
+	 * Brings the way the bodies are drawn up to date with the parameters,
+	 * forgetting the Sprites of the old colours if the colours have been
+	 * changed.
+	 * @param config the parameters of the simulation.
+	 */
+	private void updateStyle(SimConfig config)
+	{
+		if (config.getVersion() == styleVersion) {
+			return;
+		}
+		styleVersion = config.getVersion();
+		painter.setAntialiased(config.isAntialiasedOn());
+		int[] colors = config.getColors();
+		if (!Arrays.equals(colors, palette)) {
+			palette = colors;
+			painter.clearSprites();
+		}
+	}
+
+	/**
+	 * Plays the buffered Frames paid for by a number of display frames,
+	 * copying the last of them to be shown next.
+	 * @param nFrames the number of display frames.
+	 * @param config the parameters of the simulation.
+	 * @return true if any Frame was played.
+	 */
+	private boolean playBuffered(int nFrames, SimConfig config)
+	{
+		stepCredit += nFrames * config.getSimSpeed();
+		boolean isNew = false;
+		Frame frame = frames.peek();
+		while (frame != null && frame.getSteps() <= stepCredit) {
+			stepCredit -= frame.getSteps();
+			next.copy(frame);
+			frames.release();
+			isNew = true;
+			frame = frames.peek();
+		}
+		if (frame == null) {
+			/* the simulation has fallen behind, so steps are not banked
+			 * while there is nothing to play */
+			stepCredit = Math.min(stepCredit, config.getSimSpeed());
+		}
+		return isNew;
+	}
+
+}
@@ -12,13 +12,14 @@ import uk.co.mrrobinsmith.planetsim.base.*;
 import uk.co.mrrobinsmith.planetsim.base.Canvas;
 
 /**
- * PlanetSimGUI is the GUI and main class for the PlanetSim project.
+ * PlanetSimGUI is the GUI and main class for the PlanetSim project. It is the
+ * SimView of its PlanetSim, drawing the bodies with a BodyPainter.
  *
  * @author Robin Smith
  * @version 1 (17/11/2010)
  */
 
-public class PlanetSimGUI implements SimGUI
+public class PlanetSimGUI implements SimGUI, SimView
 {
 	
 	//program details
@@ -38,7 +39,12 @@ public class PlanetSimGUI implements SimGUI
     private Container contentPane;
     private JFrame paramFrame;
     private JFrame dataFrame;
+    private AdjustableParamPanel paramPanel = null;
+    private DataParamPanel dataPanel = null;
     private Canvas canvas; //drawing canvas on which the simulation is drawn
+    private BodyPainter painter;
+    /* plays the frames the simulation runs ahead of the canvas */
+    private FramePlayer player = null;
     private JButton runButton;
     private JButton stopButton;
     private JButton pauseButton;
@@ -49,7 +55,6 @@ public class PlanetSimGUI implements SimGUI
     
     //simulation objects
     private PlanetSim sim;
-    private Thread simThread; //separate thread for the simulation
          
     /**
      * Creates a new PlanetSimGUI and a PlanetSim.
@@ -82,6 +87,28 @@ public class PlanetSimGUI implements SimGUI
     	canvas.wait(time);
     }
     
+    /**
+     * Erases the bodies from the canvas.
+     * @param bodies the bodies.
+     */
+    public void eraseBodies(Body[] bodies)
+    {
+    	canvas.beginFrame();
+    	painter.erase(bodies);
+    	canvas.endFrame();
+    }
+    
+    /**
+     * Draws the bodies onto the canvas.
+     * @param bodies the bodies.
+     */
+    public void drawBodies(Body[] bodies)
+    {
+    	canvas.beginFrame();
+    	painter.draw(bodies);
+    	canvas.endFrame();
+    }
+    
     /**
      * Obtains an image with the relative path 'filename'.
      * @param filename the relative path of the image file
@@ -280,8 +307,14 @@ public class PlanetSimGUI implements SimGUI
      */
     private void showParamFrame()
     {
+    	ParameterRegistry registry = sim.getSettings();
+    	if (paramPanel != null) {
+    		registry.removeListener(paramPanel);
+    	}
+    	paramPanel = new AdjustableParamPanel(sim.getSetupParams(), sim,
+    	                                      registry);
     	paramFrame.getContentPane().removeAll();
-        paramFrame.add(new AdjustableParamPanel(sim.getSetupParams()));
+        paramFrame.add(paramPanel);
         paramFrame.pack();
         paramFrame.setVisible(true);
         FramePosition.positionFrame(paramFrame, FramePosition.WEST, mainFrame);
@@ -292,7 +325,11 @@ public class PlanetSimGUI implements SimGUI
      */
     private void showDataFrame()
     {
-    	DataParamPanel dataPanel = new DataParamPanel(sim.getDataParams());
+    	ParameterRegistry registry = sim.getDataRegistry();
+    	if (dataPanel != null) {
+    		registry.removeListener(dataPanel);
+    	}
+    	dataPanel = new DataParamPanel(sim.getDataParams(), registry);
     	dataFrame.getContentPane().removeAll();
     	dataFrame.add(dataPanel);
     	dataFrame.pack();
@@ -326,6 +363,12 @@ public class PlanetSimGUI implements SimGUI
     	int simWidth = sim.getWidth();
     	int simHeight = sim.getHeight();
     	canvas = new Canvas(simWidth, simHeight, BG_COLOR);
+    	painter = new BodyPainter(canvas);
+    	painter.setAntialiased(sim.getConfig().isAntialiasedOn());
+    	if (player != null) {
+    		player.stop();
+    	}
+    	player = new FramePlayer(sim, canvas, painter);
     	mainFrame.setVisible(false);
     	contentPane.removeAll();
     	contentPane.setLayout(new BorderLayout());
@@ -340,6 +383,7 @@ public class PlanetSimGUI implements SimGUI
         drawStartMessage();
         sim.createBodies();
         sim.drawBodies();
+        player.setShown(sim.getBodies());
 
         FramePosition.positionFrame(mainFrame, FramePosition.EAST);
         mainFrame.setTitle("PlanetSim");
@@ -386,6 +430,9 @@ public class PlanetSimGUI implements SimGUI
      */
     private void runSim()
     {
+    	if (!sim.start()) {
+    		return;
+    	}
     	buttonPanel.removeAll();
         buttonPanel.add(pauseButton);
         buttonPanel.add(addRogueButton);
@@ -395,8 +442,7 @@ public class PlanetSimGUI implements SimGUI
     	eraseStartMessage();
     	mainFrame.repaint();
     	
-    	simThread = new Thread(sim);
-    	simThread.start();
+    	player.start();
     }
     
     /**
@@ -405,6 +451,7 @@ public class PlanetSimGUI implements SimGUI
     private void stopSim()
     {
     	sim.stop();
+    	player.stop();
     	buttonPanel.removeAll();
     	buttonPanel.add(resetButton);
     	mainFrame.pack();
@@ -430,8 +477,8 @@ public class PlanetSimGUI implements SimGUI
      */
     private void resumeSim()
     {
-    	simThread = new Thread(sim);
-    	simThread.start();
+    	player.start();
+    	sim.resume();
     	buttonPanel.removeAll();
     	buttonPanel.add(pauseButton);
     	buttonPanel.add(addRogueButton);
@@ -445,21 +492,31 @@ public class PlanetSimGUI implements SimGUI
      */
     public void resetSim()
     {
-    	if (sim.isRunning()) {
-    		sim.stop();
-    	}
+    	sim.stop();
+    	player.stop();
     	sim.resetData();
     	showSetupView();
     }
     
     /**
-     * Makes changes to the GUI relevant to the simulation finishing.
+     * Makes changes to the GUI relevant to the simulation finishing. This is
+     * called on the simulation's worker thread, so the changes are made later
+     * on the event dispatch thread, and only if the simulation view is still
+     * showing by then.
      */
     public void simFinished()
     {
-    	buttonPanel.removeAll();
-    	buttonPanel.add(resetButton);
-    	mainFrame.pack();
+    	SwingUtilities.invokeLater(new Runnable() {
+    		public void run()
+    		{
+    			if (buttonPanel.getParent() != contentPane) {
+    				return;
+    			}
+    			buttonPanel.removeAll();
+    			buttonPanel.add(resetButton);
+    			mainFrame.pack();
+    		}
+    	});
     }
     
     /**